@@ -0,0 +1,131 @@
+package se.jensen.grupp9.socialpostsapp.controller;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import se.jensen.grupp9.socialpostsapp.SocialPostsAppApplication;
+import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.model.User;
+import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
+import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /posts and GET /posts/{id} over HTTP with 200 concurrent clients, on platform threads
+ * and on virtual threads.
+ * <p>
+ * Tomcat is limited to 20 threads in both modes, so on platform threads requests queue for a
+ * thread, while on virtual threads they queue in front of the connection guard instead, which
+ * answers 503 after its acquire timeout. Those answers are counted as {@code errors}.
+ * Change the number of clients with {@code -t}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(200)
+@Fork(1)
+public class ServletLoadBenchmark {
+
+    private static final int POSTS = 500;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private final List<Long> postIds = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SocialPostsAppApplication.class)
+                .properties("JWT_SECRET=c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrcy0zMi1ieXRlcyE=",
+                        "server.port=0",
+                        "server.tomcat.threads.max=20",
+                        "spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                        "logging.level.root=WARN")
+                .run();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newHttpClient();
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        PostRepository postRepository = context.getBean(PostRepository.class);
+        for (int i = 0; i < POSTS / 50; i++) {
+            User user = new User();
+            user.setUsername("load" + i);
+            user.setEmail("load" + i + "@example.com");
+            user.setPassword("hashed_password");
+            user.setBio("load test user " + i);
+            userRepository.save(user);
+            List<Post> posts = new ArrayList<>();
+            for (int j = 0; j < 50; j++) {
+                Post post = new Post("load test post " + i + "-" + j);
+                post.setUser(user);
+                posts.add(post);
+            }
+            postRepository.saveAll(posts).forEach(post -> postIds.add(post.getId()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    /**
+     * Responses other than 200, per second in throughput mode
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+        public long errors;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            errors = 0;
+        }
+    }
+
+    // four out of five requests read a single post, the rest read the first feed page
+    @Benchmark
+    public int readPosts(Responses responses) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = random.nextInt(5) == 0
+                ? "/posts"
+                : "/posts/" + postIds.get(random.nextInt(postIds.size()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            responses.errors++;
+        }
+        return status;
+    }
+}
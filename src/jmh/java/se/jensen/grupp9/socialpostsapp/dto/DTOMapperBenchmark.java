@@ -0,0 +1,83 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.jensen.grupp9.socialpostsapp.model.Comment;
+import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.model.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping one post or comment to its response DTO, from a managed entity and
+ * from the projection records the read paths use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DTOMapperBenchmark {
+
+    private Post post;
+    private PostView postView;
+    private Comment comment;
+    private CommentView commentView;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark-user");
+        user.setEmail("benchmark@example.com");
+        user.setBio("benchmark user");
+
+        post = new Post("a post of about the usual length, with a sentence or two of text");
+        post.setId(42L);
+        post.setCreatedAt(now);
+        post.setUpdatedAt(now);
+        post.setUser(user);
+        post.setCommentCount(3);
+        postView = new PostView(42L, post.getText(), now, now, 1L, user.getUsername(),
+                user.getEmail(), user.getBio(), 3);
+
+        comment = new Comment("a short comment");
+        comment.setId(7L);
+        comment.setCreatedAt(now);
+        comment.setUser(user);
+        comment.setPost(post);
+        commentView = new CommentView(7L, 42L, comment.getText(), now, 1L, user.getUsername(),
+                user.getEmail(), user.getBio());
+    }
+
+    @Benchmark
+    public PostResponseDTO postFromEntity() {
+        return DTOMapper.toPostResponseDTO(post);
+    }
+
+    @Benchmark
+    public PostResponseDTO postFromView() {
+        return DTOMapper.toPostResponseDTO(postView);
+    }
+
+    @Benchmark
+    public CommentResponseDTO commentFromEntity() {
+        return DTOMapper.toCommentResponseDTO(comment);
+    }
+
+    @Benchmark
+    public CommentResponseDTO commentFromView() {
+        return DTOMapper.toCommentResponseDTO(commentView);
+    }
+}
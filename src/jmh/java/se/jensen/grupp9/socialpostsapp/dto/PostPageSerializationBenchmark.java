@@ -0,0 +1,64 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing one feed page ({@code Page<PostResponseDTO>}) as JSON, the body of
+ * GET /posts. The ObjectMapper is built like Spring Boot builds its own
+ * (Java time module, ISO dates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostPageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private Page<PostResponseDTO> page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PostResponseDTO> posts = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            UserDTO user = new UserDTO((long) i % 10, "user" + i % 10, "user" + i % 10 + "@example.com", "bio");
+            posts.add(new PostResponseDTO((long) i, "a post of about the usual length, number " + i,
+                    now.minusMinutes(i), now.minusMinutes(i), user, i % 4, null));
+        }
+        page = new PageImpl<>(posts, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,86 @@
+package se.jensen.grupp9.socialpostsapp.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one log call on the request thread, with INFO on and off.
+ * <p>
+ * {@code concatenated} builds the message before the call like the services used to,
+ * {@code parameterized} passes the argument to a {} pattern. The logger writes through
+ * the same kind of asynchronous appender as logback-spring.xml, into a no-op appender,
+ * so "on" measures formatting and enqueueing and not the console. Run with
+ * {@code -prof gc} to see the allocation per call.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppLoggerBenchmark {
+
+    @Param({"INFO", "WARN"})
+    public String level;
+
+    private final AppLogger appLogger = new AppLogger();
+    private AsyncAppender asyncAppender;
+    private Long userId = 4711L;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+        NOPAppender<ILoggingEvent> sink = new NOPAppender<>();
+        sink.setContext(context);
+        sink.start();
+
+        asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(sink);
+        asyncAppender.start();
+
+        Logger logger = context.getLogger(AppLogger.class);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.setLevel(Level.toLevel(level));
+        logger.addAppender(asyncAppender);
+    }
+
+    @TearDown
+    public void tearDown() {
+        asyncAppender.stop();
+    }
+
+    @Benchmark
+    public void concatenated() {
+        appLogger.info("Fetching user by id: " + userId);
+    }
+
+    @Benchmark
+    public void parameterized() {
+        appLogger.info("Fetching user by id: {}", userId);
+    }
+}
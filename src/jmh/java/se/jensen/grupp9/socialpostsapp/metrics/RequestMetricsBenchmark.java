@@ -0,0 +1,45 @@
+package se.jensen.grupp9.socialpostsapp.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording one request in {@link RequestMetrics}, which the metrics filter
+ * adds to every request. All threads record into the same route, the worst case for
+ * contention; the target is well below a microsecond per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestMetricsBenchmark {
+
+    private final RequestMetrics requestMetrics = new RequestMetrics();
+    private long latency = 1_234_567;
+
+    @Benchmark
+    @Threads(1)
+    public void recordSingleThread() {
+        requestMetrics.requestStarted();
+        requestMetrics.requestFinished("GET", "/posts/{id}", 200, latency);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordContended() {
+        requestMetrics.requestStarted();
+        requestMetrics.requestFinished("GET", "/posts/{id}", 200, latency);
+    }
+}
@@ -0,0 +1,115 @@
+package se.jensen.grupp9.socialpostsapp.repository;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.jensen.grupp9.socialpostsapp.SocialPostsAppApplication;
+import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Post insert throughput on H2, one round trip per row compared to JDBC batches.
+ * <p>
+ * The row by row case flushes after every post, which is what IDENTITY generation forced
+ * (Hibernate has to run each INSERT immediately to get the ID back). The batched case is
+ * what {@code PostService.createPosts} does with sequence IDs and hibernate.jdbc.batch_size.
+ * Each operation inserts one post; an invocation inserts {@value #ROWS} in one transaction.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostBatchInsertBenchmark {
+
+    static final int ROWS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private PostRepository postRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transaction;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SocialPostsAppApplication.class)
+                .properties("JWT_SECRET=c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrcy0zMi1ieXRlcyE=",
+                        "server.port=0", "logging.level.root=WARN")
+                .run();
+        postRepository = context.getBean(PostRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setPassword("hashed_password");
+        user.setBio("benchmark user");
+        userId = context.getBean(UserRepository.class).save(user).getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deletePosts() {
+        transaction.executeWithoutResult(status -> entityManager
+                .createQuery("DELETE FROM Post p WHERE p.user.id = :userId")
+                .setParameter("userId", userId)
+                .executeUpdate());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertRowByRow() {
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                postRepository.saveAndFlush(newPost(i));
+            }
+            entityManager.clear();
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertBatched() {
+        transaction.executeWithoutResult(status -> {
+            List<Post> posts = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                posts.add(newPost(i));
+            }
+            postRepository.saveAll(posts);
+            postRepository.flush();
+            entityManager.clear();
+        });
+    }
+
+    private Post newPost(int i) {
+        Post post = new Post("benchmark post number " + i);
+        post.setUser(entityManager.getReference(User.class, userId));
+        return post;
+    }
+}
@@ -0,0 +1,96 @@
+package se.jensen.grupp9.socialpostsapp.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import se.jensen.grupp9.socialpostsapp.SocialPostsAppApplication;
+import se.jensen.grupp9.socialpostsapp.dto.DTOMapper;
+import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a feed page of posts as managed entities (then mapped with DTOMapper) compared
+ * to PostView projections, on H2.
+ * <p>
+ * Every call is its own read-only repository transaction, so the persistence context ends
+ * after each page like at the end of a request. Run with {@code -prof gc} to get the heap
+ * allocation per page ({@code gc.alloc.rate.norm}).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostReadAllocationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGES = 10;
+
+    private ConfigurableApplicationContext context;
+    private PostRepository postRepository;
+    private int page;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SocialPostsAppApplication.class)
+                .properties("JWT_SECRET=c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrcy0zMi1ieXRlcyE=",
+                        "server.port=0", "logging.level.root=WARN")
+                .run();
+        postRepository = context.getBean(PostRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        for (int i = 0; i < PAGES; i++) {
+            User user = new User();
+            user.setUsername("benchmark" + i);
+            user.setEmail("benchmark" + i + "@example.com");
+            user.setPassword("hashed_password");
+            user.setBio("benchmark user " + i);
+            userRepository.save(user);
+            List<Post> posts = new ArrayList<>();
+            for (int j = 0; j < PAGE_SIZE; j++) {
+                Post post = new Post("benchmark post " + i + "-" + j);
+                post.setUser(user);
+                posts.add(post);
+            }
+            postRepository.saveAll(posts);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PostResponseDTO> readEntities() {
+        return postRepository.findAll(nextPage()).map(DTOMapper::toPostResponseDTO).getContent();
+    }
+
+    @Benchmark
+    public List<PostResponseDTO> readViews() {
+        return postRepository.findAllViews(nextPage()).map(DTOMapper::toPostResponseDTO).getContent();
+    }
+
+    private PageRequest nextPage() {
+        page = (page + 1) % PAGES;
+        return PageRequest.of(page, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,94 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request with a JWT.
+ * <p>
+ * {@code legacyDoubleParse} is what the filter did before: validate and then read the
+ * username, each with a parser built from the raw secret. {@code singleParse} verifies once
+ * with the prebuilt parser, {@code parseClaimsCached} is a repeat request served from the
+ * verified-token cache and {@code filterRequest} runs the whole filter.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrcy0zMi1ieXRlcyE=";
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", 10_000L);
+        jwtUtil.init();
+        filter = new JwtAuthenticationFilter(jwtUtil);
+        parser = Jwts.parserBuilder()
+                .setSigningKey(new SecretKeySpec(Decoders.BASE64.decode(SECRET), SignatureAlgorithm.HS256.getJcaName()))
+                .build();
+        token = jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void legacyDoubleParse(Blackhole blackhole) {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        blackhole.consume(Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject());
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public Optional<Claims> parseClaimsCached() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public Object filterRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/posts");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,69 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing an access token at login and of validating one.
+ * <p>
+ * {@code validateToken} is a repeat request answered from the verified-token cache,
+ * {@code validateTokenUncached} verifies the signature every time (cache disabled).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenBenchmark {
+
+    private static final String SECRET = "c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrcy0zMi1ieXRlcyE=";
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = jwtUtil(10_000L);
+        uncachedJwtUtil = jwtUtil(0L);
+        token = jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenUncached() {
+        return uncachedJwtUtil.validateToken(token);
+    }
+
+    private static JwtUtil jwtUtil(long cacheMaxEntries) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", cacheMaxEntries);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,74 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Overhead of the rate limiter per request under contention.
+ * <p>
+ * {@code sharedKey} has all threads hitting one bucket (worst case for the CAS loop),
+ * {@code keyPerThread} gives every thread its own bucket and {@code manyKeys} spreads
+ * the requests over more keys than fit in the limiter, so buckets are evicted and created.
+ * The limits are so high that requests are practically never rejected, so only the bookkeeping is measured.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    private RateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, 1_000);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        String ownKey;
+        int counter;
+
+        @Setup
+        public void setUp() {
+            ownKey = "user:" + THREAD_IDS.incrementAndGet();
+        }
+
+        String nextKey() {
+            return "ip:" + (counter++ & 4095);
+        }
+    }
+
+    @Benchmark
+    public long sharedKey() {
+        return limiter.tryAcquire("user:shared");
+    }
+
+    @Benchmark
+    public long keyPerThread(ThreadKeys keys) {
+        return limiter.tryAcquire(keys.ownKey);
+    }
+
+    @Benchmark
+    public long manyKeys(ThreadKeys keys) {
+        return limiter.tryAcquire(keys.nextKey());
+    }
+}
@@ -0,0 +1,81 @@
+package se.jensen.grupp9.socialpostsapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.dto.CacheStatsDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache of single posts, in front of {@code PostService.getPostById}.
+ * <p>
+ * Backed by Caffeine, which uses W-TinyLFU admission so a burst of one-off lookups
+ * does not push out the frequently read (viral) posts. Entries expire after a fixed
+ * time, so changes that do not invalidate the cache (like a renamed user) are
+ * visible after at most one TTL.
+ * </p>
+ * <p>
+ * Loads are single-flight: when many requests miss on the same post at once, one of
+ * them runs the loader and the others wait for its result.
+ * </p>
+ */
+@Component
+public class PostCache {
+
+    private final Cache<Long, PostResponseDTO> cache;
+
+    /**
+     * @param maxEntries Maximum number of cached posts
+     * @param ttl        Time an entry is kept after it was loaded
+     */
+    public PostCache(@Value("${posts.cache.max-entries:10000}") long maxEntries,
+                     @Value("${posts.cache.ttl:60s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get a post from the cache, or load and cache it on a miss.
+     * Concurrent misses for the same id share one load.
+     * Exceptions from the loader are passed on and nothing is cached.
+     *
+     * @param id     The post ID
+     * @param loader Loads the post on a cache miss
+     * @return The cached or loaded post
+     */
+    public PostResponseDTO get(Long id, Function<Long, PostResponseDTO> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Remove a post from the cache, after it has been changed or deleted.
+     *
+     * @param id The post ID
+     */
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Get the hit, miss and eviction counters of the cache.
+     *
+     * @return A CacheStatsDTO
+     */
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.hitRate());
+    }
+}
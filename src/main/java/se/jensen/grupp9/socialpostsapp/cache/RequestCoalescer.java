@@ -0,0 +1,73 @@
+package se.jensen.grupp9.socialpostsapp.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Single-flight loader: concurrent callers asking for the same key share one load.
+ * <p>
+ * The first caller for a key runs the loader, callers that arrive while it is running
+ * wait for and get the same result (or the same exception). Nothing is cached, once the
+ * load is done the next caller starts a new one.
+ * </p>
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Load the value for a key, or join a load for the same key that is already running.
+     *
+     * @param key    The key
+     * @param loader Loads the value, called at most once per concurrent group of callers
+     * @return The loaded value
+     */
+    public V load(K key, Function<K, V> loader) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, load);
+        if (running != null) {
+            return join(running);
+        }
+
+        try {
+            V value = loader.apply(key);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * Get the number of loads that are running right now.
+     *
+     * @return Number of keys being loaded
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // rethrow what the loader threw, so callers see the same exception types
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package se.jensen.grupp9.socialpostsapp.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import se.jensen.grupp9.socialpostsapp.dto.CursorPageDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.service.FeedService;
+
+/**
+ * REST controller for the home feed of the logged in user.
+ */
+@RestController
+@RequestMapping("/feed")
+public class FeedController {
+    private final FeedService feedService;
+
+    /**
+     * Constructor for FeedController
+     *
+     * @param feedService Service for the home feed
+     */
+    public FeedController(FeedService feedService) {
+        this.feedService = feedService;
+    }
+
+    /**
+     * Get the posts of the users the logged in user follows, and their own, newest first.
+     * Keep calling with nextCursor until it is null.
+     *
+     * @param authentication The logged in user
+     * @param cursor         Opaque cursor from the previous page, omit for the first page
+     * @param size           Number of posts per page (1-100)
+     * @return A ResponseEntity<CursorPageDTO<PostResponseDTO>>
+     */
+    @GetMapping
+    public ResponseEntity<CursorPageDTO<PostResponseDTO>> getFeed(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(feedService.getFeed(authentication.getName(), cursor, size));
+    }
+}
@@ -0,0 +1,84 @@
+package se.jensen.grupp9.socialpostsapp.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import se.jensen.grupp9.socialpostsapp.cache.PostCache;
+import se.jensen.grupp9.socialpostsapp.dto.CacheStatsDTO;
+import se.jensen.grupp9.socialpostsapp.dto.MetricsDTO;
+import se.jensen.grupp9.socialpostsapp.dto.SlowQueryDTO;
+import se.jensen.grupp9.socialpostsapp.metrics.RequestMetrics;
+import se.jensen.grupp9.socialpostsapp.sql.SlowQueryLog;
+
+import java.util.List;
+
+/**
+ * REST controller for internal operational endpoints (requires the OPERATOR role, see security.operators).
+ * Exposes runtime statistics used to tune the application in production.
+ */
+@RestController
+@RequestMapping("/internal")
+public class InternalController {
+    private final PostCache postCache;
+    private final RequestMetrics requestMetrics;
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * Constructor for InternalController
+     *
+     * @param postCache      The post cache
+     * @param requestMetrics The request metrics per route
+     * @param slowQueryLog   The slow SQL statements
+     */
+    public InternalController(PostCache postCache, RequestMetrics requestMetrics, SlowQueryLog slowQueryLog) {
+        this.postCache = postCache;
+        this.requestMetrics = requestMetrics;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Get the hit, miss and eviction counters of the post cache
+     *
+     * @return A ResponseEntity of CacheStatsDTO type
+     */
+    @GetMapping("/cache/posts")
+    public ResponseEntity<CacheStatsDTO> getPostCacheStats() {
+        return ResponseEntity.ok(postCache.stats());
+    }
+
+    /**
+     * Get latency percentiles, error counts and request rates per route
+     *
+     * @return A ResponseEntity of MetricsDTO type
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<MetricsDTO> getMetrics() {
+        return ResponseEntity.ok(requestMetrics.snapshot());
+    }
+
+    /**
+     * Get the same metrics in the Prometheus text format
+     *
+     * @return A ResponseEntity with the metrics as text
+     */
+    @GetMapping("/metrics/prometheus")
+    public ResponseEntity<String> getPrometheusMetrics() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8"))
+                .body(requestMetrics.prometheus());
+    }
+
+    /**
+     * Get the slowest SQL statements, slowest first
+     *
+     * @param limit Maximum number of statements
+     * @return A ResponseEntity with a list of SlowQueryDTOs
+     */
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<SlowQueryDTO>> getSlowQueries(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(slowQueryLog.top(limit));
+    }
+}
@@ -8,11 +8,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import se.jensen.grupp9.socialpostsapp.dto.CommentRequestDTO;
 import se.jensen.grupp9.socialpostsapp.dto.CommentResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.CursorPageDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostBatchRequestDTO;
 import se.jensen.grupp9.socialpostsapp.dto.PostRequestDTO;
 import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
 import se.jensen.grupp9.socialpostsapp.service.CommentService;
 import se.jensen.grupp9.socialpostsapp.service.PostService;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -45,21 +48,80 @@ public class PostController {
      * as a ResponseEntity<Page<PostResponseDTO>>
      *
      * @param userId The users ID (for user wall, omit for feed)
+     * @param include Set to "comments" to include the latest comments of each post
+     * @param commentLimit The number of comments per post when comments are included
      * @param pageable The page parameters
      * @return A ResponseEntity<Page<PostResponseDTO>>
      */
     @GetMapping()
-    public ResponseEntity<Page<PostResponseDTO>> getPosts(@RequestParam(required = false) Long userId, Pageable pageable) {
+    public ResponseEntity<Page<PostResponseDTO>> getPosts(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String include,
+            @RequestParam(defaultValue = "3") int commentLimit,
+            Pageable pageable) {
         //feed, all posts
-        if (userId==null) {
-            Page<PostResponseDTO> posts = postService.getPosts(pageable);
-            return ResponseEntity.ok(posts);
+        Page<PostResponseDTO> posts = userId == null
+                ? postService.getPosts(pageable)
+                //user wall, user posts
+                : postService.getPostsByUserId(pageable, userId);
+
+        if (includesComments(include)) {
+            posts = postService.withCommentPreviews(posts, commentLimit);
+        }
+        return ResponseEntity.ok(posts);
+    }
+
+    /**
+     * Get a page of the feed with cursor pagination, ordered by createdAt (newest first).
+     * Pass the nextCursor from the previous response to get the following page.
+     *
+     * @param cursor The cursor from the previous page (omit for the first page)
+     * @param size The number of posts per page
+     * @param include Set to "comments" to include the latest comments of each post
+     * @param commentLimit The number of comments per post when comments are included
+     * @return A ResponseEntity<CursorPageDTO<PostResponseDTO>>
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<PostResponseDTO>> getPostsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String include,
+            @RequestParam(defaultValue = "3") int commentLimit) {
+        CursorPageDTO<PostResponseDTO> posts = postService.getPostsByCursor(cursor, size);
+        if (includesComments(include)) {
+            posts = postService.withCommentPreviews(posts, commentLimit);
         }
-        //user wall, user posts
-        Page<PostResponseDTO> posts = postService.getPostsByUserId(pageable,userId);
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * Search posts by text, best matches first, with cursor pagination.
+     *
+     * @param q The search words
+     * @param cursor The cursor from the previous page (omit for the first page)
+     * @param size The number of posts per page
+     * @return A ResponseEntity<CursorPageDTO<PostResponseDTO>>
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<PostResponseDTO>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(postService.searchPosts(q, cursor, size));
+    }
+
+    /**
+     * Get the posts with the most views and comments lately, newer engagement counting more.
+     * Served from memory, the ranking is refreshed every few seconds.
+     *
+     * @param limit The maximum number of posts
+     * @return A ResponseEntity<List<PostResponseDTO>>
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostResponseDTO>> getTrendingPosts(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(postService.getTrendingPosts(limit));
+    }
+
     /**
      * Get a singe post by post id
      *
@@ -87,6 +149,21 @@ public class PostController {
         return ResponseEntity.status(HttpStatus.CREATED).body(newPost);
     }
 
+    /**
+     * Add many posts for a user in one request (bulk import)
+     *
+     * @param dto A PostBatchRequestDTO with the posts to be created
+     * @param userId The ID of the user the posts belong to
+     * @return A ResponseEntity with the created posts
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<PostResponseDTO>> addPosts(
+            @Valid @RequestBody PostBatchRequestDTO dto,
+            @RequestParam Long userId) {
+        List<PostResponseDTO> newPosts = postService.createPosts(userId, dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(newPosts);
+    }
+
     /**
      * Updating an existing post
      *
@@ -143,5 +220,18 @@ public class PostController {
         return ResponseEntity.ok(newComment);
     }
 
-
+    /**
+     * Check if the include parameter asks for comment previews
+     *
+     * @param include Comma separated list of extra data to include
+     * @return true if comments should be included
+     */
+    private static boolean includesComments(String include) {
+        if (include == null) {
+            return false;
+        }
+        return Arrays.stream(include.split(","))
+                .map(String::trim)
+                .anyMatch("comments"::equalsIgnoreCase);
+    }
 }
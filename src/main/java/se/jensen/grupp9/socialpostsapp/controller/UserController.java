@@ -2,15 +2,21 @@ package se.jensen.grupp9.socialpostsapp.controller;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import se.jensen.grupp9.socialpostsapp.dto.*;
+import se.jensen.grupp9.socialpostsapp.model.FriendshipStatus;
 import se.jensen.grupp9.socialpostsapp.model.User;
 import se.jensen.grupp9.socialpostsapp.security.JwtUtil;
+import se.jensen.grupp9.socialpostsapp.service.FollowService;
+import se.jensen.grupp9.socialpostsapp.service.FriendshipService;
 import se.jensen.grupp9.socialpostsapp.service.PostService;
+import se.jensen.grupp9.socialpostsapp.service.RefreshTokenService;
 import se.jensen.grupp9.socialpostsapp.service.UserService;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -23,8 +29,10 @@ public class UserController {
 
     private final UserService userService;
     private final PostService postService;
-    //private final FriendshipService friendshipService;
+    private final FriendshipService friendshipService;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final FollowService followService;
 
     /**
      * Constructor for UserController.
@@ -33,57 +41,62 @@ public class UserController {
      * @param postService       Service for post-related operations.
      * @param friendshipService Service for managing friendships.
      * @param jwtUtil           Utility for JWT token generation and validation.
+     * @param refreshTokenService Service for issuing and rotating refresh tokens.
+     * @param followService     Service for following users.
      */
     public UserController(UserService userService,
                           PostService postService,
-                          // FriendshipService friendshipService,
-                          JwtUtil jwtUtil) {
+                          FriendshipService friendshipService,
+                          JwtUtil jwtUtil,
+                          RefreshTokenService refreshTokenService,
+                          FollowService followService) {
         this.userService = userService;
         this.postService = postService;
-        //  this.friendshipService = friendshipService;
+        this.friendshipService = friendshipService;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.followService = followService;
     }
 
     /**
      * Authenticates a user and returns JWT tokens if successful.
+     * <p>
+     * The password check runs on the bounded password hashing pool, so the request thread
+     * is released while BCrypt runs. When the pool is full the request fails fast with 503.
+     * </p>
      *
      * @param loginRequest The login credentials.
      * @return JWT token, refresh token, and authentication status.
      */
     @PostMapping("/login")
-    public ResponseEntity<JwtResponseDTO> login(@RequestBody LoginRequestDTO loginRequest) {
-        boolean isAuthenticated = userService.authenticateUser(
-                loginRequest.getUsername(), loginRequest.getPassword());
-
-        if (!isAuthenticated) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(new JwtResponseDTO(null, null, false));
-        }
-
-        User user = userService.findByUsername(loginRequest.getUsername()).get();
-        String token = jwtUtil.generateToken(user.getUsername());
-        String refreshToken = jwtUtil.generateRefreshToken(user.getUsername());
-
-        return ResponseEntity.ok(new JwtResponseDTO(token, refreshToken, true));
+    public CompletableFuture<ResponseEntity<JwtResponseDTO>> login(@RequestBody LoginRequestDTO loginRequest) {
+        return userService.login(loginRequest.getUsername(), loginRequest.getPassword())
+                .thenApply(user -> user
+                        .map(authenticated -> {
+                            String token = jwtUtil.generateToken(authenticated.getUsername());
+                            String refreshToken = refreshTokenService.issue(authenticated.getUsername());
+                            return ResponseEntity.ok(new JwtResponseDTO(token, refreshToken, true));
+                        })
+                        .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(new JwtResponseDTO(null, null, false))));
     }
 
     /**
      * Refreshes JWT token using a valid refresh token.
+     * <p>
+     * Each refresh token can be used once and is replaced by a new one. Reusing an old
+     * refresh token revokes every token issued since that login.
+     * </p>
      *
      * @param refreshToken The refresh token.
      * @return New JWT token and refresh token if valid, UNAUTHORIZED otherwise.
      */
     @PostMapping("/refresh-token")
     public ResponseEntity<JwtResponseDTO> refreshToken(@RequestParam String refreshToken) {
-        if (!jwtUtil.validateToken(refreshToken)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
-        }
-
-        String username = jwtUtil.getUsernameFromToken(refreshToken);
-        String newToken = jwtUtil.generateToken(username);
-        String newRefreshToken = jwtUtil.generateRefreshToken(username);
-
-        return ResponseEntity.ok(new JwtResponseDTO(newToken, newRefreshToken, true));
+        return refreshTokenService.rotate(refreshToken)
+                .map(rotated -> ResponseEntity.ok(new JwtResponseDTO(
+                        jwtUtil.generateToken(rotated.username()), rotated.refreshToken(), true)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null));
     }
 
     /**
@@ -215,22 +228,84 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
     }
 
+    /**
+     * Lets the logged in user follow a user, their posts then show up in the home feed.
+     *
+     * @param id             The ID of the user to follow.
+     * @param authentication The logged in user.
+     * @return NO CONTENT, also if the user was already followed.
+     */
+    @PostMapping("/{id}/follow")
+    public ResponseEntity<Void> follow(@PathVariable Long id, Authentication authentication) {
+        followService.follow(authentication.getName(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Lets the logged in user stop following a user.
+     *
+     * @param id             The ID of the followed user.
+     * @param authentication The logged in user.
+     * @return NO CONTENT, also if the user was not followed.
+     */
+    @DeleteMapping("/{id}/follow")
+    public ResponseEntity<Void> unfollow(@PathVariable Long id, Authentication authentication) {
+        followService.unfollow(authentication.getName(), id);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Retrieves accepted friends of a user.
      *
      * @param id The user's ID.
      * @return List of friend user DTOs.
      */
+    @GetMapping("/{id}/friends")
+    public ResponseEntity<List<UserDTO>> getFriends(@PathVariable Long id) {
 
-/**
- @GetMapping("/{id}/friends") public ResponseEntity<List<UserDTO>> getFriends(@PathVariable Long id) {
+        List<UserDTO> friends = friendshipService.getAcceptedFriends(id)
+                .stream()
+                .map(DTOMapper::toUserDTO)
+                .collect(Collectors.toList());
 
- List<UserDTO> friends = friendshipService.getAcceptedFriends(id)
- .stream()
- .map(DTOMapper::toUserDTO)
- .collect(Collectors.toList());
+        return ResponseEntity.ok(friends);
+    }
 
- return ResponseEntity.ok(friends);
- }
- */
+    /**
+     * Sends a friend request from the logged in user, or accepts the request the user has sent them.
+     *
+     * @param id             The ID of the user to become friends with.
+     * @param authentication The logged in user.
+     * @return The status of the friendship: PENDING or ACCEPTED.
+     */
+    @PostMapping("/{id}/friends")
+    public ResponseEntity<FriendshipStatus> requestFriendship(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(friendshipService.requestFriendship(authentication.getName(), id));
+    }
+
+    /**
+     * Declines or cancels a friend request, or ends a friendship, of the logged in user.
+     *
+     * @param id             The ID of the other user.
+     * @param authentication The logged in user.
+     * @return NO CONTENT, also if there was no request or friendship.
+     */
+    @DeleteMapping("/{id}/friends")
+    public ResponseEntity<Void> removeFriendship(@PathVariable Long id, Authentication authentication) {
+        friendshipService.removeFriendship(authentication.getName(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Suggests people the logged in user may know, ranked by mutual friends.
+     *
+     * @param limit          Maximum number of suggestions (1-50).
+     * @param authentication The logged in user.
+     * @return List of suggested users with their number of mutual friends.
+     */
+    @GetMapping("/friend-suggestions")
+    public ResponseEntity<List<FriendSuggestionDTO>> suggestFriends(@RequestParam(defaultValue = "20") int limit,
+                                                                    Authentication authentication) {
+        return ResponseEntity.ok(friendshipService.suggestFriends(authentication.getName(), limit));
+    }
 }
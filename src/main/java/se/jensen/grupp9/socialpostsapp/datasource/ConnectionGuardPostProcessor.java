@@ -0,0 +1,51 @@
+package se.jensen.grupp9.socialpostsapp.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Puts a {@link GuardedDataSource} in front of every Hikari pool, sized to the pool.
+ * <p>
+ * On by default when virtual threads are enabled ({@code spring.threads.virtual.enabled}),
+ * see {@code app.datasource.guard.enabled}. Routing and lazy DataSources are skipped,
+ * they get their connections from the guarded pools below them.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.datasource.guard.enabled", havingValue = "true")
+public class ConnectionGuardPostProcessor implements BeanPostProcessor {
+
+    private final Duration acquireTimeout;
+
+    public ConnectionGuardPostProcessor(@Value("${app.datasource.guard.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof DataSource dataSource)
+                || bean instanceof DelegatingDataSource
+                || bean instanceof AbstractRoutingDataSource) {
+            return bean;
+        }
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return bean;
+            }
+            int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            return new GuardedDataSource(dataSource, poolSize, acquireTimeout);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not guard DataSource " + beanName, e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package se.jensen.grupp9.socialpostsapp.datasource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Checks the replication lag of the read replica at a fixed interval.
+ * <p>
+ * The replica is usable while the lag query succeeds and returns at most the allowed lag
+ * in seconds. Until the first successful check, and whenever the replica is unreachable or
+ * too far behind, read-only transactions go to the primary instead.
+ * </p>
+ */
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final AppLogger logger;
+
+    private volatile boolean replicaUsable;
+    private volatile double lagSeconds;
+
+    /**
+     * @param replica  The replica database
+     * @param lagQuery Query on the replica that returns the lag in seconds
+     * @param maxLag   The highest lag at which reads are still sent to the replica
+     * @param logger   The application logger
+     */
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, AppLogger logger) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.logger = logger;
+    }
+
+    /**
+     * Run the lag query and update whether the replica is usable.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+    public void check() {
+        boolean usable;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            usable = lagSeconds <= maxLagSeconds;
+        } catch (DataAccessException e) {
+            logger.error("Replica lag check failed", e);
+            usable = false;
+        }
+
+        if (usable != replicaUsable) {
+            if (usable) {
+                logger.info("Read replica is usable again, lag {}s", lagSeconds);
+            } else {
+                logger.warn("Read replica is not usable, lag {}s, reads go to the primary", lagSeconds);
+            }
+        }
+        replicaUsable = usable;
+    }
+
+    /**
+     * @return true if read-only transactions may use the replica
+     */
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * @return The replication lag in seconds from the last successful check
+     */
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
@@ -0,0 +1,58 @@
+package se.jensen.grupp9.socialpostsapp.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource that sends read-only transactions to the replica and everything else to the primary.
+ * <p>
+ * The target is chosen when the physical connection is fetched, so this must be wrapped in a
+ * LazyConnectionDataSourceProxy: the transaction manager asks for a connection before the
+ * read-only flag of the transaction is visible, and the proxy delays the real fetch until the
+ * first statement. Reads fall back to the primary while the replica lags too far behind.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The database a connection is fetched from
+     */
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    /**
+     * @param primary    The primary (read-write) database
+     * @param replica    The replica (read-only) database
+     * @param lagMonitor Tells if the replica is healthy and close enough to the primary
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Get the database the current thread would get a connection from.
+     *
+     * @return REPLICA inside a read-only transaction with a usable replica, otherwise PRIMARY
+     */
+    public Target currentTarget() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isReplicaUsable()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentTarget();
+    }
+}
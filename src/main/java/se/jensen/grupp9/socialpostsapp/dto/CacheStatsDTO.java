@@ -0,0 +1,18 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+/**
+ * DTO for cache statistics (API return values), used to size caches in production.
+ *
+ * @param size      Current number of entries
+ * @param hits      Number of lookups served from the cache
+ * @param misses    Number of lookups that had to load the value
+ * @param evictions Number of entries removed because of size or expiry
+ * @param hitRate   hits / (hits + misses), 1.0 if there have been no lookups
+ */
+public record CacheStatsDTO(
+        long size,
+        long hits,
+        long misses,
+        long evictions,
+        double hitRate
+) {}
@@ -0,0 +1,30 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only interface projection of a comment and its user, for the native
+ * comment preview query.
+ * <p>
+ * Native queries cannot use constructor expressions, so Spring Data maps the
+ * column aliases of the query to these getters instead.
+ * </p>
+ */
+public interface CommentPreview {
+
+    Long getId();
+
+    Long getPostId();
+
+    String getText();
+
+    LocalDateTime getCreatedAt();
+
+    Long getUserId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getBio();
+}
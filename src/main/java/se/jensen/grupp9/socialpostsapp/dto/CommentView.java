@@ -0,0 +1,27 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a comment and its user, selected directly with a
+ * JPQL constructor expression.
+ *
+ * @param id        The comment ID
+ * @param postId    The ID of the post the comment belongs to
+ * @param text      The comment text
+ * @param createdAt Creation time of the comment
+ * @param userId    The ID of the author
+ * @param username  The username of the author
+ * @param email     The email of the author
+ * @param bio       The bio of the author
+ */
+public record CommentView(
+        Long id,
+        Long postId,
+        String text,
+        LocalDateTime createdAt,
+        Long userId,
+        String username,
+        String email,
+        String bio
+) {}
@@ -0,0 +1,19 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+import java.util.List;
+
+/**
+ * DTO for a cursor paginated slice of results (API return values).
+ * <p>
+ * Unlike a Page it has no total count, the client keeps fetching with
+ * nextCursor until it is null.
+ * </p>
+ *
+ * @param content    The items on this page
+ * @param nextCursor Opaque cursor for the next page, or null if this is the last page
+ * @param <T>        The item type
+ */
+public record CursorPageDTO<T>(
+        List<T> content,
+        String nextCursor
+) {}
@@ -56,11 +56,29 @@ public class DTOMapper {
                 post.getCreatedAt(),
                 post.getUpdatedAt(),
                 toUserDTO(post.getUser()),
+                post.getCommentCount(),
                 null//comments
         );
         return dto;
     }
 
+    /**
+     *  Converts a PostView projection to a PostResponseDTO
+     */
+    public static PostResponseDTO toPostResponseDTO(PostView post) {
+        if (post == null) return null;
+
+        return new PostResponseDTO(
+                post.id(),
+                post.text(),
+                post.createdAt(),
+                post.updatedAt(),
+                new UserDTO(post.userId(), post.username(), post.email(), post.bio()),
+                post.commentCount(),
+                null//comments
+        );
+    }
+
     /**
      *  Converts a CommentRequestDTO to Comment entity
      */
@@ -82,4 +100,32 @@ public class DTOMapper {
                 toUserDTO(comment.getUser())
         );
     }
+
+    /**
+     * Converts a CommentView projection to CommentResponseDTO
+     */
+    public static CommentResponseDTO toCommentResponseDTO(CommentView comment) {
+        if (comment == null) return null;
+
+        return new CommentResponseDTO(
+                comment.id(),
+                comment.text(),
+                comment.createdAt(),
+                new UserDTO(comment.userId(), comment.username(), comment.email(), comment.bio())
+        );
+    }
+
+    /**
+     * Converts a CommentPreview projection to CommentResponseDTO
+     */
+    public static CommentResponseDTO toCommentResponseDTO(CommentPreview comment) {
+        if (comment == null) return null;
+
+        return new CommentResponseDTO(
+                comment.getId(),
+                comment.getText(),
+                comment.getCreatedAt(),
+                new UserDTO(comment.getUserId(), comment.getUsername(), comment.getEmail(), comment.getBio())
+        );
+    }
 }
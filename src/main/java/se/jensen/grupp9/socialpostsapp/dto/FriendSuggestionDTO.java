@@ -0,0 +1,12 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+/**
+ * DTO for a "people you may know" suggestion (API return values).
+ *
+ * @param user          The suggested user
+ * @param mutualFriends Number of friends the suggested user has in common with the reader
+ */
+public record FriendSuggestionDTO(
+        UserInfoDTO user,
+        int mutualFriends
+) {}
@@ -0,0 +1,16 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the request metrics of the whole application (API return values).
+ *
+ * @param inFlight      Number of requests being handled right now
+ * @param uptimeSeconds Seconds since the metrics started
+ * @param routes        Metrics per route, busiest first
+ */
+public record MetricsDTO(
+        long inFlight,
+        long uptimeSeconds,
+        List<RouteMetricsDTO> routes
+) {}
@@ -0,0 +1,19 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for creating many posts in one request (bulk import).
+ *
+ * @param posts The posts to create (1-1000), each validated like a single post
+ */
+public record PostBatchRequestDTO(
+        @NotEmpty(message = "Batch must contain at least one post")
+        @Size(max = 1000, message = "Batch can contain at most 1000 posts")
+        List<@Valid PostRequestDTO> posts
+) {}
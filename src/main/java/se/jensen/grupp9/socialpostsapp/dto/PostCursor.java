@@ -0,0 +1,65 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the post feed used for keyset (cursor) pagination.
+ * <p>
+ * The feed is ordered by createdAt and id (newest first), so a cursor points at the
+ * last post a client has seen and the next page starts right after it.
+ * Clients only see the encoded, opaque string form.
+ * </p>
+ *
+ * @param createdAt Creation time of the last seen post
+ * @param id        ID of the last seen post (tie-breaker for equal timestamps)
+ */
+public record PostCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creates a cursor pointing at the given post
+     *
+     * @param post The last post on a page
+     * @return A PostCursor for that post
+     */
+    public static PostCursor from(PostResponseDTO post) {
+        return new PostCursor(post.createdAt(), post.id());
+    }
+
+    /**
+     * Encodes the cursor as an URL-safe opaque string
+     *
+     * @return The encoded cursor
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously created by {@link #encode()}
+     *
+     * @param cursor The encoded cursor
+     * @return The decoded PostCursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static PostCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new PostCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
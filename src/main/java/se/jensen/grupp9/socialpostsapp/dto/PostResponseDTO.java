@@ -12,5 +12,16 @@ public record PostResponseDTO(
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
         UserDTO user,
+        long commentCount,
         List<CommentResponseDTO> comments
-) {}
+) {
+    /**
+     * Returns a copy of this post with the given comments attached
+     *
+     * @param comments The comments to attach
+     * @return A new PostResponseDTO with the comments
+     */
+    public PostResponseDTO withComments(List<CommentResponseDTO> comments) {
+        return new PostResponseDTO(id, text, createdAt, updatedAt, user, commentCount, comments);
+    }
+}
@@ -0,0 +1,33 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a post and its user, selected directly with a
+ * JPQL constructor expression.
+ * <p>
+ * Loading this instead of the Post entity skips the persistence context
+ * (no managed entity, no dirty-checking snapshot, no proxy for the user).
+ * </p>
+ *
+ * @param id           The post ID
+ * @param text         The post text
+ * @param createdAt    Creation time of the post
+ * @param updatedAt    Last update time of the post
+ * @param userId       The ID of the author
+ * @param username     The username of the author
+ * @param email        The email of the author
+ * @param bio          The bio of the author
+ * @param commentCount Number of comments on the post
+ */
+public record PostView(
+        Long id,
+        String text,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long userId,
+        String username,
+        String email,
+        String bio,
+        long commentCount
+) {}
@@ -0,0 +1,31 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+/**
+ * DTO for the request metrics of one route (API return values).
+ * Latencies are in milliseconds.
+ *
+ * @param method        HTTP method
+ * @param route         URL pattern of the endpoint, e.g. /posts/{id}
+ * @param count         Number of finished requests
+ * @param errors        Number of requests answered with a 5xx status
+ * @param ratePerSecond Requests per second over the last minute
+ * @param meanMs        Mean latency
+ * @param p50Ms         Median latency
+ * @param p95Ms         95th percentile latency
+ * @param p99Ms         99th percentile latency
+ * @param p999Ms        99.9th percentile latency
+ * @param maxMs         Highest latency
+ */
+public record RouteMetricsDTO(
+        String method,
+        String route,
+        long count,
+        long errors,
+        double ratePerSecond,
+        double meanMs,
+        double p50Ms,
+        double p95Ms,
+        double p99Ms,
+        double p999Ms,
+        double maxMs
+) {}
@@ -0,0 +1,28 @@
+package se.jensen.grupp9.socialpostsapp.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for one slow statement shape (API return values).
+ * Durations are in milliseconds and only count executions over the slow-query threshold.
+ *
+ * @param sql       Normalized SQL
+ * @param callSite  Repository method that ran it last time, e.g. PostRepository.findViewsByUserId
+ * @param count     Number of slow executions
+ * @param maxMs     Slowest execution
+ * @param meanMs    Mean of the slow executions
+ * @param rows      Rows returned or changed by the slowest execution, -1 if unknown
+ * @param binds     Bind values of the slowest execution, passwords redacted
+ * @param lastSeen  Time of the latest slow execution
+ */
+public record SlowQueryDTO(
+        String sql,
+        String callSite,
+        long count,
+        double maxMs,
+        double meanMs,
+        long rows,
+        List<String> binds,
+        Instant lastSeen
+) {}
@@ -1,7 +1,11 @@
 package se.jensen.grupp9.socialpostsapp.exception;
 
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -38,6 +42,45 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    /**
+     * Handles rejected work when a bounded worker pool is full.
+     *
+     * @param ex the thrown ServiceOverloadedException
+     * @return a ResponseEntity with HTTP status 503 (SERVICE_UNAVAILABLE) and a Retry-After header
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<String> handleServiceOverloaded(ServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Handles requests that could not get a database connection in time,
+     * e.g. when the connection guard or the pool is exhausted.
+     *
+     * @param ex the thrown CannotCreateTransactionException or DataAccessResourceFailureException
+     * @return a ResponseEntity with HTTP status 503 (SERVICE_UNAVAILABLE) and a Retry-After header
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<String> handleDatabaseUnavailable(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Database is busy, try again later");
+    }
+
+    /**
+     * Handles writes that broke a unique constraint because of a concurrent change,
+     * e.g. two users sending each other a friend request at the same time.
+     *
+     * @param ex the thrown DataIntegrityViolationException
+     * @return a ResponseEntity with HTTP status 409 (CONFLICT)
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Conflicting change, try again");
+    }
+
     /**
      * Handles all other uncaught exceptions.
      *
@@ -0,0 +1,11 @@
+package se.jensen.grupp9.socialpostsapp.exception;
+
+/**
+ * Thrown when a bounded worker pool is full and the request is rejected
+ * instead of queued, mapped to 503 (SERVICE_UNAVAILABLE).
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
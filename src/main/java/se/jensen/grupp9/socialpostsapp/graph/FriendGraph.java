@@ -0,0 +1,299 @@
+package se.jensen.grupp9.socialpostsapp.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable friend graph over user IDs in compressed sparse row (CSR) form.
+ * <p>
+ * The users with at least one friend are kept in a sorted array, and the friends of the
+ * user at index i are {@code friendIds[offsets[i]]} up to {@code friendIds[offsets[i + 1]]},
+ * sorted. Every friendship is stored in both directions. Finding a user is a binary search
+ * and their friends are a slice of one array, so there are no objects per user or friendship.
+ * Changes produce a new graph (see {@link #apply(List)}), readers never need a lock.
+ * </p>
+ */
+public final class FriendGraph {
+
+    public static final FriendGraph EMPTY = new FriendGraph(new long[0], new int[1], new long[0]);
+
+    private final long[] userIds;
+    private final int[] offsets;
+    private final long[] friendIds;
+
+    private FriendGraph(long[] userIds, int[] offsets, long[] friendIds) {
+        this.userIds = userIds;
+        this.offsets = offsets;
+        this.friendIds = friendIds;
+    }
+
+    /**
+     * Build a graph from friendships given as pairs of user IDs
+     *
+     * @param first  One user of each friendship
+     * @param second The other user of each friendship
+     * @param count  Number of friendships in the arrays
+     * @return The graph, duplicate friendships are stored once
+     */
+    public static FriendGraph of(long[] first, long[] second, int count) {
+        long[] ends = new long[count * 2];
+        int endCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (first[i] != second[i]) {
+                ends[endCount++] = first[i];
+                ends[endCount++] = second[i];
+            }
+        }
+
+        long[] nodes = Arrays.copyOf(ends, endCount);
+        Arrays.sort(nodes);
+        nodes = unique(nodes, nodes.length);
+        int[] starts = new int[nodes.length + 1];
+        for (int i = 0; i < endCount; i++) {
+            starts[Arrays.binarySearch(nodes, ends[i]) + 1]++;
+        }
+        prefixSum(starts);
+
+        long[] rows = new long[endCount];
+        int[] fill = Arrays.copyOf(starts, nodes.length);
+        for (int i = 0; i < endCount; i += 2) {
+            rows[fill[Arrays.binarySearch(nodes, ends[i])]++] = ends[i + 1];
+            rows[fill[Arrays.binarySearch(nodes, ends[i + 1])]++] = ends[i];
+        }
+        return compact(nodes, starts, fill, rows, null);
+    }
+
+    /**
+     * Create a new graph with friendship changes applied. Rows of users without
+     * changes are copied as they are, only the changed rows are sorted again.
+     *
+     * @param changes Changed friendships in the order they were updated, the last change of a pair wins
+     * @return The changed graph, or this graph if there are no changes
+     */
+    public FriendGraph apply(List<FriendshipChange> changes) {
+        Map<Edge, Boolean> latest = new HashMap<>();
+        for (FriendshipChange change : changes) {
+            if (!change.requesterId().equals(change.addresseeId())) {
+                latest.put(Edge.of(change.requesterId(), change.addresseeId()), change.isAccepted());
+            }
+        }
+        if (latest.isEmpty()) {
+            return this;
+        }
+
+        Set<Edge> removed = new HashSet<>();
+        Set<Long> touched = new HashSet<>();
+        long[] added = new long[latest.size() * 2];
+        int addedCount = 0;
+        for (Map.Entry<Edge, Boolean> entry : latest.entrySet()) {
+            Edge edge = entry.getKey();
+            touched.add(edge.low());
+            touched.add(edge.high());
+            if (entry.getValue()) {
+                added[addedCount++] = edge.low();
+                added[addedCount++] = edge.high();
+            } else {
+                removed.add(edge);
+            }
+        }
+
+        long[] newUsers = Arrays.copyOf(added, addedCount);
+        Arrays.sort(newUsers);
+        long[] nodes = mergeUnique(userIds, unique(newUsers, newUsers.length));
+
+        // room for the old friends and the added ones, removed and duplicate friends are dropped in compact
+        int[] starts = new int[nodes.length + 1];
+        int[] oldIndex = new int[nodes.length];
+        for (int i = 0, j = 0; i < nodes.length; i++) {
+            while (j < userIds.length && userIds[j] < nodes[i]) {
+                j++;
+            }
+            oldIndex[i] = j < userIds.length && userIds[j] == nodes[i] ? j : -1;
+            starts[i + 1] = oldIndex[i] < 0 ? 0 : offsets[j + 1] - offsets[j];
+        }
+        for (int i = 0; i < addedCount; i++) {
+            starts[Arrays.binarySearch(nodes, added[i]) + 1]++;
+        }
+        prefixSum(starts);
+
+        long[] rows = new long[starts[nodes.length]];
+        int[] fill = Arrays.copyOf(starts, nodes.length);
+        boolean[] dirty = new boolean[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            int j = oldIndex[i];
+            dirty[i] = touched.contains(nodes[i]);
+            if (j < 0) {
+                continue;
+            }
+            if (!dirty[i]) {
+                int length = offsets[j + 1] - offsets[j];
+                System.arraycopy(friendIds, offsets[j], rows, fill[i], length);
+                fill[i] += length;
+                continue;
+            }
+            for (int p = offsets[j]; p < offsets[j + 1]; p++) {
+                if (!removed.contains(Edge.of(nodes[i], friendIds[p]))) {
+                    rows[fill[i]++] = friendIds[p];
+                }
+            }
+        }
+        for (int i = 0; i < addedCount; i += 2) {
+            rows[fill[Arrays.binarySearch(nodes, added[i])]++] = added[i + 1];
+            rows[fill[Arrays.binarySearch(nodes, added[i + 1])]++] = added[i];
+        }
+        return compact(nodes, starts, fill, rows, dirty);
+    }
+
+    /**
+     * @return Number of users with at least one friend
+     */
+    public int userCount() {
+        return userIds.length;
+    }
+
+    /**
+     * @return Number of friendships
+     */
+    public long friendshipCount() {
+        return friendIds.length / 2;
+    }
+
+    /**
+     * @param userId The user ID
+     * @return The IDs of the user's friends, sorted, empty if the user has no friends
+     */
+    public long[] friendsOf(long userId) {
+        int index = indexOf(userId);
+        return index < 0 ? new long[0] : Arrays.copyOfRange(friendIds, offsets[index], offsets[index + 1]);
+    }
+
+    /**
+     * @param userId The user ID
+     * @return Number of friends of the user
+     */
+    public int degree(long userId) {
+        int index = indexOf(userId);
+        return index < 0 ? 0 : offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * @return True if the two users are friends
+     */
+    public boolean areFriends(long userId, long otherId) {
+        int index = indexOf(userId);
+        return index >= 0 && Arrays.binarySearch(friendIds, offsets[index], offsets[index + 1], otherId) >= 0;
+    }
+
+    int indexOf(long userId) {
+        return Arrays.binarySearch(userIds, userId);
+    }
+
+    int rowStart(int index) {
+        return offsets[index];
+    }
+
+    int rowEnd(int index) {
+        return offsets[index + 1];
+    }
+
+    long friendAt(int position) {
+        return friendIds[position];
+    }
+
+    /**
+     * Sort and deduplicate the dirty rows (all rows if dirty is null) and pack the rows
+     * into the final arrays, users without friends are left out.
+     *
+     * @param starts Start of each row in rows
+     * @param ends   End of each row in rows
+     */
+    private static FriendGraph compact(long[] nodes, int[] starts, int[] ends, long[] rows, boolean[] dirty) {
+        int userCount = 0;
+        int friendCount = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            if (dirty == null || dirty[i]) {
+                Arrays.sort(rows, starts[i], ends[i]);
+                ends[i] = starts[i] + uniqueInPlace(rows, starts[i], ends[i]);
+            }
+            if (ends[i] > starts[i]) {
+                userCount++;
+                friendCount += ends[i] - starts[i];
+            }
+        }
+
+        long[] userIds = new long[userCount];
+        int[] offsets = new int[userCount + 1];
+        long[] friendIds = new long[friendCount];
+        int user = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            int length = ends[i] - starts[i];
+            if (length > 0) {
+                userIds[user] = nodes[i];
+                System.arraycopy(rows, starts[i], friendIds, offsets[user], length);
+                offsets[user + 1] = offsets[user] + length;
+                user++;
+            }
+        }
+        return new FriendGraph(userIds, offsets, friendIds);
+    }
+
+    private static void prefixSum(int[] values) {
+        for (int i = 1; i < values.length; i++) {
+            values[i] += values[i - 1];
+        }
+    }
+
+    private static long[] unique(long[] sorted, int length) {
+        return Arrays.copyOf(sorted, uniqueInPlace(sorted, 0, length));
+    }
+
+    /**
+     * Remove duplicates from a sorted range
+     *
+     * @return Number of unique values, moved to the start of the range
+     */
+    private static int uniqueInPlace(long[] sorted, int from, int to) {
+        if (to - from < 2) {
+            return to - from;
+        }
+        int last = from;
+        for (int i = from + 1; i < to; i++) {
+            if (sorted[i] != sorted[last]) {
+                sorted[++last] = sorted[i];
+            }
+        }
+        return last - from + 1;
+    }
+
+    private static long[] mergeUnique(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            long next;
+            if (j == b.length || (i < a.length && a[i] <= b[j])) {
+                next = a[i++];
+            } else {
+                next = b[j++];
+            }
+            if (n == 0 || merged[n - 1] != next) {
+                merged[n++] = next;
+            }
+        }
+        return Arrays.copyOf(merged, n);
+    }
+
+    /**
+     * A friendship as an unordered pair of user IDs
+     */
+    private record Edge(long low, long high) {
+        static Edge of(long a, long b) {
+            return a < b ? new Edge(a, b) : new Edge(b, a);
+        }
+    }
+}
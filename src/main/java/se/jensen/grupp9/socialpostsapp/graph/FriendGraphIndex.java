@@ -0,0 +1,164 @@
+package se.jensen.grupp9.socialpostsapp.graph;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+import se.jensen.grupp9.socialpostsapp.repository.FriendshipRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Holds the current {@link FriendGraph} and answers "people you may know" from it.
+ * <p>
+ * The graph is loaded from the friendship table when the application starts. After that,
+ * a scheduled refresh reads only the friendships whose status changed since the previous
+ * refresh and applies them to a copy of the graph. The new graph replaces the old one
+ * through a volatile field, so suggestions read a consistent graph and never wait for a
+ * refresh. Each refresh reads again a short overlap before the previous one, so a change
+ * that was committed late is not missed; applying a change twice does nothing.
+ * </p>
+ * <p>
+ * Friendships of a deleted user are removed by the database without a change of status,
+ * so the refresh cannot see them. The whole graph is therefore rebuilt every
+ * {@code friends.graph.rebuild-interval-ms} as well.
+ * </p>
+ */
+@Component
+public class FriendGraphIndex implements DisposableBean {
+
+    /**
+     * Number of friendships loaded per query
+     */
+    static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final FriendshipRepository friendshipRepository;
+    private final AppLogger logger;
+    private final Duration overlap;
+    private final ForkJoinPool pool;
+    private final MutualFriendScorer scorer;
+
+    private volatile FriendGraph graph = FriendGraph.EMPTY;
+    /**
+     * Start of the previous load or refresh, null until the graph is loaded
+     */
+    private LocalDateTime refreshedFrom;
+
+    /**
+     * @param parallelism Threads used to score suggestions, 0 means one per processor
+     * @param overlap     How far before the previous refresh the changes are read again
+     */
+    public FriendGraphIndex(FriendshipRepository friendshipRepository,
+                            AppLogger logger,
+                            @Value("${friends.graph.parallelism:0}") int parallelism,
+                            @Value("${friends.graph.refresh-overlap:5s}") Duration overlap) {
+        this.friendshipRepository = friendshipRepository;
+        this.logger = logger;
+        this.overlap = overlap;
+        this.pool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName("friend-graph-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null, false);
+        this.scorer = new MutualFriendScorer(pool);
+    }
+
+    /**
+     * Load all accepted friendships, in batches ordered by ID.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${friends.graph.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${friends.graph.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long[] first = new long[LOAD_BATCH_SIZE];
+        long[] second = new long[LOAD_BATCH_SIZE];
+        int count = 0;
+        long lastId = 0;
+        List<FriendshipChange> batch;
+        do {
+            batch = friendshipRepository.findAcceptedAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (count + batch.size() > first.length) {
+                first = Arrays.copyOf(first, first.length * 2);
+                second = Arrays.copyOf(second, second.length * 2);
+            }
+            for (FriendshipChange friendship : batch) {
+                first[count] = friendship.requesterId();
+                second[count++] = friendship.addresseeId();
+                lastId = friendship.id();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        graph = FriendGraph.of(first, second, count);
+        refreshedFrom = startedAt;
+        logger.info("Friend graph built with {} users and {} friendships",
+                graph.userCount(), graph.friendshipCount());
+    }
+
+    /**
+     * Apply the friendships changed since the previous refresh.
+     *
+     * @return Number of changes read
+     */
+    @Scheduled(initialDelayString = "${friends.graph.refresh-interval-ms:10000}",
+            fixedDelayString = "${friends.graph.refresh-interval-ms:10000}")
+    public synchronized int refresh() {
+        if (refreshedFrom == null) {
+            return 0;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<FriendshipChange> changes = new ArrayList<>();
+        LocalDateTime updatedAt = refreshedFrom.minus(overlap);
+        long lastId = 0;
+        List<FriendshipChange> batch;
+        do {
+            batch = friendshipRepository.findChangedAfter(updatedAt, lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (!batch.isEmpty()) {
+                FriendshipChange last = batch.get(batch.size() - 1);
+                updatedAt = last.updatedAt();
+                lastId = last.id();
+                changes.addAll(batch);
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        graph = graph.apply(changes);
+        refreshedFrom = startedAt;
+        return changes.size();
+    }
+
+    /**
+     * Suggest friends of friends for a user from the current graph
+     *
+     * @param userId The user ID
+     * @param limit  Maximum number of suggestions
+     * @return Suggestions, most mutual friends first
+     */
+    public List<FriendSuggestion> suggest(long userId, int limit) {
+        return scorer.suggest(graph, userId, limit);
+    }
+
+    /**
+     * @return The current graph
+     */
+    public FriendGraph graph() {
+        return graph;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,19 @@
+package se.jensen.grupp9.socialpostsapp.graph;
+
+import java.util.Comparator;
+
+/**
+ * A user someone may know, scored by the number of friends they have in common
+ *
+ * @param userId        ID of the suggested user
+ * @param mutualFriends Number of mutual friends
+ */
+public record FriendSuggestion(long userId, int mutualFriends) {
+
+    /**
+     * Most mutual friends first, ties broken by the lowest user ID
+     */
+    public static final Comparator<FriendSuggestion> RANKING = Comparator
+            .comparingInt(FriendSuggestion::mutualFriends).reversed()
+            .thenComparingLong(FriendSuggestion::userId);
+}
@@ -0,0 +1,25 @@
+package se.jensen.grupp9.socialpostsapp.graph;
+
+import se.jensen.grupp9.socialpostsapp.model.FriendshipStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A friendship row as read into the friend graph, without loading the users
+ *
+ * @param id          ID of the friendship
+ * @param requesterId ID of the user who sent the request
+ * @param addresseeId ID of the user who received the request
+ * @param status      Current status, only ACCEPTED friendships are edges in the graph
+ * @param updatedAt   When the status last changed
+ */
+public record FriendshipChange(Long id, Long requesterId, Long addresseeId,
+                               FriendshipStatus status, LocalDateTime updatedAt) {
+
+    /**
+     * @return True if the two users are friends after this change
+     */
+    public boolean isAccepted() {
+        return status == FriendshipStatus.ACCEPTED;
+    }
+}
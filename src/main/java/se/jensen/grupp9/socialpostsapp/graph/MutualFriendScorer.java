@@ -0,0 +1,168 @@
+package se.jensen.grupp9.socialpostsapp.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ranks friends of friends by the number of mutual friends, with fork-join.
+ * <p>
+ * The user's friends are split in ranges. Each leaf task collects the friends of its
+ * friends into one array, sorts it and counts equal IDs, which gives a list of candidates
+ * sorted by ID with a count each. The lists of two halves are merged by ID and their counts
+ * added, so the work is proportional to the two-hop edges and there is no shared map.
+ * Users with few friends are scored on the calling thread.
+ * </p>
+ */
+public class MutualFriendScorer {
+
+    /**
+     * Friends walked by one leaf task
+     */
+    static final int LEAF_SIZE = 64;
+
+    private final ForkJoinPool pool;
+
+    public MutualFriendScorer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Find the users who are not yet friends with a user but have the most friends in common with them
+     *
+     * @param graph  The friend graph
+     * @param userId The user to suggest friends for
+     * @param limit  Maximum number of suggestions
+     * @return Suggestions, most mutual friends first
+     */
+    public List<FriendSuggestion> suggest(FriendGraph graph, long userId, int limit) {
+        long[] friends = graph.friendsOf(userId);
+        if (friends.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        CountTask task = new CountTask(graph, userId, friends, 0, friends.length);
+        Counts counts = friends.length <= LEAF_SIZE ? task.count() : pool.invoke(task);
+
+        // head is the worst of the suggestions kept so far
+        PriorityQueue<FriendSuggestion> best = new PriorityQueue<>(limit + 1, FriendSuggestion.RANKING.reversed());
+        for (int i = 0; i < counts.size(); i++) {
+            long candidate = counts.ids()[i];
+            if (Arrays.binarySearch(friends, candidate) >= 0) {
+                continue;
+            }
+            best.offer(new FriendSuggestion(candidate, counts.counts()[i]));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<FriendSuggestion> suggestions = new ArrayList<>(best);
+        suggestions.sort(FriendSuggestion.RANKING);
+        return suggestions;
+    }
+
+    /**
+     * Candidate IDs in ascending order, with the number of mutual friends of each
+     */
+    record Counts(long[] ids, int[] counts, int size) {
+
+        static final Counts EMPTY = new Counts(new long[0], new int[0], 0);
+
+        /**
+         * Merge two count lists, adding the counts of candidates in both
+         */
+        Counts merge(Counts other) {
+            long[] ids = new long[size + other.size];
+            int[] counts = new int[size + other.size];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && this.ids[i] < other.ids[j])) {
+                    ids[n] = this.ids[i];
+                    counts[n++] = this.counts[i++];
+                } else if (i == size || other.ids[j] < this.ids[i]) {
+                    ids[n] = other.ids[j];
+                    counts[n++] = other.counts[j++];
+                } else {
+                    ids[n] = this.ids[i];
+                    counts[n++] = this.counts[i++] + other.counts[j++];
+                }
+            }
+            return new Counts(ids, counts, n);
+        }
+    }
+
+    /**
+     * Counts the friends of friends in a range of the user's friends
+     */
+    private static final class CountTask extends RecursiveTask<Counts> {
+        private final FriendGraph graph;
+        private final long userId;
+        private final long[] friends;
+        private final int from;
+        private final int to;
+
+        CountTask(FriendGraph graph, long userId, long[] friends, int from, int to) {
+            this.graph = graph;
+            this.userId = userId;
+            this.friends = friends;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from <= LEAF_SIZE) {
+                return count();
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(graph, userId, friends, from, middle);
+            CountTask right = new CountTask(graph, userId, friends, middle, to);
+            left.fork();
+            Counts rightCounts = right.compute();
+            return left.join().merge(rightCounts);
+        }
+
+        Counts count() {
+            int total = 0;
+            int[] rows = new int[to - from];
+            for (int i = from; i < to; i++) {
+                rows[i - from] = graph.indexOf(friends[i]);
+                total += graph.rowEnd(rows[i - from]) - graph.rowStart(rows[i - from]);
+            }
+            if (total == 0) {
+                return Counts.EMPTY;
+            }
+
+            long[] candidates = new long[total];
+            int n = 0;
+            for (int row : rows) {
+                for (int p = graph.rowStart(row); p < graph.rowEnd(row); p++) {
+                    long candidate = graph.friendAt(p);
+                    if (candidate != userId) {
+                        candidates[n++] = candidate;
+                    }
+                }
+            }
+            Arrays.sort(candidates, 0, n);
+
+            long[] ids = new long[n];
+            int[] counts = new int[n];
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                if (size > 0 && ids[size - 1] == candidates[i]) {
+                    counts[size - 1]++;
+                } else {
+                    ids[size] = candidates[i];
+                    counts[size++] = 1;
+                }
+            }
+            return new Counts(ids, counts, size);
+        }
+    }
+}
@@ -9,19 +9,73 @@ import org.springframework.stereotype.Component;
  * <p>
  * Provides methods for logging messages at different levels: INFO, WARN, and ERROR.
  * This class can be injected wherever logging is needed in the backend.
+ * </p>
+ * <p>
+ * Messages are patterns with {@code {}} placeholders, e.g.
+ * {@code logger.info("Fetching user by id: {}", id)}. The message is only formatted when
+ * the level is enabled, and the one and two argument overloads avoid the varargs array,
+ * so a disabled log call allocates nothing. Output goes through the asynchronous appender
+ * configured in logback-spring.xml, so request threads do not wait for the console.
+ * </p>
  */
 @Component
 public class AppLogger {
 
     private final Logger logger = LoggerFactory.getLogger(AppLogger.class);
 
+    /**
+     * @return true if INFO messages are logged
+     */
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
     /**
      * Logs a message at INFO level.
      *
      * @param message the message to log
      */
     public void info(String message) {
-        logger.info(message);
+        if (logger.isInfoEnabled()) {
+            logger.info(message);
+        }
+    }
+
+    /**
+     * Logs a message with one argument at INFO level.
+     *
+     * @param pattern the message pattern with a {} placeholder
+     * @param arg     the argument
+     */
+    public void info(String pattern, Object arg) {
+        if (logger.isInfoEnabled()) {
+            logger.info(pattern, arg);
+        }
+    }
+
+    /**
+     * Logs a message with two arguments at INFO level.
+     *
+     * @param pattern the message pattern with {} placeholders
+     * @param arg1    the first argument
+     * @param arg2    the second argument
+     */
+    public void info(String pattern, Object arg1, Object arg2) {
+        if (logger.isInfoEnabled()) {
+            logger.info(pattern, arg1, arg2);
+        }
+    }
+
+    /**
+     * Logs a message with any number of arguments at INFO level.
+     *
+     * @param pattern the message pattern with {} placeholders
+     * @param args    the arguments
+     */
+    public void info(String pattern, Object... args) {
+        if (logger.isInfoEnabled()) {
+            logger.info(pattern, args);
+        }
     }
 
     /**
@@ -30,7 +84,46 @@ public class AppLogger {
      * @param message the message to log
      */
     public void warn(String message) {
-        logger.warn(message);
+        if (logger.isWarnEnabled()) {
+            logger.warn(message);
+        }
+    }
+
+    /**
+     * Logs a message with one argument at WARN level.
+     *
+     * @param pattern the message pattern with a {} placeholder
+     * @param arg     the argument
+     */
+    public void warn(String pattern, Object arg) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(pattern, arg);
+        }
+    }
+
+    /**
+     * Logs a message with two arguments at WARN level.
+     *
+     * @param pattern the message pattern with {} placeholders
+     * @param arg1    the first argument
+     * @param arg2    the second argument
+     */
+    public void warn(String pattern, Object arg1, Object arg2) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(pattern, arg1, arg2);
+        }
+    }
+
+    /**
+     * Logs a message with any number of arguments at WARN level.
+     *
+     * @param pattern the message pattern with {} placeholders
+     * @param args    the arguments
+     */
+    public void warn(String pattern, Object... args) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(pattern, args);
+        }
     }
 
     /**
@@ -42,6 +135,16 @@ public class AppLogger {
         logger.error(message);
     }
 
+    /**
+     * Logs a message with arguments at ERROR level.
+     *
+     * @param pattern the message pattern with {} placeholders
+     * @param args    the arguments
+     */
+    public void error(String pattern, Object... args) {
+        logger.error(pattern, args);
+    }
+
     /**
      * Logs a message and a throwable (exception) at ERROR level.
      *
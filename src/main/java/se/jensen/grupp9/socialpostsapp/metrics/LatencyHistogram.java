@@ -0,0 +1,158 @@
+package se.jensen.grupp9.socialpostsapp.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent latency histogram with log-linear buckets, like HdrHistogram.
+ * <p>
+ * Values (nanoseconds) are grouped by power of two, and every group is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so a reported percentile is at most about
+ * 3% above the real value whatever the magnitude. Every bucket is a {@link LongAdder},
+ * so recording is a few shifts and one uncontended add and never takes a lock.
+ * </p>
+ * <p>
+ * Values above {@link #MAX_VALUE} (about two minutes) are counted in the last bucket.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * Number of linear buckets per power of two
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Highest value that gets its own bucket
+     */
+    static final long MAX_VALUE = (1L << 37) - 1;
+
+    private static final int BUCKET_COUNT = index(MAX_VALUE) + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record one value
+     *
+     * @param nanos The measured latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        buckets[index(value)].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Copy the current counts. Values recorded while the copy is made may or may not
+     * be included, which is fine for monitoring.
+     *
+     * @return A snapshot to read percentiles from
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        return new Snapshot(counts, total, sum.sum(), max.get());
+    }
+
+    /**
+     * Bucket of a value: group g holds the values whose highest bit is bit g + 5, and
+     * the bits below the highest one, shifted by g, pick the sub-bucket.
+     */
+    static int index(long value) {
+        int group = 63 - Long.numberOfLeadingZeros(value | SUB_BUCKETS) - SUB_BUCKET_BITS;
+        return (group << SUB_BUCKET_BITS) + (int) (value >>> group);
+    }
+
+    /**
+     * Highest value that falls in a bucket
+     */
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int group = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << group) - 1;
+    }
+
+    /**
+     * Point in time copy of a histogram
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * @return Number of recorded values
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @return Sum of the recorded values in nanoseconds
+         */
+        public long sum() {
+            return sum;
+        }
+
+        /**
+         * @return Highest recorded value in nanoseconds
+         */
+        public long max() {
+            return max;
+        }
+
+        /**
+         * @return Mean of the recorded values in nanoseconds, 0 if empty
+         */
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Value at a percentile, reported as the top of its bucket
+         *
+         * @param percentile Between 0 and 100, e.g. 99.9
+         * @return The value in nanoseconds, 0 if empty
+         */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
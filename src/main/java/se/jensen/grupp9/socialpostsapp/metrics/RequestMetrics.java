@@ -0,0 +1,148 @@
+package se.jensen.grupp9.socialpostsapp.metrics;
+
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.dto.MetricsDTO;
+import se.jensen.grupp9.socialpostsapp.dto.RouteMetricsDTO;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of the request metrics per route, filled by {@link RequestMetricsFilter}.
+ * <p>
+ * Routes are keyed by HTTP method and URL pattern (not the raw path), so the number of
+ * routes is bounded by the number of endpoints. Recording only touches
+ * {@link java.util.concurrent.atomic.LongAdder LongAdders}, so it stays well below a
+ * microsecond even when many threads hit the same route.
+ * </p>
+ */
+@Component
+public class RequestMetrics {
+
+    /**
+     * Route used for requests that did not reach a controller (404, rejected by security)
+     */
+    public static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final ConcurrentMap<RouteKey, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final LongAdder inFlight = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Called when a request starts
+     */
+    public void requestStarted() {
+        inFlight.increment();
+    }
+
+    /**
+     * Called when a request has finished
+     *
+     * @param method HTTP method
+     * @param route  URL pattern of the endpoint, or {@link #UNMATCHED_ROUTE}
+     * @param status HTTP status of the response
+     * @param nanos  Time the request took
+     */
+    public void requestFinished(String method, String route, int status, long nanos) {
+        inFlight.decrement();
+        RouteKey key = new RouteKey(method, route);
+        RouteMetrics metrics = routes.get(key);
+        if (metrics == null) {
+            metrics = routes.computeIfAbsent(key, k -> new RouteMetrics(k.method(), k.route()));
+        }
+        metrics.record(status, nanos, nowSeconds());
+    }
+
+    /**
+     * @return Number of requests being handled right now
+     */
+    public long inFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * Get the metrics of all routes, busiest first
+     *
+     * @return A MetricsDTO
+     */
+    public MetricsDTO snapshot() {
+        long now = nowSeconds();
+        List<RouteMetricsDTO> result = routes.values().stream()
+                .map(metrics -> toDTO(metrics, now))
+                .sorted(Comparator.comparingLong(RouteMetricsDTO::count).reversed())
+                .toList();
+        return new MetricsDTO(inFlight(), now, result);
+    }
+
+    /**
+     * Get the metrics in the Prometheus text exposition format (version 0.0.4).
+     * Latencies are a summary with quantiles, in seconds.
+     *
+     * @return The metrics as text
+     */
+    public String prometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# HELP http_server_requests_seconds Request latency per route\n");
+        out.append("# TYPE http_server_requests_seconds summary\n");
+        List<RouteMetrics> all = routes.values().stream()
+                .sorted(Comparator.comparing(RouteMetrics::route).thenComparing(RouteMetrics::method))
+                .toList();
+        for (RouteMetrics metrics : all) {
+            LatencyHistogram.Snapshot latency = metrics.latency();
+            String labels = "method=\"" + escape(metrics.method()) + "\",route=\"" + escape(metrics.route()) + "\"";
+            for (double quantile : new double[]{0.5, 0.95, 0.99, 0.999}) {
+                out.append("http_server_requests_seconds{").append(labels)
+                        .append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(latency.percentile(quantile * 100) / NANOS_PER_SECOND).append('\n');
+            }
+            out.append("http_server_requests_seconds_sum{").append(labels).append("} ")
+                    .append(latency.sum() / NANOS_PER_SECOND).append('\n');
+            out.append("http_server_requests_seconds_count{").append(labels).append("} ")
+                    .append(latency.count()).append('\n');
+        }
+        out.append("# HELP http_server_errors_total Requests answered with a 5xx status\n");
+        out.append("# TYPE http_server_errors_total counter\n");
+        for (RouteMetrics metrics : all) {
+            out.append("http_server_errors_total{method=\"").append(escape(metrics.method()))
+                    .append("\",route=\"").append(escape(metrics.route())).append("\"} ")
+                    .append(metrics.errors()).append('\n');
+        }
+        out.append("# HELP http_server_requests_in_flight Requests being handled right now\n");
+        out.append("# TYPE http_server_requests_in_flight gauge\n");
+        out.append("http_server_requests_in_flight ").append(inFlight()).append('\n');
+        return out.toString();
+    }
+
+    private static RouteMetricsDTO toDTO(RouteMetrics metrics, long nowSeconds) {
+        LatencyHistogram.Snapshot latency = metrics.latency();
+        return new RouteMetricsDTO(
+                metrics.method(),
+                metrics.route(),
+                latency.count(),
+                metrics.errors(),
+                metrics.ratePerSecond(nowSeconds),
+                latency.mean() / NANOS_PER_MILLI,
+                latency.percentile(50) / NANOS_PER_MILLI,
+                latency.percentile(95) / NANOS_PER_MILLI,
+                latency.percentile(99) / NANOS_PER_MILLI,
+                latency.percentile(99.9) / NANOS_PER_MILLI,
+                latency.max() / NANOS_PER_MILLI);
+    }
+
+    private long nowSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private record RouteKey(String method, String route) {}
+}
@@ -0,0 +1,84 @@
+package se.jensen.grupp9.socialpostsapp.metrics;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Measures every request and records it in {@link RequestMetrics}.
+ * <p>
+ * Runs first, outside the security filters, so the time includes authentication and
+ * rate limiting. The route is the URL pattern Spring MVC matched (e.g. /posts/{id}),
+ * read after the request has been handled. Asynchronous requests (like login) are
+ * recorded when the async processing completes.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final RequestMetrics requestMetrics;
+
+    public RequestMetricsFilter(RequestMetrics requestMetrics) {
+        this.requestMetrics = requestMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        requestMetrics.requestStarted();
+        boolean async = false;
+        boolean failed = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                async = true;
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        finished(request, response.getStatus(), start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            failed = true;
+            throw e;
+        } finally {
+            if (!async) {
+                // an exception becomes a 500 after this filter has returned
+                finished(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), start);
+            }
+        }
+    }
+
+    private void finished(HttpServletRequest request, int status, long start) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : RequestMetrics.UNMATCHED_ROUTE;
+        requestMetrics.requestFinished(request.getMethod(), route, status, System.nanoTime() - start);
+    }
+}
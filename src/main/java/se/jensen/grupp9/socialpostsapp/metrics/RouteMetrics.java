@@ -0,0 +1,87 @@
+package se.jensen.grupp9.socialpostsapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one route (HTTP method and URL pattern): a latency histogram,
+ * a request and error count, and the number of requests per second over the last minute.
+ * <p>
+ * The last minute is a ring of {@value #WINDOW_SECONDS} per-second slots. A slot is reset
+ * the first time it is used in a new second; requests that race with the reset can be lost,
+ * so the rate is approximate, while the totals are exact.
+ * </p>
+ */
+public class RouteMetrics {
+
+    static final int WINDOW_SECONDS = 60;
+
+    private final String method;
+    private final String route;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLongArray slotSeconds = new AtomicLongArray(WINDOW_SECONDS);
+    private final LongAdder[] slotCounts = new LongAdder[WINDOW_SECONDS];
+
+    public RouteMetrics(String method, String route) {
+        this.method = method;
+        this.route = route;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            slotSeconds.set(i, -1);
+            slotCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record one finished request
+     *
+     * @param status     HTTP status of the response
+     * @param nanos      Time the request took
+     * @param nowSeconds Current time in whole seconds, from the same clock on every call
+     */
+    public void record(int status, long nanos, long nowSeconds) {
+        latency.record(nanos);
+        if (status >= 500) {
+            errors.increment();
+        }
+        int slot = (int) Math.floorMod(nowSeconds, (long) WINDOW_SECONDS);
+        long slotSecond = slotSeconds.get(slot);
+        if (slotSecond < nowSeconds && slotSeconds.compareAndSet(slot, slotSecond, nowSeconds)) {
+            slotCounts[slot].reset();
+        }
+        slotCounts[slot].increment();
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public String route() {
+        return route;
+    }
+
+    public LatencyHistogram.Snapshot latency() {
+        return latency.snapshot();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * Requests per second over the last full minute, the current second excluded
+     *
+     * @param nowSeconds Current time in whole seconds
+     * @return The average rate
+     */
+    public double ratePerSecond(long nowSeconds) {
+        long requests = 0;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            long second = slotSeconds.get(i);
+            if (second < nowSeconds && second >= nowSeconds - WINDOW_SECONDS) {
+                requests += slotCounts[i].sum();
+            }
+        }
+        return (double) requests / WINDOW_SECONDS;
+    }
+}
@@ -0,0 +1,69 @@
+package se.jensen.grupp9.socialpostsapp.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents that one user follows another
+ *
+ * <p>
+ *     The follower sees the posts of the followee in their home feed.
+ *     A user can follow another user only once. The follow is removed by the
+ *     database when either user is deleted.
+ * </p>
+ *
+ * @see User
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "user_follow",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_follow_follower_followee",
+                columnNames = {"follower_id", "followee_id"}),
+        indexes = @Index(name = "idx_user_follow_followee_follower", columnList = "followee_id, follower_id"))
+public class Follow {
+
+    /**
+     * Unique identifier for the follow
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_follow_seq")
+    @SequenceGenerator(name = "user_follow_seq", sequenceName = "user_follow_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The user who follows
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "follower_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User follower;
+
+    /**
+     * The user who is followed
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "followee_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User followee;
+
+    /**
+     * When the follow was created
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Follow(User follower, User followee) {
+        this.follower = follower;
+        this.followee = followee;
+    }
+}
@@ -0,0 +1,110 @@
+package se.jensen.grupp9.socialpostsapp.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a friendship, or a request for one, between two users
+ *
+ * <p>
+ *     There is at most one row per pair of users, in either direction: the pair is also
+ *     stored in canonical order (lower ID first) under a unique constraint, so two users
+ *     asking each other at the same time cannot create two rows. A friendship is
+ *     never deleted by the application, it is set to {@link FriendshipStatus#REMOVED} so
+ *     the in-memory friend graph can pick up the change from updatedAt. The row is removed
+ *     by the database when either user is deleted, which the graph only picks up on its
+ *     periodic full rebuild.
+ * </p>
+ *
+ * @see User
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "friendship",
+        uniqueConstraints = @UniqueConstraint(name = "uk_friendship_user_low_high",
+                columnNames = {"user_low_id", "user_high_id"}),
+        indexes = {
+                @Index(name = "idx_friendship_requester_addressee", columnList = "requester_id, addressee_id"),
+                @Index(name = "idx_friendship_addressee_requester", columnList = "addressee_id, requester_id"),
+                @Index(name = "idx_friendship_updated_at_id", columnList = "updated_at, id")
+        })
+public class Friendship {
+
+    /**
+     * Unique identifier for the friendship
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "friendship_seq")
+    @SequenceGenerator(name = "friendship_seq", sequenceName = "friendship_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The user who sent the request
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requester_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User requester;
+
+    /**
+     * The user who received the request
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "addressee_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User addressee;
+
+    /**
+     * The lower of the two user IDs
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "user_low_id", nullable = false, updatable = false)
+    private Long userLowId;
+
+    /**
+     * The higher of the two user IDs
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "user_high_id", nullable = false, updatable = false)
+    private Long userHighId;
+
+    /**
+     * State of the friendship
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private FriendshipStatus status;
+
+    /**
+     * When the request was first sent
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * When the status last changed
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public Friendship(User requester, User addressee) {
+        this.requester = requester;
+        this.addressee = addressee;
+        this.userLowId = Math.min(requester.getId(), addressee.getId());
+        this.userHighId = Math.max(requester.getId(), addressee.getId());
+        this.status = FriendshipStatus.PENDING;
+    }
+}
@@ -0,0 +1,21 @@
+package se.jensen.grupp9.socialpostsapp.model;
+
+/**
+ * State of a friendship between two users
+ *
+ * @see Friendship
+ */
+public enum FriendshipStatus {
+    /**
+     * Requested by the requester, not yet accepted by the addressee
+     */
+    PENDING,
+    /**
+     * Both users are friends
+     */
+    ACCEPTED,
+    /**
+     * Declined, cancelled or ended. The row is kept so the change reaches the friend graph
+     */
+    REMOVED
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -26,14 +27,19 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "post")
+@Table(name = "post", indexes = {
+        @Index(name = "idx_post_created_at_id", columnList = "created_at DESC, id DESC"),
+        @Index(name = "idx_post_user_id_created_at_id", columnList = "user_id, created_at DESC, id DESC")
+})
 public class Post {
 
     /**
-     * Unique identifier for the post
+     * Unique identifier for the post.
+     * Taken from a pooled sequence so that inserts can be sent in JDBC batches.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_seq")
+    @SequenceGenerator(name = "post_seq", sequenceName = "post_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -63,6 +69,15 @@ public class Post {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Number of comments on this post (kept up to date by CommentService).
+     * Only changed by PostRepository.adjustCommentCount, so saving a loaded post
+     * never writes back a stale count.
+     */
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private long commentCount;
+
     /**
      * List of comments on this post
      */
@@ -1,6 +1,7 @@
 package se.jensen.grupp9.socialpostsapp.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Represents a user in the social app.
@@ -16,7 +17,8 @@ public class User {
      * Unique identifier for the user.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_user_seq")
+    @SequenceGenerator(name = "app_user_seq", sequenceName = "app_user_seq", allocationSize = 50)
     private Long id;
 
     public Long getId() {
@@ -52,6 +54,15 @@ public class User {
     @Column(nullable = false)
     private String bio;
 
+    /**
+     * Number of users following this user (kept up to date by FollowService).
+     * Only changed by UserRepository.adjustFollowerCount, so saving a loaded user
+     * never writes back a stale count.
+     */
+    @ColumnDefault("0")
+    @Column(name = "follower_count", nullable = false, updatable = false)
+    private long followerCount;
+
     /**
      * @return The username of the user.
      */
@@ -107,4 +118,18 @@ public class User {
     public void setBio(String bio) {
         this.bio = bio;
     }
+
+    /**
+     * @return The number of followers of the user.
+     */
+    public long getFollowerCount() {
+        return followerCount;
+    }
+
+    /**
+     * @param followerCount The number of followers to set.
+     */
+    public void setFollowerCount(long followerCount) {
+        this.followerCount = followerCount;
+    }
 }
@@ -1,10 +1,17 @@
 package se.jensen.grupp9.socialpostsapp.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import se.jensen.grupp9.socialpostsapp.dto.CommentPreview;
+import se.jensen.grupp9.socialpostsapp.dto.CommentView;
 import se.jensen.grupp9.socialpostsapp.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Comment entity
@@ -18,15 +25,42 @@ import java.util.List;
  */
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    /**
+     * Select clause for read-only queries that load comments straight into CommentView
+     * projections, together with their user
+     */
+    String SELECT_COMMENT_VIEW = "SELECT new se.jensen.grupp9.socialpostsapp.dto.CommentView(" +
+            "c.id, c.post.id, c.text, c.createdAt, u.id, u.username, u.email, u.bio) " +
+            "FROM Comment c JOIN c.user u ";
 
     /**
-     * Find all comments for a specific post ordered by creation date (oldest first)
+     * Find all comments for a specific post ordered by creation date (oldest first).
+     * The user of each comment is fetched in the same query.
      *
      * @param postId The post id
      * @return List of comments ordered by createdAt ascending
      */
+    @EntityGraph(attributePaths = "user")
     List<Comment> findByPostIdOrderByCreatedAtAsc (Long postId);
 
+    /**
+     * Find all comments for a specific post as read-only projections (oldest first).
+     *
+     * @param postId The post id
+     * @return List of comment projections ordered by createdAt ascending
+     */
+    @Query(SELECT_COMMENT_VIEW + "WHERE c.post.id = :postId ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentView> findViewsByPostId(@Param("postId") Long postId);
+
+    /**
+     * Find a single comment as a read-only projection.
+     *
+     * @param id The comment ID
+     * @return The comment projection, or empty if the comment does not exist
+     */
+    @Query(SELECT_COMMENT_VIEW + "WHERE c.id = :id")
+    Optional<CommentView> findViewById(@Param("id") Long id);
+
     /**
      * Find all comments for a specific post.
      *
@@ -34,4 +68,29 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * @return List of comments for the post
      */
     List<Comment> findByPostId(Long postId);
+
+    /**
+     * Find the latest comments for each of the given posts (newest first).
+     * <p>
+     * Uses a single windowed query that numbers the comments per post_id
+     * and keeps the first {@code limit} of every post, instead of one query per post.
+     * The user columns are joined in, and the rows are read as projections, not entities.
+     * The aliases are quoted so they keep their case on every database.
+     * </p>
+     *
+     * @param postIds The IDs of the posts
+     * @param limit   The maximum number of comments per post
+     * @return Comment projections ordered by post, then createdAt and id descending
+     */
+    @Query(value = "SELECT c.id AS \"id\", c.post_id AS \"postId\", c.text AS \"text\", " +
+            "c.created_at AS \"createdAt\", u.id AS \"userId\", u.username AS \"username\", " +
+            "u.email AS \"email\", u.bio AS \"bio\" " +
+            "FROM comment c " +
+            "JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY post_id ORDER BY created_at DESC, id DESC) AS rn " +
+            "FROM comment WHERE post_id IN (:postIds)) ranked ON ranked.id = c.id " +
+            "JOIN app_user u ON u.id = c.user_id " +
+            "WHERE ranked.rn <= :limit " +
+            "ORDER BY c.post_id, c.created_at DESC, c.id DESC",
+            nativeQuery = true)
+    List<CommentPreview> findLatestByPostIds(@Param("postIds") Collection<Long> postIds, @Param("limit") int limit);
 }
@@ -0,0 +1,106 @@
+package se.jensen.grupp9.socialpostsapp.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import se.jensen.grupp9.socialpostsapp.model.Follow;
+
+import java.util.List;
+
+/**
+ * Repository for Follow entity
+ *
+ * <p>
+ * Provides the follower and followee lookups used by the home timelines.
+ * Only IDs are selected, no users are loaded.
+ * </p>
+ *
+ * @see Follow
+ */
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, Long> {
+
+    /**
+     * Check if a user follows another user
+     *
+     * @param followerId The follower's ID
+     * @param followeeId The followee's ID
+     * @return True if the follow exists
+     */
+    boolean existsByFollowerIdAndFolloweeId(Long followerId, Long followeeId);
+
+    /**
+     * Remove a follow without loading it
+     *
+     * @param followerId The follower's ID
+     * @param followeeId The followee's ID
+     * @return Number of deleted rows (0 or 1)
+     */
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.follower.id = :followerId AND f.followee.id = :followeeId")
+    int deleteByFollowerIdAndFolloweeId(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    /**
+     * Find the IDs of the users a user follows
+     *
+     * @param followerId The follower's ID
+     * @return List of followee IDs
+     */
+    @Query("SELECT f.followee.id FROM Follow f WHERE f.follower.id = :followerId")
+    List<Long> findFolloweeIds(@Param("followerId") Long followerId);
+
+    /**
+     * Find the IDs of the users a user follows that have fewer followers than a threshold,
+     * the authors whose posts are pushed to timelines
+     *
+     * @param followerId The follower's ID
+     * @param threshold  The follower count from which an author is not fanned out
+     * @return List of followee IDs
+     */
+    @Query("SELECT f.followee.id FROM Follow f WHERE f.follower.id = :followerId " +
+            "AND f.followee.followerCount < :threshold")
+    List<Long> findFolloweeIdsWithFollowersBelow(@Param("followerId") Long followerId,
+                                                 @Param("threshold") long threshold);
+
+    /**
+     * Find the IDs of the users a user follows that have at least a threshold of followers,
+     * the authors whose posts are pulled when the feed is read
+     *
+     * @param followerId The follower's ID
+     * @param threshold  The follower count from which an author is not fanned out
+     * @return List of followee IDs
+     */
+    @Query("SELECT f.followee.id FROM Follow f WHERE f.follower.id = :followerId " +
+            "AND f.followee.followerCount >= :threshold")
+    List<Long> findFolloweeIdsWithFollowersAtLeast(@Param("followerId") Long followerId,
+                                                   @Param("threshold") long threshold);
+
+    /**
+     * Find the next batch of follower IDs of a user, ordered by ID.
+     * <p>
+     * Keyset pagination over the (followee_id, follower_id) index, so fanning out to
+     * a large number of followers costs the same per batch.
+     * </p>
+     *
+     * @param followeeId The followee's ID
+     * @param afterId    Last follower ID of the previous batch, 0 for the first batch
+     * @param pageable   Batch size (the page number should always be 0)
+     * @return List of follower IDs greater than afterId
+     */
+    @Query("SELECT f.follower.id FROM Follow f WHERE f.followee.id = :followeeId AND f.follower.id > :afterId " +
+            "ORDER BY f.follower.id")
+    List<Long> findFollowerIdsAfter(@Param("followeeId") Long followeeId,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    /**
+     * Count the followers of a user
+     *
+     * @param followeeId The followee's ID
+     * @return Number of followers
+     */
+    long countByFolloweeId(Long followeeId);
+}
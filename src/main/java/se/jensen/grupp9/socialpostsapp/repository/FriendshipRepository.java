@@ -0,0 +1,98 @@
+package se.jensen.grupp9.socialpostsapp.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import se.jensen.grupp9.socialpostsapp.graph.FriendshipChange;
+import se.jensen.grupp9.socialpostsapp.model.Friendship;
+import se.jensen.grupp9.socialpostsapp.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for Friendship entity
+ *
+ * <p>
+ * Besides the lookups for friend requests, provides the keyset queries that load
+ * friendships into the in-memory friend graph and read the changes since the last refresh.
+ * </p>
+ *
+ * @see Friendship
+ */
+@Repository
+public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
+
+    /**
+     * Find the friendship between two users, whoever sent the request.
+     * Looks up the canonical (lower ID, higher ID) pair, which is unique.
+     *
+     * @param userId  One of the users
+     * @param otherId The other user
+     * @return An {@link Optional} containing the friendship if found, or empty if not found
+     */
+    default Optional<Friendship> findBetween(Long userId, Long otherId) {
+        return findByUserLowIdAndUserHighId(Math.min(userId, otherId), Math.max(userId, otherId));
+    }
+
+    /**
+     * Find the friendship of a canonical pair of users
+     *
+     * @param userLowId  The lower of the two user IDs
+     * @param userHighId The higher of the two user IDs
+     * @return An {@link Optional} containing the friendship if found, or empty if not found
+     */
+    Optional<Friendship> findByUserLowIdAndUserHighId(Long userLowId, Long userHighId);
+
+    /**
+     * Find the accepted friends of a user
+     *
+     * @param userId The user's ID
+     * @return List of friends
+     */
+    @Query("SELECT u FROM User u WHERE u.id IN (" +
+            "SELECT f.addressee.id FROM Friendship f WHERE f.requester.id = :userId " +
+            "AND f.status = se.jensen.grupp9.socialpostsapp.model.FriendshipStatus.ACCEPTED) " +
+            "OR u.id IN (" +
+            "SELECT f.requester.id FROM Friendship f WHERE f.addressee.id = :userId " +
+            "AND f.status = se.jensen.grupp9.socialpostsapp.model.FriendshipStatus.ACCEPTED) " +
+            "ORDER BY u.username")
+    List<User> findAcceptedFriends(@Param("userId") Long userId);
+
+    /**
+     * Find the next batch of accepted friendships, ordered by ID
+     *
+     * @param afterId  Last friendship ID of the previous batch, 0 for the first batch
+     * @param pageable Batch size (the page number should always be 0)
+     * @return List of accepted friendships with an ID greater than afterId
+     */
+    @Query("SELECT new se.jensen.grupp9.socialpostsapp.graph.FriendshipChange(" +
+            "f.id, f.requester.id, f.addressee.id, f.status, f.updatedAt) " +
+            "FROM Friendship f WHERE f.id > :afterId " +
+            "AND f.status = se.jensen.grupp9.socialpostsapp.model.FriendshipStatus.ACCEPTED " +
+            "ORDER BY f.id")
+    List<FriendshipChange> findAcceptedAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Find the next batch of friendships changed after a point in time, in the order they changed.
+     * <p>
+     * Keyset pagination over the (updated_at, id) index, with any status so that
+     * removed friendships are seen as well.
+     * </p>
+     *
+     * @param updatedAt Update time of the last friendship of the previous batch
+     * @param afterId   ID of the last friendship of the previous batch, 0 for the first batch
+     * @param pageable  Batch size (the page number should always be 0)
+     * @return List of friendships changed after (updatedAt, afterId)
+     */
+    @Query("SELECT new se.jensen.grupp9.socialpostsapp.graph.FriendshipChange(" +
+            "f.id, f.requester.id, f.addressee.id, f.status, f.updatedAt) " +
+            "FROM Friendship f WHERE f.updatedAt > :updatedAt OR (f.updatedAt = :updatedAt AND f.id > :afterId) " +
+            "ORDER BY f.updatedAt, f.id")
+    List<FriendshipChange> findChangedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+}
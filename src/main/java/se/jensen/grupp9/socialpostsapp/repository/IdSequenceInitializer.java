@@ -0,0 +1,78 @@
+package se.jensen.grupp9.socialpostsapp.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Moves the ID sequences past the existing rows on PostgreSQL at startup.
+ * <p>
+ * The tables used identity columns before the entities switched to pooled sequences.
+ * A sequence created by Hibernate for an existing table starts at 1 and would hand out
+ * IDs that are already taken, so each sequence is set to at least MAX(id) plus one
+ * allocation block. The sequence is never moved backwards.
+ * </p>
+ */
+@Component
+public class IdSequenceInitializer {
+
+    /**
+     * Must match the allocationSize of the entity sequence generators
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Sequence name for every table with a sequence generated ID
+     */
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "post_seq", "post",
+            "comment_seq", "comment",
+            "app_user_seq", "app_user",
+            "user_follow_seq", "user_follow",
+            "friendship_seq", "friendship"
+    );
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final AppLogger logger;
+
+    /**
+     * Depends on the EntityManagerFactory so that Hibernate has created the
+     * sequences before they are aligned.
+     */
+    public IdSequenceInitializer(DataSource dataSource,
+                                 EntityManagerFactory entityManagerFactory,
+                                 AppLogger logger) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.logger = logger;
+    }
+
+    @PostConstruct
+    public void alignSequences() throws SQLException {
+        if (!isPostgres()) {
+            return;
+        }
+        SEQUENCES.forEach((sequence, table) -> {
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT setval('" + sequence + "', GREATEST(" +
+                            "(SELECT COALESCE(MAX(id), 0) FROM " + table + ") + " + ALLOCATION_SIZE + ", " +
+                            "(SELECT last_value FROM " + sequence + ")))",
+                    Long.class);
+            logger.info("Sequence {} aligned to {}", sequence, value);
+        });
+    }
+
+    private boolean isPostgres() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+}
@@ -2,12 +2,20 @@ package se.jensen.grupp9.socialpostsapp.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import se.jensen.grupp9.socialpostsapp.dto.PostView;
 import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineEntry;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Post entity
@@ -20,6 +28,14 @@ import java.util.List;
  */
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
+    /**
+     * Select clause for read-only queries that load posts straight into PostView
+     * projections, together with their user
+     */
+    String SELECT_POST_VIEW = "SELECT new se.jensen.grupp9.socialpostsapp.dto.PostView(" +
+            "p.id, p.text, p.createdAt, p.updatedAt, u.id, u.username, u.email, u.bio, p.commentCount) " +
+            "FROM Post p JOIN p.user u ";
+
     /**
      * Find all posts ordered by creation date (nwest first)
      *
@@ -30,19 +46,210 @@ public interface PostRepository extends JpaRepository<Post, Long> {
 
     /**
      * Find all posts with pagination.
+     * The user of each post is fetched in the same query.
      *
      * @param pageable Pagination parameters (page, size, sort)
      * @return Page of posts
      */
     @Override
+    @EntityGraph(attributePaths = "user")
     Page<Post> findAll(Pageable pageable);
 
     /**
-     * Find all posts by a specific user with pagination
+     * Find all posts by a specific user with pagination.
+     * The user of each post is fetched in the same query.
      *
      * @param userId   The user ID
      * @param pageable Pagination parameters
      * @return Page of posts for the user
      */
+    @EntityGraph(attributePaths = "user")
     Page<Post> findByUserId(Long userId, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Find all posts with pagination as read-only projections.
+     *
+     * @param pageable Pagination parameters (page, size, sort)
+     * @return Page of post projections
+     */
+    @Query(value = SELECT_POST_VIEW, countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostView> findAllViews(Pageable pageable);
+
+    /**
+     * Find all posts by a specific user with pagination as read-only projections.
+     *
+     * @param userId   The user ID
+     * @param pageable Pagination parameters
+     * @return Page of post projections for the user
+     */
+    @Query(value = SELECT_POST_VIEW + "WHERE u.id = :userId",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.user.id = :userId")
+    Page<PostView> findViewsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Find a single post as a read-only projection.
+     *
+     * @param id The post ID
+     * @return The post projection, or empty if the post does not exist
+     */
+    @Query(SELECT_POST_VIEW + "WHERE p.id = :id")
+    Optional<PostView> findViewById(@Param("id") Long id);
+
+    /**
+     * Find the first page of the feed for keyset pagination (newest first).
+     * <p>
+     * Returns a List instead of a Page so no count query is executed.
+     * The user of each post is selected in the same query.
+     * </p>
+     *
+     * @param pageable Page size (the page number should always be 0)
+     * @return List of the newest post projections ordered by createdAt and id descending
+     */
+    @Query(SELECT_POST_VIEW + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findFeedFirstPage(Pageable pageable);
+
+    /**
+     * Find the next page of the feed after a cursor position (newest first).
+     * <p>
+     * Seeks directly to the cursor with the (created_at, id) index, so deep pages
+     * cost the same as the first one.
+     * </p>
+     *
+     * @param createdAt Creation time of the last post on the previous page
+     * @param id        ID of the last post on the previous page
+     * @param pageable  Page size (the page number should always be 0)
+     * @return List of post projections older than the cursor ordered by createdAt and id descending
+     */
+    @Query(SELECT_POST_VIEW +
+            "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findFeedPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Long id,
+                                  Pageable pageable);
+
+    /**
+     * Find the newest posts of a set of authors as timeline entries (ID and creation time only),
+     * used to build a home timeline that is not in memory.
+     *
+     * @param authorIds The IDs of the authors
+     * @param pageable  Number of entries (the page number should always be 0)
+     * @return List of timeline entries ordered by createdAt and id descending
+     */
+    @Query("SELECT new se.jensen.grupp9.socialpostsapp.timeline.TimelineEntry(p.id, p.createdAt) " +
+            "FROM Post p WHERE p.user.id IN :authorIds ORDER BY p.createdAt DESC, p.id DESC")
+    List<TimelineEntry> findTimelineEntries(@Param("authorIds") Collection<Long> authorIds, Pageable pageable);
+
+    /**
+     * Find the first page of posts by a set of authors (newest first).
+     *
+     * @param authorIds The IDs of the authors
+     * @param pageable  Page size (the page number should always be 0)
+     * @return List of post projections ordered by createdAt and id descending
+     */
+    @Query(SELECT_POST_VIEW + "WHERE u.id IN :authorIds ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findByAuthorsFirstPage(@Param("authorIds") Collection<Long> authorIds, Pageable pageable);
+
+    /**
+     * Find the next page of posts by a set of authors after a cursor position (newest first).
+     * Seeks with the (user_id, created_at, id) index for each author.
+     *
+     * @param authorIds The IDs of the authors
+     * @param createdAt Creation time of the last post on the previous page
+     * @param id        ID of the last post on the previous page
+     * @param pageable  Page size (the page number should always be 0)
+     * @return List of post projections older than the cursor ordered by createdAt and id descending
+     */
+    @Query(SELECT_POST_VIEW +
+            "WHERE u.id IN :authorIds AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findByAuthorsPageBefore(@Param("authorIds") Collection<Long> authorIds,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    /**
+     * Find posts by their IDs as read-only projections.
+     *
+     * @param ids The post IDs
+     * @return List of the post projections that exist, in no particular order
+     */
+    @Query(SELECT_POST_VIEW + "WHERE p.id IN :ids")
+    List<PostView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find posts with an ID greater than the given one, ordered by ID.
+     * Used to walk through all posts in batches.
+     *
+     * @param id       The last ID of the previous batch (0 for the first batch)
+     * @param pageable Batch size (the page number should always be 0)
+     * @return List of posts ordered by ID ascending
+     */
+    List<Post> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Atomically add to the comment counter of a post.
+     * <p>
+     * Runs as a single UPDATE ... SET comment_count = comment_count + delta,
+     * so concurrent comments never overwrite each other's count.
+     * </p>
+     *
+     * @param postId The post ID
+     * @param delta  The change (+1 for a new comment, -1 for a deleted comment)
+     * @return Number of updated rows (0 if the post does not exist)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+    int adjustCommentCount(@Param("postId") Long postId, @Param("delta") long delta);
+
+    /**
+     * Find the highest post ID, used to split batch jobs into ID ranges
+     *
+     * @return The highest post ID, or 0 if there are no posts
+     */
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Post p")
+    long findMaxId();
+
+    /**
+     * Find the posts in an ID range whose comment counter differs from the actual number
+     * of comments. The result can include posts with a comment write in progress, so
+     * each one is checked again by {@link #repairCommentCount(long)}.
+     *
+     * @param fromId First post ID in the range (inclusive)
+     * @param toId   Last post ID in the range (inclusive)
+     * @return IDs of the posts that look drifted
+     */
+    @Query(value = "SELECT p.id FROM post p WHERE p.id BETWEEN :fromId AND :toId " +
+            "AND p.comment_count <> (SELECT COUNT(*) FROM comment c WHERE c.post_id = p.id)",
+            nativeQuery = true)
+    List<Long> findIdsWithDriftedCommentCount(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Lock a post row until the end of the transaction, so no comment write can change
+     * its counter meanwhile
+     *
+     * @param postId The post ID
+     * @return The ID, or empty if the post does not exist
+     */
+    @Query(value = "SELECT id FROM post WHERE id = :postId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("postId") long postId);
+
+    /**
+     * Set the comment counter of a post to the actual number of comments, if it still differs.
+     * <p>
+     * Must run after {@link #lockById(long)} in the same transaction. With the row locked
+     * first, the count is read by a statement that starts after every comment write that
+     * changed the counter has committed. A single UPDATE with the count in a subquery would
+     * count on its own snapshot and, after waiting for such a write, overwrite its +1.
+     * </p>
+     *
+     * @param postId The post ID
+     * @return 1 if the counter was repaired, 0 if it was already right
+     */
+    @Modifying
+    @Query(value = "UPDATE post SET comment_count = " +
+            "(SELECT COUNT(*) FROM comment c WHERE c.post_id = post.id) " +
+            "WHERE post.id = :postId " +
+            "AND comment_count <> (SELECT COUNT(*) FROM comment c WHERE c.post_id = post.id)",
+            nativeQuery = true)
+    int repairCommentCount(@Param("postId") long postId);
+}
@@ -1,9 +1,15 @@
 package se.jensen.grupp9.socialpostsapp.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import se.jensen.grupp9.socialpostsapp.dto.UserInfoDTO;
 import se.jensen.grupp9.socialpostsapp.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +30,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsername(String username);
 
+    /**
+     * Finds the ID of a user by their username, without loading the user.
+     *
+     * @param username The username of the user.
+     * @return An {@link Optional} containing the ID if found, or empty if not found.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
     /**
      * Finds a user by their email address.
      *
@@ -55,4 +70,45 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return A list of users whose bio contains the given keyword.
      */
     List<User> findByBioContaining(String keyword);
+
+    /**
+     * Replaces the password hash of a user without loading the entity.
+     *
+     * @param id       The ID of the user.
+     * @param password The new password hash.
+     * @return Number of updated rows (0 if the user does not exist).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    /**
+     * Atomically adds to the follower counter of a user.
+     *
+     * @param id    The ID of the user.
+     * @param delta The change (+1 for a new follower, -1 for a removed one).
+     * @return Number of updated rows (0 if the user does not exist).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.followerCount = u.followerCount + :delta WHERE u.id = :id")
+    int adjustFollowerCount(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * Finds the follower count of a user, without loading the user.
+     *
+     * @param id The ID of the user.
+     * @return An {@link Optional} containing the follower count if found, or empty if not found.
+     */
+    @Query("SELECT u.followerCount FROM User u WHERE u.id = :id")
+    Optional<Long> findFollowerCount(@Param("id") Long id);
+
+    /**
+     * Finds the ID and username of several users, without loading the users.
+     *
+     * @param ids The IDs of the users.
+     * @return A list of {@link UserInfoDTO}, in no particular order, without the IDs that do not exist.
+     */
+    @Query("SELECT new se.jensen.grupp9.socialpostsapp.dto.UserInfoDTO(u.id, u.username) FROM User u WHERE u.id IN :ids")
+    List<UserInfoDTO> findInfosByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,228 @@
+package se.jensen.grupp9.socialpostsapp.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over post texts.
+ * <p>
+ * Every term maps to a {@link PostingList} of post IDs. A search walks the posting lists
+ * of the query terms in post ID order at the same time, scores each post with tf-idf
+ * (posts matching more and rarer terms rank higher) and keeps the best hits in a bounded heap.
+ * The index is built from the database when the application starts and is then kept up
+ * to date by PostService. Used by default, set {@code search.backend=postgres} to search
+ * in the database instead.
+ * </p>
+ * <p>
+ * Posts indexed or removed while a rebuild runs are newer than the batch the rebuild read
+ * them in, so the rebuild skips them instead of writing back old text or a deleted post.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "search.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPostSearchIndex implements PostSearchIndex {
+
+    /**
+     * Number of posts loaded per query when the index is built
+     */
+    static final int REBUILD_BATCH_SIZE = 1_000;
+
+    private final PostRepository postRepository;
+    private final AppLogger logger;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, String[]> termsByPost = new HashMap<>();
+    // IDs passed to index or remove during a rebuild, null when no rebuild runs
+    private Set<Long> changedDuringRebuild;
+
+    public InMemoryPostSearchIndex(PostRepository postRepository, AppLogger logger) {
+        this.postRepository = postRepository;
+        this.logger = logger;
+    }
+
+    /**
+     * Index all existing posts, in batches ordered by ID.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0;
+        int indexed = 0;
+        List<Post> batch;
+        try {
+            do {
+                batch = postRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                List<Map<String, Integer>> frequencies = batch.stream()
+                        .map(post -> Tokenizer.termFrequencies(post.getText()))
+                        .toList();
+                lock.writeLock().lock();
+                try {
+                    for (int i = 0; i < batch.size(); i++) {
+                        long postId = batch.get(i).getId();
+                        if (!changedDuringRebuild.contains(postId)) {
+                            indexLocked(postId, frequencies.get(i));
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+                indexed += batch.size();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Search index built with {} posts", indexed);
+    }
+
+    @Override
+    public void index(long postId, String text) {
+        Map<String, Integer> frequencies = Tokenizer.termFrequencies(text);
+        lock.writeLock().lock();
+        try {
+            markChanged(postId);
+            indexLocked(postId, frequencies);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long postId) {
+        lock.writeLock().lock();
+        try {
+            markChanged(postId);
+            removeLocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(String query, SearchCursor after, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            List<Double> weights = new ArrayList<>(terms.size());
+            int postCount = termsByPost.size();
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null) {
+                    lists.add(list);
+                    weights.add(Math.log(1.0 + (double) postCount / list.size()));
+                }
+            }
+            return topHits(lists, weights, after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merge the posting lists in post ID order and keep the best hits after the cursor.
+     */
+    private static List<SearchHit> topHits(List<PostingList> lists, List<Double> weights,
+                                           SearchCursor after, int limit) {
+        int listCount = lists.size();
+        int[] positions = new int[listCount];
+        // head is the worst of the hits kept so far
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(limit + 1, SearchHit.RANKING.reversed());
+
+        while (true) {
+            long postId = Long.MAX_VALUE;
+            for (int i = 0; i < listCount; i++) {
+                if (positions[i] < lists.get(i).size()) {
+                    postId = Math.min(postId, lists.get(i).postIdAt(positions[i]));
+                }
+            }
+            if (postId == Long.MAX_VALUE) {
+                break;
+            }
+
+            double score = 0;
+            for (int i = 0; i < listCount; i++) {
+                PostingList list = lists.get(i);
+                if (positions[i] < list.size() && list.postIdAt(positions[i]) == postId) {
+                    score += (1 + Math.log(list.frequencyAt(positions[i]))) * weights.get(i);
+                    positions[i]++;
+                }
+            }
+
+            SearchHit hit = new SearchHit(postId, score);
+            if (after == null || after.isBefore(hit)) {
+                best.offer(hit);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(best);
+        hits.sort(SearchHit.RANKING);
+        return hits;
+    }
+
+    private void markChanged(long postId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(postId);
+        }
+    }
+
+    private void indexLocked(long postId, Map<String, Integer> frequencies) {
+        removeLocked(postId);
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new PostingList()).put(postId, frequency));
+        termsByPost.put(postId, frequencies.keySet().toArray(new String[0]));
+    }
+
+    private void removeLocked(long postId) {
+        String[] terms = termsByPost.remove(postId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(postId);
+                if (list.size() == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
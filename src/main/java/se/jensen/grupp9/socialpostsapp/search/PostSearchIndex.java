@@ -0,0 +1,42 @@
+package se.jensen.grupp9.socialpostsapp.search;
+
+import java.util.List;
+
+/**
+ * Full-text index over post texts.
+ * <p>
+ * PostService keeps the index up to date when posts are created, updated and deleted.
+ * Search results are ranked by relevance (highest score first, newest post first on ties)
+ * and paginated with a {@link SearchCursor}.
+ * </p>
+ *
+ * @see InMemoryPostSearchIndex
+ * @see PostgresPostSearchIndex
+ */
+public interface PostSearchIndex {
+
+    /**
+     * Add a post to the index, or replace its text if it is already indexed.
+     *
+     * @param postId The post ID
+     * @param text   The post text
+     */
+    void index(long postId, String text);
+
+    /**
+     * Remove a post from the index.
+     *
+     * @param postId The post ID
+     */
+    void remove(long postId);
+
+    /**
+     * Search for posts matching any of the words in the query.
+     *
+     * @param query The search query
+     * @param after Position of the last hit on the previous page, or null for the first page
+     * @param limit Maximum number of hits to return
+     * @return Hits ranked after the cursor, best match first
+     */
+    List<SearchHit> search(String query, SearchCursor after, int limit);
+}
@@ -0,0 +1,89 @@
+package se.jensen.grupp9.socialpostsapp.search;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Full-text search in PostgreSQL with tsvector and a GIN index.
+ * <p>
+ * The database keeps the index up to date by itself, so {@link #index} and {@link #remove}
+ * do nothing. Results are ranked with ts_rank. Enabled with {@code search.backend=postgres}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "search.backend", havingValue = "postgres")
+public class PostgresPostSearchIndex implements PostSearchIndex {
+
+    private static final RowMapper<SearchHit> HIT_MAPPER =
+            (rs, rowNum) -> new SearchHit(rs.getLong("id"), rs.getDouble("score"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String textSearchConfig;
+
+    private final String firstPageSql;
+    private final String nextPageSql;
+
+    /**
+     * @param dataSource       The application DataSource
+     * @param textSearchConfig PostgreSQL text search configuration, e.g. simple, swedish or english
+     */
+    public PostgresPostSearchIndex(DataSource dataSource,
+                                   @Value("${search.postgres.config:simple}") String textSearchConfig) {
+        if (!textSearchConfig.matches("[a-z_]+")) {
+            throw new IllegalArgumentException("Invalid text search config: " + textSearchConfig);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.textSearchConfig = textSearchConfig;
+
+        String ranked = "SELECT id, score FROM (" +
+                "SELECT p.id, ts_rank(to_tsvector('" + textSearchConfig + "', p.text), q) AS score " +
+                "FROM post p, to_tsquery('" + textSearchConfig + "', ?) q " +
+                "WHERE to_tsvector('" + textSearchConfig + "', p.text) @@ q) ranked ";
+        this.firstPageSql = ranked +
+                "ORDER BY score DESC, id DESC LIMIT ?";
+        this.nextPageSql = ranked +
+                "WHERE score < ? OR (score = ? AND id < ?) " +
+                "ORDER BY score DESC, id DESC LIMIT ?";
+    }
+
+    /**
+     * Create the GIN expression index used by the search queries, without locking writes.
+     */
+    @PostConstruct
+    public void createIndex() {
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_post_text_fts " +
+                "ON post USING GIN (to_tsvector('" + textSearchConfig + "', text))");
+    }
+
+    @Override
+    public void index(long postId, String text) {
+        // maintained by PostgreSQL
+    }
+
+    @Override
+    public void remove(long postId) {
+        // maintained by PostgreSQL
+    }
+
+    @Override
+    public List<SearchHit> search(String query, SearchCursor after, int limit) {
+        // same tokenizer as the in-memory index, terms are OR:ed and ranked
+        String tsQuery = String.join(" | ", new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (tsQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (after == null) {
+            return jdbcTemplate.query(firstPageSql, HIT_MAPPER, tsQuery, limit);
+        }
+        return jdbcTemplate.query(nextPageSql, HIT_MAPPER,
+                tsQuery, after.score(), after.score(), after.postId(), limit);
+    }
+}
@@ -0,0 +1,70 @@
+package se.jensen.grupp9.socialpostsapp.search;
+
+import java.util.Arrays;
+
+/**
+ * The posts containing one term, as parallel primitive arrays sorted by post ID.
+ * <p>
+ * New posts have the highest IDs, so adding a post is normally an append.
+ * Not thread-safe, {@link InMemoryPostSearchIndex} guards it with its lock.
+ * </p>
+ */
+final class PostingList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] postIds = new long[INITIAL_CAPACITY];
+    private int[] frequencies = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Add a post, or update its term frequency if it is already in the list.
+     *
+     * @param postId    The post ID
+     * @param frequency How many times the term occurs in the post
+     */
+    void put(long postId, int frequency) {
+        int index = Arrays.binarySearch(postIds, 0, size, postId);
+        if (index >= 0) {
+            frequencies[index] = frequency;
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == postIds.length) {
+            postIds = Arrays.copyOf(postIds, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        System.arraycopy(postIds, insertAt, postIds, insertAt + 1, size - insertAt);
+        System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+        postIds[insertAt] = postId;
+        frequencies[insertAt] = frequency;
+        size++;
+    }
+
+    /**
+     * Remove a post from the list, if present.
+     *
+     * @param postId The post ID
+     */
+    void remove(long postId) {
+        int index = Arrays.binarySearch(postIds, 0, size, postId);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(postIds, index + 1, postIds, index, size - index - 1);
+        System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long postIdAt(int index) {
+        return postIds[index];
+    }
+
+    int frequencyAt(int index) {
+        return frequencies[index];
+    }
+}
@@ -0,0 +1,72 @@
+package se.jensen.grupp9.socialpostsapp.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a ranked search result used for cursor pagination.
+ * <p>
+ * The score is encoded with its exact bits, so the next page starts exactly
+ * after the last hit. Clients only see the encoded, opaque string form.
+ * </p>
+ *
+ * @param score  Score of the last seen hit
+ * @param postId Post ID of the last seen hit
+ */
+public record SearchCursor(double score, long postId) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creates a cursor pointing at the given hit
+     *
+     * @param hit The last hit on a page
+     * @return A SearchCursor for that hit
+     */
+    public static SearchCursor from(SearchHit hit) {
+        return new SearchCursor(hit.score(), hit.postId());
+    }
+
+    /**
+     * Check if a hit is ranked after this cursor (belongs to a later page)
+     *
+     * @param hit The hit to check
+     * @return true if the hit comes after the cursor position
+     */
+    public boolean isBefore(SearchHit hit) {
+        return SearchHit.RANKING.compare(new SearchHit(postId, score), hit) < 0;
+    }
+
+    /**
+     * Encodes the cursor as an URL-safe opaque string
+     *
+     * @return The encoded cursor
+     */
+    public String encode() {
+        String raw = Long.toHexString(Double.doubleToLongBits(score)) + SEPARATOR + postId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously created by {@link #encode()}
+     *
+     * @param cursor The encoded cursor
+     * @return The decoded SearchCursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new SearchCursor(
+                    Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, separator), 16)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
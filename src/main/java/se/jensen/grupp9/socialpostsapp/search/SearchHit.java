@@ -0,0 +1,19 @@
+package se.jensen.grupp9.socialpostsapp.search;
+
+import java.util.Comparator;
+
+/**
+ * A post matching a search query.
+ *
+ * @param postId The post ID
+ * @param score  The relevance score (higher is better)
+ */
+public record SearchHit(long postId, double score) {
+
+    /**
+     * Result order: highest score first, then highest (newest) post ID first
+     */
+    public static final Comparator<SearchHit> RANKING = Comparator
+            .comparingDouble(SearchHit::score).reversed()
+            .thenComparing(Comparator.comparingLong(SearchHit::postId).reversed());
+}
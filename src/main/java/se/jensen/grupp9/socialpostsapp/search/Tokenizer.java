@@ -0,0 +1,68 @@
+package se.jensen.grupp9.socialpostsapp.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits text into lower case search terms.
+ * <p>
+ * A term is a run of letters or digits (so "Hej, världen!" gives "hej" and "världen").
+ * Single characters are skipped and very long terms are cut.
+ * </p>
+ */
+final class Tokenizer {
+
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Split text into terms, in order and with duplicates.
+     *
+     * @param text The text to split
+     * @return List of terms
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                addTerm(terms, text, start, i);
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Count how many times each term occurs in the text.
+     *
+     * @param text The text to split
+     * @return Map of term to frequency, in order of first occurrence
+     */
+    static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String term : tokenize(text)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private static void addTerm(List<String> terms, String text, int start, int end) {
+        if (end - start < MIN_TERM_LENGTH) {
+            return;
+        }
+        terms.add(text.substring(start, Math.min(end, start + MAX_TERM_LENGTH)).toLowerCase(Locale.ROOT));
+    }
+}
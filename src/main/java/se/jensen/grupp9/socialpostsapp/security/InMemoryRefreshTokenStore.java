@@ -0,0 +1,167 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Minnesbaserad {@link RefreshTokenStore} med låsstripning.
+ * <p>
+ * Tokens ligger i ett fast antal delar (stripes), var och en med en egen HashMap och ett eget
+ * lås, så att rotationer av olika tokens inte väntar på varandra. Familjer ligger i en separat
+ * karta; att återkalla en familj är att sätta en flagga (O(1)), och alla tokens i familjen
+ * blir ogiltiga utan att behöva letas upp. Utgångna poster tas bort av {@link #sweepExpired}.
+ * </p>
+ * <p>
+ * Lagret delas inte mellan instanser och töms vid omstart, då måste användarna logga in igen.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.refresh-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    /**
+     * Antal delar, en tvåpotens så att index kan räknas ut med en mask
+     */
+    static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    @SuppressWarnings("unchecked")
+    private final Map<String, TokenEntry>[] tokens = new Map[STRIPES];
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    public InMemoryRefreshTokenStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            tokens[i] = new HashMap<>();
+        }
+    }
+
+    @Override
+    public void register(StoredRefreshToken token) {
+        Family family = families.compute(token.familyId(), (id, existing) -> {
+            Family current = existing != null ? existing : new Family();
+            current.extendTo(token.expiresAt());
+            return current;
+        });
+        int stripe = stripe(token.tokenId());
+        locks[stripe].lock();
+        try {
+            tokens[stripe].put(token.tokenId(), new TokenEntry(family, token.expiresAt()));
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public RotationResult rotate(String tokenId, StoredRefreshToken next) {
+        Instant now = Instant.now();
+        int stripe = stripe(tokenId);
+        TokenEntry entry;
+        locks[stripe].lock();
+        try {
+            entry = tokens[stripe].get(tokenId);
+            if (entry == null || entry.family.revoked || !entry.expiresAt.isAfter(now)) {
+                return RotationResult.INVALID;
+            }
+            if (entry.used) {
+                entry.family.revoked = true;
+                return RotationResult.REUSE_DETECTED;
+            }
+            entry.used = true;
+        } finally {
+            locks[stripe].unlock();
+        }
+        register(next);
+        return RotationResult.ROTATED;
+    }
+
+    @Override
+    public void revokeFamily(String familyId) {
+        Family family = families.get(familyId);
+        if (family != null) {
+            family.revoked = true;
+        }
+    }
+
+    @Override
+    public int sweepExpired(Instant now) {
+        int removed = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            locks[stripe].lock();
+            try {
+                Iterator<TokenEntry> entries = tokens[stripe].values().iterator();
+                while (entries.hasNext()) {
+                    if (!entries.next().expiresAt.isAfter(now)) {
+                        entries.remove();
+                        removed++;
+                    }
+                }
+            } finally {
+                locks[stripe].unlock();
+            }
+        }
+        families.values().removeIf(family -> !family.expiresAt().isAfter(now));
+        return removed;
+    }
+
+    /**
+     * @return antal tokens i lagret, även använda och utgångna som inte har sopats bort.
+     */
+    public int size() {
+        int size = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            locks[stripe].lock();
+            try {
+                size += tokens[stripe].size();
+            } finally {
+                locks[stripe].unlock();
+            }
+        }
+        return size;
+    }
+
+    private static int stripe(String tokenId) {
+        int hash = tokenId.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * En token i lagret, ändras bara under låset för sin del
+     */
+    private static final class TokenEntry {
+        private final Family family;
+        private final Instant expiresAt;
+        private boolean used;
+
+        private TokenEntry(Family family, Instant expiresAt) {
+            this.family = family;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * En tokenfamilj, lever tills den sista token i familjen har gått ut
+     */
+    private static final class Family {
+        private volatile boolean revoked;
+        private volatile Instant expiresAt = Instant.EPOCH;
+
+        private void extendTo(Instant tokenExpiresAt) {
+            if (tokenExpiresAt.isAfter(expiresAt)) {
+                expiresAt = tokenExpiresAt;
+            }
+        }
+
+        private Instant expiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package se.jensen.grupp9.socialpostsapp.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,6 +15,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * {@link JwtAuthenticationFilter} är ett Spring Security-filter som körs en gång per HTTP-förfrågan.
@@ -24,14 +29,28 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final Set<String> operators;
 
     /**
-     * Skapar en ny instans av {@link JwtAuthenticationFilter}.
+     * Skapar en ny instans av {@link JwtAuthenticationFilter} utan operatörer.
      *
      * @param jwtUtil hjälpbibliotek för hantering av JWT-token, t.ex. validering och extrahering av användarnamn.
      */
     public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+        this(jwtUtil, Set.of());
+    }
+
+    /**
+     * Skapar en ny instans av {@link JwtAuthenticationFilter}.
+     *
+     * @param jwtUtil   hjälpbibliotek för hantering av JWT-token, t.ex. validering och extrahering av användarnamn.
+     * @param operators användarnamn som får rollen OPERATOR och når /internal/**, tom som standard.
+     */
+    @Autowired
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   @Value("${security.operators:}") Set<String> operators) {
         this.jwtUtil = jwtUtil;
+        this.operators = Set.copyOf(operators);
     }
 
     /**
@@ -41,8 +60,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * <ol>
      *     <li>Hämta Authorization-headern från HTTP-förfrågan.</li>
      *     <li>Kontrollera om headern börjar med "Bearer ".</li>
-     *     <li>Validera JWT-token med {@link JwtUtil}.</li>
-     *     <li>Om token är giltig, extrahera användarnamnet och skapa ett {@link UsernamePasswordAuthenticationToken}.</li>
+     *     <li>Verifiera JWT-token och hämta dess claims med ett enda anrop till {@link JwtUtil#parseClaims(String)}.</li>
+     *     <li>Refresh-tokens godtas inte som access-tokens.</li>
+     *     <li>Om token är giltig, ta användarnamnet från claims och skapa ett {@link UsernamePasswordAuthenticationToken}.</li>
+     *     <li>Användare i security.operators får även rollen OPERATOR.</li>
      *     <li>Sätt autentisering i {@link SecurityContextHolder}.</li>
      *     <li>Fortsätt filterkedjan med {@link FilterChain#doFilter(HttpServletRequest, HttpServletResponse)}.</li>
      * </ol>
@@ -63,15 +84,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            if (jwtUtil.validateToken(token)) {
-                String username = jwtUtil.getUsernameFromToken(token);
+            Optional<Claims> claims = jwtUtil.parseClaims(token)
+                    .filter(verified -> !JwtUtil.isRefreshToken(verified));
+            if (claims.isPresent()) {
+                String username = claims.get().getSubject();
+                List<SimpleGrantedAuthority> authorities = operators.contains(username)
+                        ? List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_OPERATOR"))
+                        : List.of(new SimpleGrantedAuthority("ROLE_USER")); // default authority
 
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                username,
-                                null,
-                                List.of(new SimpleGrantedAuthority("ROLE_USER")) // default authority
-                        );
+                        new UsernamePasswordAuthenticationToken(username, null, authorities);
 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
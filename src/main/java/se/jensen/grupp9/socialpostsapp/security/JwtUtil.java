@@ -1,12 +1,27 @@
 package se.jensen.grupp9.socialpostsapp.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@link JwtUtil} är en hjälparklass för hantering av JSON Web Tokens (JWT).
@@ -14,10 +29,30 @@ import java.util.Date;
  * Den används för att generera, validera och extrahera information från JWT, såsom användarnamn.
  * Den stöder både vanliga access-tokens och refresh-tokens.
  * </p>
+ * <p>
+ * Signeringsnyckeln och parsern byggs en gång vid start. Verifierade tokens cachas med
+ * SHA-256-hashen av token som nyckel (själva token sparas inte) tills token går ut,
+ * så att samma token inte behöver verifieras och parsas om vid varje förfrågan.
+ * </p>
  */
 @Component
 public class JwtUtil {
 
+    /**
+     * Claim med tokens typ, sätts bara på refresh-tokens
+     */
+    public static final String TYPE_CLAIM = "typ";
+
+    /**
+     * Värdet på {@link #TYPE_CLAIM} för refresh-tokens
+     */
+    public static final String REFRESH_TYPE = "refresh";
+
+    /**
+     * Claim med ID för den familj som en refresh-token tillhör
+     */
+    public static final String FAMILY_CLAIM = "fam";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -27,6 +62,45 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration-ms}")
     private long refreshExpirationMs;
 
+    @Value("${jwt.cache.max-entries:10000}")
+    private long cacheMaxEntries;
+
+    private Key signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+
+    /**
+     * Bygger signeringsnyckeln, parsern och cachen för verifierade tokens.
+     * <p>
+     * Hemligheten är BASE64-kodad, precis som när den tidigare skickades som sträng till jjwt.
+     * Cacheposter lever till token går ut ({@code exp}).
+     * </p>
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), SignatureAlgorithm.HS256.getJcaName());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        return timeToExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return timeToExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     /**
      * Genererar en ny JWT access-token för en given användare.
      *
@@ -38,25 +112,49 @@ public class JwtUtil {
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS256, jwtSecret)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Genererar en ny JWT refresh-token för en given användare.
+     * Genererar en signerad JWT refresh-token för en token som är registrerad i {@link RefreshTokenStore}.
+     * <p>
+     * Token får ID:t som {@code jti}, familjen som {@value #FAMILY_CLAIM} och typen
+     * {@value #REFRESH_TYPE}, så att den inte kan användas som access-token.
+     * </p>
      *
-     * @param username användarnamnet som token ska representera.
+     * @param token den lagrade token som ska signeras.
      * @return en signerad JWT refresh-token som sträng.
      */
-    public String generateRefreshToken(String username) {
+    public String generateRefreshToken(StoredRefreshToken token) {
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(token.username())
+                .setId(token.tokenId())
+                .claim(FAMILY_CLAIM, token.familyId())
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + refreshExpirationMs))
-                .signWith(SignatureAlgorithm.HS256, jwtSecret)
+                .setExpiration(Date.from(token.expiresAt()))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * @return hur länge en refresh-token är giltig, i millisekunder.
+     */
+    public long getRefreshExpirationMs() {
+        return refreshExpirationMs;
+    }
+
+    /**
+     * Kontrollerar om verifierade claims tillhör en refresh-token.
+     *
+     * @param claims verifierade claims.
+     * @return {@code true} om token är en refresh-token.
+     */
+    public static boolean isRefreshToken(Claims claims) {
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class));
+    }
+
     /**
      * Validerar en JWT-token.
      * <p>
@@ -67,12 +165,39 @@ public class JwtUtil {
      * @return {@code true} om token är giltig, annars {@code false}.
      */
     public boolean validateToken(String token) {
+        return parseClaims(token).isPresent();
+    }
+
+    /**
+     * Verifierar en JWT-token och returnerar dess claims, med en enda parsning.
+     * <p>
+     * En token som redan har verifierats hämtas från cachen. Annars kontrolleras signatur
+     * och utgångstid, och giltiga tokens läggs i cachen tills de går ut.
+     * </p>
+     *
+     * @param token JWT-token som ska verifieras.
+     * @return verifierade claims, eller tom om token är ogiltig eller har gått ut.
+     */
+    public Optional<Claims> parseClaims(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Claims claims;
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
-            return true;
+            claims = parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
+        }
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
         }
+        return Optional.of(claims);
     }
 
     /**
@@ -82,10 +207,22 @@ public class JwtUtil {
      * @return användarnamnet (subject) från token.
      */
     public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
+    }
+
+    private static long timeToExpiry(Claims claims) {
+        long millis = claims.getExpiration().getTime() - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
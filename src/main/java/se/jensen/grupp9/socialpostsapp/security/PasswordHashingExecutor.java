@@ -0,0 +1,82 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.exception.ServiceOverloadedException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link PasswordHashingExecutor} kör BCrypt-arbete (verifiering och omhashning av lösenord)
+ * på en egen, begränsad trådpool.
+ * <p>
+ * BCrypt är medvetet långsamt. Om det körs på Tomcats trådar kan en våg av inloggningar
+ * ta alla trådar och all CPU från övriga endpoints. Poolen har ett fast antal trådar och en
+ * begränsad kö; när kön är full avvisas uppgiften direkt med
+ * {@link ServiceOverloadedException} (503) i stället för att vänta.
+ * </p>
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Skapar trådpoolen.
+     *
+     * @param threads       antal trådar, 0 betyder hälften av processorerna (minst en).
+     * @param queueCapacity max antal uppgifter som får vänta i kön.
+     */
+    public PasswordHashingExecutor(@Value("${security.bcrypt.threads:0}") int threads,
+                                   @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("bcrypt-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Kör en uppgift på trådpoolen.
+     *
+     * @param task uppgiften som ska köras.
+     * @param <T>  resultattypen.
+     * @return en {@link CompletableFuture} som blir klar när uppgiften har körts.
+     * @throws ServiceOverloadedException om alla trådar är upptagna och kön är full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Too many login attempts in progress, try again later");
+        }
+    }
+
+    /**
+     * @return antal uppgifter som väntar i kön.
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return antal trådar som kör en uppgift just nu.
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
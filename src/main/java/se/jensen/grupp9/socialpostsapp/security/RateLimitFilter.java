@@ -0,0 +1,127 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimitFilter} begränsar hur ofta en klient får logga in och skapa inlägg och kommentarer.
+ * <p>
+ * Filtret körs direkt efter {@link JwtAuthenticationFilter}. Inloggning begränsas per klient-IP,
+ * inlägg och kommentarer per inloggad användare (eller per IP om förfrågan saknar token).
+ * En batch med inlägg ({@code /posts/batch}) tar en token ur samma bucket som ett enskilt inlägg.
+ * Varje regel har en egen {@link RateLimiter} med gränser från konfigurationen. När gränsen
+ * är nådd svarar filtret 429 (Too Many Requests) med en Retry-After-header i sekunder.
+ * </p>
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Rule> rules;
+
+    /**
+     * Skapar filtret med en limiter per regel.
+     *
+     * @param loginCapacity      antal inloggningsförsök i följd per IP.
+     * @param loginPerMinute     påfyllnad av inloggningsförsök per minut.
+     * @param postsCapacity      antal nya inlägg i följd per användare.
+     * @param postsPerMinute     påfyllnad av nya inlägg per minut.
+     * @param commentsCapacity   antal nya kommentarer i följd per användare.
+     * @param commentsPerMinute  påfyllnad av nya kommentarer per minut.
+     * @param maxKeys            max antal nycklar som varje limiter håller i minnet.
+     */
+    public RateLimitFilter(@Value("${rate-limit.login.capacity:10}") int loginCapacity,
+                           @Value("${rate-limit.login.per-minute:10}") int loginPerMinute,
+                           @Value("${rate-limit.posts.capacity:20}") int postsCapacity,
+                           @Value("${rate-limit.posts.per-minute:20}") int postsPerMinute,
+                           @Value("${rate-limit.comments.capacity:30}") int commentsCapacity,
+                           @Value("${rate-limit.comments.per-minute:30}") int commentsPerMinute,
+                           @Value("${rate-limit.max-keys:100000}") long maxKeys) {
+        this.rules = List.of(
+                new Rule(List.of("/users/login"), false,
+                        new RateLimiter(loginCapacity, loginPerMinute, maxKeys)),
+                new Rule(List.of("/posts", "/posts/batch", "/users/*/posts"), true,
+                        new RateLimiter(postsCapacity, postsPerMinute, maxKeys)),
+                new Rule(List.of("/posts/*/comments"), true,
+                        new RateLimiter(commentsCapacity, commentsPerMinute, maxKeys)));
+    }
+
+    /**
+     * Släpper igenom förfrågan om den inte omfattas av en regel eller om det finns en token kvar,
+     * annars svarar filtret 429.
+     *
+     * @param request     HTTP-förfrågan.
+     * @param response    HTTP-svar.
+     * @param filterChain filterkedjan som ska fortsätta exekveras.
+     * @throws ServletException om ett servlet-relaterat fel inträffar.
+     * @throws IOException      om ett I/O-fel inträffar.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Rule rule = "POST".equals(request.getMethod()) ? findRule(request.getServletPath()) : null;
+        if (rule != null) {
+            long waitNanos = rule.limiter.tryAcquire(key(rule, request));
+            if (waitNanos > 0) {
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+                response.setContentType("text/plain");
+                response.getWriter().write("Too many requests, try again later");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Tar bort oanvända buckets så att minnet inte växer med antalet klienter som har passerat.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        rules.forEach(rule -> rule.limiter.evictIdle());
+    }
+
+    private Rule findRule(String path) {
+        for (Rule rule : rules) {
+            for (String pattern : rule.patterns) {
+                if (pathMatcher.match(pattern, path)) {
+                    return rule;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String key(Rule rule, HttpServletRequest request) {
+        if (rule.perUser) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "user:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private record Rule(List<String> patterns, boolean perUser, RateLimiter limiter) {}
+}
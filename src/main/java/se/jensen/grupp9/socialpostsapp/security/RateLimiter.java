@@ -0,0 +1,92 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RateLimiter} är en token bucket per nyckel (användare eller klient-IP) utan lås.
+ * <p>
+ * Varje bucket lagras som en enda {@link AtomicLong} med tidpunkten då bucketen är full
+ * igen (GCRA, "theoretical arrival time"). En förfrågan flyttar fram tidpunkten med ett
+ * intervall via compare-and-set och godkänns om den inte hamnar mer än {@code capacity}
+ * intervall fram i tiden, så ingen tråd behöver vänta på ett lås.
+ * </p>
+ * <p>
+ * Buckets ligger i en Caffeine-cache som glömmer en nyckel när den inte har använts på
+ * {@code capacity} intervall. Då är bucketen ändå full igen, så inget går förlorat.
+ * Cachen har dessutom ett tak för antalet nycklar så att minnet håller sig begränsat.
+ * </p>
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Ticker ticker;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * Skapar en limiter med systemets klocka.
+     *
+     * @param capacity  antal förfrågningar som får göras i följd (bucketens storlek).
+     * @param perMinute hur många förfrågningar per minut som fylls på.
+     * @param maxKeys   max antal nycklar som hålls i minnet.
+     */
+    public RateLimiter(int capacity, int perMinute, long maxKeys) {
+        this(capacity, perMinute, maxKeys, Ticker.systemTicker());
+    }
+
+    RateLimiter(int capacity, int perMinute, long maxKeys, Ticker ticker) {
+        if (capacity < 1 || perMinute < 1) {
+            throw new IllegalArgumentException("capacity and perMinute must be positive");
+        }
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        this.toleranceNanos = intervalNanos * capacity;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Försöker ta en token ur bucketen för en nyckel.
+     *
+     * @param key användaren eller klient-IP:n.
+     * @return 0 om förfrågan godkändes, annars antal nanosekunder tills nästa token finns.
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = ticker.read();
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > toleranceNanos) {
+                return ahead - toleranceNanos;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return ungefärligt antal nycklar i minnet.
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * Tar bort buckets som har varit oanvända tills de är fulla igen.
+     */
+    public void evictIdle() {
+        buckets.cleanUp();
+    }
+}
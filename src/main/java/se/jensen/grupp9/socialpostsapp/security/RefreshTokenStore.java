@@ -0,0 +1,61 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import java.time.Instant;
+
+/**
+ * Lagrar utfärdade refresh-tokens, nycklade på token-ID (jti), för rotation och återkallelse.
+ * <p>
+ * Varje inloggning startar en ny familj. Vid varje förnyelse markeras den gamla token som
+ * använd och en ny token i samma familj registreras. Om en redan använd token visas igen
+ * har den läckt, och hela familjen återkallas.
+ * </p>
+ * <p>
+ * Gränssnittet är skrivet så att både en minnesbaserad och en JDBC-baserad implementation
+ * kan uppfylla det: {@link #rotate} motsvarar en villkorad UPDATE på en rad.
+ * </p>
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Resultatet av en rotation.
+     */
+    enum RotationResult {
+        /** Token var aktiv, den är nu använd och efterföljaren är registrerad. */
+        ROTATED,
+        /** Token var redan använd, familjen har återkallats. */
+        REUSE_DETECTED,
+        /** Token är okänd, utgången eller tillhör en återkallad familj. */
+        INVALID
+    }
+
+    /**
+     * Registrerar en nyutfärdad refresh-token.
+     *
+     * @param token token som ska registreras.
+     */
+    void register(StoredRefreshToken token);
+
+    /**
+     * Byter atomärt ut en aktiv token mot dess efterföljare i samma familj.
+     *
+     * @param tokenId ID för token som förnyas.
+     * @param next    efterföljaren som registreras om rotationen lyckas.
+     * @return resultatet av rotationen.
+     */
+    RotationResult rotate(String tokenId, StoredRefreshToken next);
+
+    /**
+     * Återkallar alla tokens i en familj.
+     *
+     * @param familyId familjens ID.
+     */
+    void revokeFamily(String familyId);
+
+    /**
+     * Tar bort tokens och familjer som har gått ut.
+     *
+     * @param now aktuell tid.
+     * @return antal borttagna tokens.
+     */
+    int sweepExpired(Instant now);
+}
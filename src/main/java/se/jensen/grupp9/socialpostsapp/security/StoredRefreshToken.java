@@ -0,0 +1,18 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import java.time.Instant;
+
+/**
+ * En utfärdad refresh-token som den lagras i {@link RefreshTokenStore}.
+ *
+ * @param tokenId   tokens ID (jti).
+ * @param familyId  ID för familjen som token tillhör, samma för alla rotationer från en inloggning.
+ * @param username  användaren som token är utfärdad till.
+ * @param expiresAt när token går ut.
+ */
+public record StoredRefreshToken(
+        String tokenId,
+        String familyId,
+        String username,
+        Instant expiresAt
+) {}
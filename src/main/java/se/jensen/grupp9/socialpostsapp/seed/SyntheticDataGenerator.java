@@ -0,0 +1,243 @@
+package se.jensen.grupp9.socialpostsapp.seed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+import se.jensen.grupp9.socialpostsapp.repository.IdSequenceInitializer;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk-loads synthetic users, posts and comments for load tests.
+ * <p>
+ * Runs once at startup when {@code app.seed.enabled=true}, before the search index is built.
+ * The data is skewed like a real social network:
+ * </p>
+ * <ul>
+ *     <li>Authors are Zipf distributed, a few users write most of the posts and comments.</li>
+ *     <li>Comments fan in on a Zipf distributed set of posts, most posts get none or a few
+ *     and some get thousands. They arrive in a burst right after the post is published
+ *     (exponential delay, mean {@code app.seed.comment-burst-minutes}).</li>
+ *     <li>Posts are spread evenly over the last {@code app.seed.days} days.</li>
+ * </ul>
+ * <p>
+ * The same random seed always gives the same data. Rows are written with JDBC batches in
+ * one transaction per batch, with IDs following the existing rows, and the ID sequences
+ * are moved past them at the end. Users are named {@code seed<id>} and all have the
+ * password {@code app.seed.password}, so the load driver can log in as any of them.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.seed.enabled", havingValue = "true")
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final String[] WORDS = {
+            "coffee", "morning", "weekend", "project", "java", "spring", "music", "concert", "travel",
+            "stockholm", "summer", "winter", "coding", "holiday", "football", "dinner", "friends",
+            "movie", "book", "running", "bike", "city", "forest", "lake", "snow", "rain", "sun",
+            "today", "tomorrow", "finally", "great", "new", "old", "best", "worst", "happy", "tired",
+            "work", "school", "exam", "release", "bug", "deploy", "database", "cloud", "team",
+            "family", "dog", "cat", "photo", "recipe", "pizza", "train", "late", "early", "again"
+    };
+
+    private static final String INSERT_USER =
+            "INSERT INTO app_user (id, username, email, password, bio) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_POST =
+            "INSERT INTO post (id, text, created_at, updated_at, user_id, comment_count) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_COMMENT =
+            "INSERT INTO comment (id, text, created_at, post_id, user_id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final int PROGRESS_INTERVAL = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final AppLogger logger;
+
+    private final int users;
+    private final int posts;
+    private final long comments;
+    private final long randomSeed;
+    private final double zipfExponent;
+    private final int days;
+    private final int commentBurstMinutes;
+    private final String password;
+    private final int batchSize;
+
+    public SyntheticDataGenerator(DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  PasswordEncoder passwordEncoder,
+                                  AppLogger logger,
+                                  @Value("${app.seed.users:100000}") int users,
+                                  @Value("${app.seed.posts:1000000}") int posts,
+                                  @Value("${app.seed.comments:3000000}") long comments,
+                                  @Value("${app.seed.random-seed:42}") long randomSeed,
+                                  @Value("${app.seed.zipf-exponent:1.1}") double zipfExponent,
+                                  @Value("${app.seed.days:90}") int days,
+                                  @Value("${app.seed.comment-burst-minutes:30}") int commentBurstMinutes,
+                                  @Value("${app.seed.password:password123}") String password,
+                                  @Value("${app.seed.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.logger = logger;
+        this.users = users;
+        this.posts = posts;
+        this.comments = comments;
+        this.randomSeed = randomSeed;
+        this.zipfExponent = zipfExponent;
+        this.days = days;
+        this.commentBurstMinutes = commentBurstMinutes;
+        this.password = password;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        logger.info("Seeding {} users, {} posts and about {} comments", users, posts, comments);
+
+        long firstUserId = nextId("app_user");
+        insertUsers(firstUserId);
+
+        // popularity ranks are shuffled so the most active users and the most commented
+        // posts are spread over the ID range instead of being the first rows
+        int[] userByRank = shuffledRange(users, random);
+        ZipfSampler authors = new ZipfSampler(users, zipfExponent);
+        insertPostsAndComments(firstUserId, userByRank, authors, random);
+
+        restartSequence("app_user_seq", "app_user");
+        restartSequence("post_seq", "post");
+        restartSequence("comment_seq", "comment");
+        logger.info("Seeding finished in {} s", Duration.ofNanos(System.nanoTime() - start).toSeconds());
+    }
+
+    private void insertUsers(long firstUserId) {
+        // hashing is deliberately slow, every user gets the same hash
+        String hash = passwordEncoder.encode(password);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < users; i++) {
+            long id = firstUserId + i;
+            batch.add(new Object[]{id, "seed" + id, "seed" + id + "@example.com", hash, "Synthetic user " + id});
+            if (batch.size() == batchSize) {
+                write(INSERT_USER, batch);
+            }
+            progress("users", i + 1);
+        }
+        write(INSERT_USER, batch);
+    }
+
+    private void insertPostsAndComments(long firstUserId, int[] userByRank, ZipfSampler authors,
+                                        SplittableRandom random) {
+        long firstPostId = nextId("post");
+        long commentId = nextId("comment");
+        int[] postRanks = shuffledRange(posts, random);
+        ZipfSampler postPopularity = new ZipfSampler(posts, zipfExponent);
+
+        LocalDateTime now = LocalDateTime.now();
+        long spanSeconds = Duration.ofDays(days).toSeconds();
+        LocalDateTime first = now.minusSeconds(spanSeconds);
+
+        List<Object[]> postBatch = new ArrayList<>(batchSize);
+        List<Object[]> commentBatch = new ArrayList<>(batchSize);
+        long commentsWritten = 0;
+        for (int i = 0; i < posts; i++) {
+            long postId = firstPostId + i;
+            LocalDateTime createdAt = first.plusSeconds(spanSeconds * i / posts);
+            long authorId = firstUserId + userByRank[authors.sample(random)];
+
+            double expected = comments * postPopularity.probability(postRanks[i]);
+            long commentCount = (long) expected + (random.nextDouble() < expected % 1 ? 1 : 0);
+
+            Timestamp created = Timestamp.valueOf(createdAt);
+            postBatch.add(new Object[]{postId, text(random, 8, 30), created, created, authorId, commentCount});
+            for (long c = 0; c < commentCount; c++) {
+                long delaySeconds = (long) (-Math.log(1 - random.nextDouble()) * commentBurstMinutes * 60);
+                LocalDateTime commentedAt = createdAt.plusSeconds(delaySeconds);
+                if (commentedAt.isAfter(now)) {
+                    commentedAt = now;
+                }
+                long commenterId = firstUserId + userByRank[authors.sample(random)];
+                commentBatch.add(new Object[]{commentId++, text(random, 2, 12),
+                        Timestamp.valueOf(commentedAt), postId, commenterId});
+                if (commentBatch.size() == batchSize) {
+                    // the posts must exist before their comments
+                    write(INSERT_POST, postBatch);
+                    write(INSERT_COMMENT, commentBatch);
+                }
+                progress("comments", ++commentsWritten);
+            }
+            if (postBatch.size() == batchSize) {
+                write(INSERT_POST, postBatch);
+            }
+            progress("posts", i + 1);
+        }
+        write(INSERT_POST, postBatch);
+        write(INSERT_COMMENT, commentBatch);
+        logger.info("Seeded {} comments", commentsWritten);
+    }
+
+    private void write(String sql, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+        batch.clear();
+    }
+
+    private long nextId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max + 1;
+    }
+
+    private void restartSequence(String sequence, String table) {
+        long restart = nextId(table) + IdSequenceInitializer.ALLOCATION_SIZE;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+    }
+
+    private void progress(String rows, long count) {
+        if (count % PROGRESS_INTERVAL == 0) {
+            logger.info("Seeded {} {}", count, rows);
+        }
+    }
+
+    private static String text(SplittableRandom random, int minWords, int maxWords) {
+        int words = random.nextInt(minWords, maxWords + 1);
+        StringBuilder text = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static int[] shuffledRange(int n, SplittableRandom random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,65 @@
+package se.jensen.grupp9.socialpostsapp.seed;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws ranks 0..n-1 where rank k is picked with probability proportional to 1 / (k + 1)^s.
+ * <p>
+ * Rank 0 is the most popular item. With s around 1 a small share of the items gets most of
+ * the picks, like authors on a social network. Sampling is a binary search in a precomputed
+ * cumulative table, so it costs O(log n) and n doubles of memory.
+ * </p>
+ */
+public class ZipfSampler {
+
+    private final double[] cumulative;
+
+    /**
+     * @param n        Number of items
+     * @param exponent The skew s, 0 gives a uniform distribution
+     */
+    public ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += weight(k, exponent);
+            cumulative[k] = sum;
+        }
+    }
+
+    /**
+     * Draw a rank
+     *
+     * @param random Source of randomness
+     * @return A rank between 0 and n-1
+     */
+    public int sample(RandomGenerator random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, target);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * @param rank A rank between 0 and n-1
+     * @return Probability of drawing that rank
+     */
+    public double probability(int rank) {
+        double previous = rank == 0 ? 0 : cumulative[rank - 1];
+        return (cumulative[rank] - previous) / cumulative[cumulative.length - 1];
+    }
+
+    /**
+     * @return Number of items
+     */
+    public int size() {
+        return cumulative.length;
+    }
+
+    private static double weight(int rank, double exponent) {
+        return 1.0 / Math.pow(rank + 1, exponent);
+    }
+}
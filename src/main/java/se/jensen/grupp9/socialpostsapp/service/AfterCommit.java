@@ -0,0 +1,33 @@
+package se.jensen.grupp9.socialpostsapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs work that must only see committed data, such as evicting a cache entry or
+ * updating the search index, once the current transaction has committed.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Run an action after the current transaction commits, or right away outside a transaction.
+     * The action does not run if the transaction rolls back.
+     *
+     * @param action The work to run
+     */
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
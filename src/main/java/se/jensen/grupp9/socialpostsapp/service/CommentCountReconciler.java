@@ -0,0 +1,68 @@
+package se.jensen.grupp9.socialpostsapp.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
+
+/**
+ * Background job that repairs drift in the denormalized comment counters on posts.
+ * <p>
+ * The counters are updated atomically on every comment write, but can still drift
+ * (for example after manual database changes or cascading deletes). The job looks for
+ * drifted counters in ID ranges, then repairs each post in its own short transaction that
+ * locks the post row and recounts, so it cannot overwrite a concurrent comment write.
+ * </p>
+ */
+@Component
+public class CommentCountReconciler {
+
+    /**
+     * Number of post IDs checked per transaction
+     */
+    static final long BATCH_SIZE = 10_000;
+
+    private final PostRepository postRepository;
+    private final AppLogger logger;
+    private final TransactionTemplate transaction;
+
+    public CommentCountReconciler(PostRepository postRepository, AppLogger logger,
+                                  PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.logger = logger;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Recount the comments of all posts and fix the counters that differ.
+     *
+     * @return Number of repaired posts
+     */
+    @Scheduled(initialDelayString = "${posts.comment-count.reconcile-initial-delay-ms:600000}",
+            fixedDelayString = "${posts.comment-count.reconcile-interval-ms:3600000}")
+    public int reconcile() {
+        long maxId = postRepository.findMaxId();
+        int repaired = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += BATCH_SIZE) {
+            for (long postId : postRepository.findIdsWithDriftedCommentCount(fromId, fromId + BATCH_SIZE - 1)) {
+                repaired += repair(postId);
+            }
+        }
+
+        if (repaired > 0) {
+            logger.warn("Repaired comment count on {} posts", repaired);
+        } else {
+            logger.info("Comment counts are consistent");
+        }
+        return repaired;
+    }
+
+    private int repair(long postId) {
+        Integer repaired = transaction.execute(status -> postRepository.lockById(postId).isPresent()
+                ? postRepository.repairCommentCount(postId)
+                : 0);
+        return repaired == null ? 0 : repaired;
+    }
+}
@@ -2,8 +2,14 @@ package se.jensen.grupp9.socialpostsapp.service;
 
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.jensen.grupp9.socialpostsapp.cache.PostCache;
+import se.jensen.grupp9.socialpostsapp.cache.RequestCoalescer;
 import se.jensen.grupp9.socialpostsapp.dto.CommentRequestDTO;
 import se.jensen.grupp9.socialpostsapp.dto.CommentResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.CommentView;
 import se.jensen.grupp9.socialpostsapp.dto.DTOMapper;
 import se.jensen.grupp9.socialpostsapp.exception.CommentNotFoundException;
 import se.jensen.grupp9.socialpostsapp.exception.PostNotFoundException;
@@ -13,6 +19,7 @@ import se.jensen.grupp9.socialpostsapp.model.User;
 import se.jensen.grupp9.socialpostsapp.repository.CommentRepository;
 import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
 import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+import se.jensen.grupp9.socialpostsapp.trending.TrendingPosts;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,24 +37,43 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final PostCache postCache;
+    private final TrendingPosts trendingPosts;
+    private final RequestCoalescer<Long, List<CommentResponseDTO>> commentLoads = new RequestCoalescer<>();
+    private final TransactionTemplate readOnlyTransaction;
 
-    public CommentService(CommentRepository commentRepository, PostRepository postRepository, UserRepository userRepository) {
+    public CommentService(CommentRepository commentRepository, PostRepository postRepository,
+                          UserRepository userRepository, PostCache postCache,
+                          TrendingPosts trendingPosts, PlatformTransactionManager transactionManager) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.postCache = postCache;
+        this.trendingPosts = trendingPosts;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     /**
-     * Get all comments for a specific post
+     * Get all comments for a specific post.
+     * Concurrent requests for the same post share one database query.
      *
      * @param postId The  ID of the post
      * @return List of CommentRepsonseDTOs
      */
     public List<CommentResponseDTO> getAllCommentsByPostId(Long postId) {
-        return commentRepository.findByPostIdOrderByCreatedAtAsc(postId)
+        return commentLoads.load(postId, this::loadComments);
+    }
+
+    /**
+     * Only the caller that runs the load opens a transaction, the callers waiting for
+     * its result do not hold a connection.
+     */
+    private List<CommentResponseDTO> loadComments(Long postId) {
+        return readOnlyTransaction.execute(status -> commentRepository.findViewsByPostId(postId)
                 .stream()
                 .map(DTOMapper::toCommentResponseDTO)
-                .toList();
+                .toList());
     }
 
     /**
@@ -56,19 +82,22 @@ public class CommentService {
      * @param id The comments id
      * @return CommentRepsonseDTO
      */
+    @Transactional(readOnly = true)
     public CommentResponseDTO getCommentById(Long id) {
-        Comment comment = commentRepository.findById(id)
+        CommentView comment = commentRepository.findViewById(id)
                 .orElseThrow(()-> new CommentNotFoundException("Comment not found with id:" + id));
         return DTOMapper.toCommentResponseDTO(comment);
     }
 
     /**
-     * Create a new comment
+     * Create a new comment, increase the comment count of the post,
+     * evict the post from the post cache after the commit and count the comment for the trending posts
      *
      * @param postId The id of the post the comment will belong to
      * @param dto The CommentRequestDTO
      * @return Created CommentResponseDTO
      */
+    @Transactional
     public CommentResponseDTO createComment(Long postId, Long userId, CommentRequestDTO dto) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(()-> new PostNotFoundException("Post not found with id:" + postId));
@@ -79,6 +108,9 @@ public class CommentService {
         comment.setPost(post);
         comment.setUser(user);
         commentRepository.save(comment);
+        postRepository.adjustCommentCount(postId, 1);
+        AfterCommit.run(() -> postCache.invalidate(postId));
+        trendingPosts.recordComment(postId);
         return DTOMapper.toCommentResponseDTO(comment);
     }
 
@@ -89,6 +121,7 @@ public class CommentService {
      * @param dto The CommentRequestDTO with updated values
      * @return Updated CommentResponseDTO
      */
+    @Transactional
     public CommentResponseDTO updateComment(Long id, CommentRequestDTO dto) {
         Comment comment = commentRepository.findById(id)
                 .orElseThrow(()-> new CommentNotFoundException("Comment not found with id:" + id));
@@ -98,13 +131,18 @@ public class CommentService {
     }
 
     /**
-     * Delete a comment
+     * Delete a comment, decrease the comment count of the post and
+     * evict the post from the post cache after the commit
      *
      * @param id The comments id
      */
+    @Transactional
     public void deleteComment(Long id) {
         Comment comment= commentRepository.findById(id)
                 .orElseThrow(()-> new CommentNotFoundException("Comment not found with id:" + id));
         commentRepository.delete(comment);
+        Long postId = comment.getPost().getId();
+        postRepository.adjustCommentCount(postId, -1);
+        AfterCommit.run(() -> postCache.invalidate(postId));
     }
 }
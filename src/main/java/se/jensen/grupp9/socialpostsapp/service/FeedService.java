@@ -0,0 +1,173 @@
+package se.jensen.grupp9.socialpostsapp.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.jensen.grupp9.socialpostsapp.dto.CursorPageDTO;
+import se.jensen.grupp9.socialpostsapp.dto.DTOMapper;
+import se.jensen.grupp9.socialpostsapp.dto.PostCursor;
+import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostView;
+import se.jensen.grupp9.socialpostsapp.repository.FollowRepository;
+import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
+import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+import se.jensen.grupp9.socialpostsapp.timeline.HomeTimelineStore;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineBuffer;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineEntry;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineMerge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Service for the home feed: the posts of the users someone follows, and their own, newest first.
+ * <p>
+ * Posts by ordinary authors are read from the user's in-memory timeline (see
+ * {@link HomeTimelineStore}). Posts by followed authors above the celebrity threshold are not
+ * on the timeline; the newest posts of all of them after the cursor are read in one query with
+ * the (user_id, created_at, id) index and k-way merged with the timeline (see {@link TimelineMerge}).
+ * Only a timeline that is not in memory, or a page older than what the timeline keeps,
+ * reads the pushed authors' posts from the post table.
+ * </p>
+ * <p>
+ * A missing timeline is built in its own read-write transaction, so it is read from the
+ * primary and holds every post whose fan-out may already have passed it by. The page itself
+ * is read in a read-only transaction, which can go to a replica.
+ * </p>
+ */
+@Service
+public class FeedService {
+    private final PostRepository postRepository;
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final HomeTimelineStore timelineStore;
+    private final TransactionTemplate primaryTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public FeedService(PostRepository postRepository,
+                       FollowRepository followRepository,
+                       UserRepository userRepository,
+                       HomeTimelineStore timelineStore,
+                       PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.timelineStore = timelineStore;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Get a page of a user's home feed with cursor pagination.
+     *
+     * @param username The reader's username
+     * @param cursor   Opaque cursor from the previous page, or null/blank for the first page
+     * @param size     Number of posts per page (1-100)
+     * @return CursorPageDTO with the posts and the cursor for the next page
+     */
+    public CursorPageDTO<PostResponseDTO> getFeed(String username, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), PostService.MAX_CURSOR_PAGE_SIZE);
+        PostCursor position = cursor == null || cursor.isBlank() ? null : PostCursor.decode(cursor);
+        Long userId = readOnlyTransaction.execute(status -> userRepository.findIdByUsername(username))
+                .orElseThrow(() -> new NoSuchElementException("User not found: " + username));
+        TimelineBuffer timeline = timelineStore.get(userId, this::loadTimeline);
+        return readOnlyTransaction.execute(status -> readPage(userId, timeline, position, pageSize));
+    }
+
+    private CursorPageDTO<PostResponseDTO> readPage(Long userId, TimelineBuffer timeline,
+                                                    PostCursor position, int pageSize) {
+        // one more than the page, to know if there is a next page
+        int limit = pageSize + 1;
+
+        Map<Long, PostView> loaded = new HashMap<>();
+        List<List<TimelineEntry>> sources = new ArrayList<>();
+
+        List<TimelineEntry> entries = position == null
+                ? timeline.newest(limit)
+                : timeline.before(position.createdAt(), position.id(), limit);
+        if (entries.size() < limit && !timeline.isComplete()) {
+            // the page reaches past the oldest post kept in memory
+            sources.add(readPosts(pushedAuthorIds(userId), position, limit, loaded));
+        } else {
+            sources.add(entries);
+        }
+        List<Long> celebrityIds = followRepository.findFolloweeIdsWithFollowersAtLeast(
+                userId, timelineStore.celebrityThreshold());
+        if (!celebrityIds.isEmpty()) {
+            // one query for all followed celebrities, whatever their number
+            sources.add(readPosts(celebrityIds, position, limit, loaded));
+        }
+
+        return toPage(TimelineMerge.merge(sources, limit), pageSize, loaded);
+    }
+
+    private TimelineBuffer loadTimeline(Long userId) {
+        int capacity = timelineStore.capacity();
+        List<TimelineEntry> entries = primaryTransaction.execute(status -> postRepository.findTimelineEntries(
+                pushedAuthorIds(userId), PageRequest.of(0, capacity)));
+        TimelineBuffer timeline = new TimelineBuffer(capacity, entries.size() < capacity);
+        entries.forEach(timeline::add);
+        return timeline;
+    }
+
+    /**
+     * Read posts by a set of authors after the cursor, newest first. The posts are kept
+     * in {@code loaded} so they are not loaded again for the page.
+     */
+    private List<TimelineEntry> readPosts(List<Long> authorIds, PostCursor position, int limit,
+                                          Map<Long, PostView> loaded) {
+        Pageable page = PageRequest.of(0, limit);
+        List<PostView> posts = position == null
+                ? postRepository.findByAuthorsFirstPage(authorIds, page)
+                : postRepository.findByAuthorsPageBefore(authorIds, position.createdAt(), position.id(), page);
+        List<TimelineEntry> entries = new ArrayList<>(posts.size());
+        for (PostView post : posts) {
+            loaded.put(post.id(), post);
+            entries.add(new TimelineEntry(post.id(), post.createdAt()));
+        }
+        return entries;
+    }
+
+    private CursorPageDTO<PostResponseDTO> toPage(List<TimelineEntry> entries, int pageSize,
+                                                  Map<Long, PostView> loaded) {
+        List<TimelineEntry> pageEntries = entries.subList(0, Math.min(entries.size(), pageSize));
+        List<Long> missing = pageEntries.stream()
+                .map(TimelineEntry::postId)
+                .filter(id -> !loaded.containsKey(id))
+                .toList();
+        if (!missing.isEmpty()) {
+            postRepository.findViewsByIdIn(missing).forEach(post -> loaded.put(post.id(), post));
+        }
+
+        // deleted posts are still on the timelines, they are skipped here
+        List<PostResponseDTO> content = pageEntries.stream()
+                .map(entry -> loaded.get(entry.postId()))
+                .filter(Objects::nonNull)
+                .map(DTOMapper::toPostResponseDTO)
+                .toList();
+
+        TimelineEntry last = pageEntries.isEmpty() ? null : pageEntries.get(pageEntries.size() - 1);
+        String nextCursor = entries.size() > pageSize
+                ? new PostCursor(last.createdAt(), last.postId()).encode()
+                : null;
+        return new CursorPageDTO<>(content, nextCursor);
+    }
+
+    /**
+     * The reader and the followed authors below the celebrity threshold,
+     * whose posts are pushed to the reader's timeline
+     */
+    private List<Long> pushedAuthorIds(Long userId) {
+        List<Long> authorIds = new ArrayList<>(followRepository.findFolloweeIdsWithFollowersBelow(
+                userId, timelineStore.celebrityThreshold()));
+        authorIds.add(userId);
+        return authorIds;
+    }
+}
@@ -0,0 +1,127 @@
+package se.jensen.grupp9.socialpostsapp.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.jensen.grupp9.socialpostsapp.model.Follow;
+import se.jensen.grupp9.socialpostsapp.model.User;
+import se.jensen.grupp9.socialpostsapp.repository.FollowRepository;
+import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+import se.jensen.grupp9.socialpostsapp.timeline.HomeTimelineStore;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineFanout;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Service for following and unfollowing users
+ * <p>
+ * Keeps the follower count of the followed user up to date, and drops the follower's
+ * home timeline from memory so it is rebuilt with the right authors on the next read.
+ * When the followed user's count crosses the celebrity threshold, their posts move between
+ * push and pull, so the timelines of all their followers are dropped as well.
+ * </p>
+ */
+@Service
+public class FollowService {
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final HomeTimelineStore timelineStore;
+    private final TimelineFanout timelineFanout;
+
+    public FollowService(FollowRepository followRepository,
+                         UserRepository userRepository,
+                         HomeTimelineStore timelineStore,
+                         TimelineFanout timelineFanout) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.timelineStore = timelineStore;
+        this.timelineFanout = timelineFanout;
+    }
+
+    /**
+     * Follow a user. Following someone already followed does nothing.
+     *
+     * @param username   The follower's username
+     * @param followeeId The ID of the user to follow
+     * @return True if a new follow was created
+     */
+    @Transactional
+    public boolean follow(String username, Long followeeId) {
+        Long followerId = findUserId(username);
+        if (followerId.equals(followeeId)) {
+            throw new IllegalArgumentException("Users cannot follow themselves");
+        }
+        if (followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId)) {
+            return false;
+        }
+        User followee = userRepository.findById(followeeId)
+                .orElseThrow(() -> new NoSuchElementException("User not found with id: " + followeeId));
+        followRepository.save(new Follow(userRepository.getReferenceById(followerId), followee));
+        userRepository.adjustFollowerCount(followeeId, 1);
+        invalidateAfterCommit(followerId);
+        if (followerCount(followeeId) == timelineStore.celebrityThreshold()) {
+            invalidateFollowersAfterCommit(followeeId);
+        }
+        return true;
+    }
+
+    /**
+     * Stop following a user
+     *
+     * @param username   The follower's username
+     * @param followeeId The ID of the followed user
+     * @return True if the follow existed
+     */
+    @Transactional
+    public boolean unfollow(String username, Long followeeId) {
+        Long followerId = findUserId(username);
+        boolean removed = followRepository.deleteByFollowerIdAndFolloweeId(followerId, followeeId) > 0;
+        if (removed) {
+            userRepository.adjustFollowerCount(followeeId, -1);
+            invalidateAfterCommit(followerId);
+            if (followerCount(followeeId) == timelineStore.celebrityThreshold() - 1) {
+                invalidateFollowersAfterCommit(followeeId);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Count the followers of a user
+     *
+     * @param userId The user ID
+     * @return Number of followers
+     */
+    @Transactional(readOnly = true)
+    public long countFollowers(Long userId) {
+        return followRepository.countByFolloweeId(userId);
+    }
+
+    /**
+     * The follower count after this transaction's change. The adjust query locks the row,
+     * so exactly one follow or unfollow sees each crossing of the threshold.
+     */
+    private long followerCount(Long userId) {
+        return userRepository.findFollowerCount(userId).orElse(0L);
+    }
+
+    /**
+     * Drop the follower's timeline once the follow change is visible. Dropped before the
+     * commit, a read in between would rebuild it from the old follow set.
+     */
+    private void invalidateAfterCommit(Long followerId) {
+        AfterCommit.run(() -> timelineStore.invalidate(followerId));
+    }
+
+    /**
+     * Drop the followers' timelines once the new count is visible, so they are not
+     * rebuilt from the old one.
+     */
+    private void invalidateFollowersAfterCommit(Long followeeId) {
+        AfterCommit.run(() -> timelineFanout.invalidateFollowers(followeeId));
+    }
+
+    private Long findUserId(String username) {
+        return userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new NoSuchElementException("User not found: " + username));
+    }
+}
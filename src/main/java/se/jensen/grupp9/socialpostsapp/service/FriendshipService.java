@@ -0,0 +1,140 @@
+package se.jensen.grupp9.socialpostsapp.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.jensen.grupp9.socialpostsapp.dto.FriendSuggestionDTO;
+import se.jensen.grupp9.socialpostsapp.dto.UserInfoDTO;
+import se.jensen.grupp9.socialpostsapp.graph.FriendGraphIndex;
+import se.jensen.grupp9.socialpostsapp.graph.FriendSuggestion;
+import se.jensen.grupp9.socialpostsapp.model.Friendship;
+import se.jensen.grupp9.socialpostsapp.model.FriendshipStatus;
+import se.jensen.grupp9.socialpostsapp.model.User;
+import se.jensen.grupp9.socialpostsapp.repository.FriendshipRepository;
+import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Service for friend requests, friends and friend suggestions
+ * <p>
+ * Friendships are read and written in the database. Suggestions ("people you may know")
+ * are computed from the in-memory friend graph (see {@link FriendGraphIndex}), which picks
+ * up new and removed friendships on its next refresh.
+ * </p>
+ */
+@Service
+public class FriendshipService {
+
+    /**
+     * Maximum number of suggestions returned at once
+     */
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private final FriendshipRepository friendshipRepository;
+    private final UserRepository userRepository;
+    private final FriendGraphIndex friendGraph;
+
+    public FriendshipService(FriendshipRepository friendshipRepository,
+                             UserRepository userRepository,
+                             FriendGraphIndex friendGraph) {
+        this.friendshipRepository = friendshipRepository;
+        this.userRepository = userRepository;
+        this.friendGraph = friendGraph;
+    }
+
+    /**
+     * Send a friend request. If the other user has already sent one, the
+     * friendship is accepted instead.
+     *
+     * @param username The logged in user's username
+     * @param userId   The ID of the user to become friends with
+     * @return The status of the friendship afterwards
+     */
+    @Transactional
+    public FriendshipStatus requestFriendship(String username, Long userId) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NoSuchElementException("User not found: " + username));
+        if (user.getId().equals(userId)) {
+            throw new IllegalArgumentException("Users cannot be friends with themselves");
+        }
+        User other = userRepository.findById(userId)
+                .orElseThrow(() -> new NoSuchElementException("User not found with id: " + userId));
+
+        Friendship friendship = friendshipRepository.findBetween(user.getId(), userId).orElse(null);
+        if (friendship == null) {
+            return friendshipRepository.save(new Friendship(user, other)).getStatus();
+        }
+        if (friendship.getStatus() == FriendshipStatus.PENDING
+                && friendship.getAddressee().getId().equals(user.getId())) {
+            // both have asked
+            friendship.setStatus(FriendshipStatus.ACCEPTED);
+        } else if (friendship.getStatus() == FriendshipStatus.REMOVED) {
+            friendship.setRequester(user);
+            friendship.setAddressee(other);
+            friendship.setStatus(FriendshipStatus.PENDING);
+        }
+        return friendship.getStatus();
+    }
+
+    /**
+     * Decline or cancel a friend request, or end a friendship
+     *
+     * @param username The logged in user's username
+     * @param userId   The ID of the other user
+     * @return True if there was a request or friendship to remove
+     */
+    @Transactional
+    public boolean removeFriendship(String username, Long userId) {
+        Long currentId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new NoSuchElementException("User not found: " + username));
+        Friendship friendship = friendshipRepository.findBetween(currentId, userId).orElse(null);
+        if (friendship == null || friendship.getStatus() == FriendshipStatus.REMOVED) {
+            return false;
+        }
+        friendship.setStatus(FriendshipStatus.REMOVED);
+        return true;
+    }
+
+    /**
+     * Get the accepted friends of a user
+     *
+     * @param userId The user's ID
+     * @return List of friends, ordered by username
+     */
+    @Transactional(readOnly = true)
+    public List<User> getAcceptedFriends(Long userId) {
+        return friendshipRepository.findAcceptedFriends(userId);
+    }
+
+    /**
+     * Suggest people the user may know: friends of friends ranked by the number of mutual friends.
+     *
+     * @param username The logged in user's username
+     * @param limit    Maximum number of suggestions (1-50)
+     * @return Suggestions, most mutual friends first
+     */
+    @Transactional(readOnly = true)
+    public List<FriendSuggestionDTO> suggestFriends(String username, int limit) {
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new NoSuchElementException("User not found: " + username));
+        List<FriendSuggestion> suggestions = friendGraph.suggest(userId, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
+        if (suggestions.isEmpty()) {
+            return List.of();
+        }
+
+        // users deleted since the last refresh are skipped
+        Map<Long, UserInfoDTO> users = userRepository.findInfosByIdIn(
+                        suggestions.stream().map(FriendSuggestion::userId).toList())
+                .stream()
+                .collect(toMap(UserInfoDTO::getId, Function.identity()));
+        return suggestions.stream()
+                .filter(suggestion -> users.containsKey(suggestion.userId()))
+                .map(suggestion -> new FriendSuggestionDTO(users.get(suggestion.userId()), suggestion.mutualFriends()))
+                .toList();
+    }
+}
@@ -2,16 +2,45 @@ package se.jensen.grupp9.socialpostsapp.service;
 
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.jensen.grupp9.socialpostsapp.cache.PostCache;
+import se.jensen.grupp9.socialpostsapp.dto.CommentPreview;
+import se.jensen.grupp9.socialpostsapp.dto.CommentResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.CursorPageDTO;
 import se.jensen.grupp9.socialpostsapp.dto.DTOMapper;
+import se.jensen.grupp9.socialpostsapp.dto.PostBatchRequestDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostCursor;
 import se.jensen.grupp9.socialpostsapp.dto.PostRequestDTO;
 import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostView;
 import se.jensen.grupp9.socialpostsapp.exception.PostNotFoundException;
 import se.jensen.grupp9.socialpostsapp.model.Post;
 import se.jensen.grupp9.socialpostsapp.model.User;
+import se.jensen.grupp9.socialpostsapp.repository.CommentRepository;
 import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
 import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+import se.jensen.grupp9.socialpostsapp.search.PostSearchIndex;
+import se.jensen.grupp9.socialpostsapp.search.SearchCursor;
+import se.jensen.grupp9.socialpostsapp.search.SearchHit;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineEntry;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineFanout;
+import se.jensen.grupp9.socialpostsapp.trending.TrendingPosts;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Service for Post entity operations.
@@ -22,12 +51,41 @@ import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
  */
 @Service
 public class PostService {
+    /**
+     * Upper bound for the page size in cursor mode
+     */
+    static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    /**
+     * Upper bound for the number of comment previews per post
+     */
+    static final int MAX_COMMENT_PREVIEWS = 10;
+
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final PostSearchIndex postSearchIndex;
+    private final PostCache postCache;
+    private final TimelineFanout timelineFanout;
+    private final TrendingPosts trendingPosts;
+    private final TransactionTemplate primaryTransaction;
 
-    public PostService(PostRepository postRepository, UserRepository userRepository) {
+    public PostService(PostRepository postRepository,
+                       UserRepository userRepository,
+                       CommentRepository commentRepository,
+                       PostSearchIndex postSearchIndex,
+                       PostCache postCache,
+                       TimelineFanout timelineFanout,
+                       TrendingPosts trendingPosts,
+                       PlatformTransactionManager transactionManager) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.commentRepository = commentRepository;
+        this.postSearchIndex = postSearchIndex;
+        this.postCache = postCache;
+        this.timelineFanout = timelineFanout;
+        this.trendingPosts = trendingPosts;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -36,11 +94,135 @@ public class PostService {
      * @param pageable Pagination parameters
      * @return Page of PostResponseDTO
      */
+    @Transactional(readOnly = true)
     public Page<PostResponseDTO> getPosts(Pageable pageable) {
-        return postRepository.findAll(pageable)
+        return postRepository.findAllViews(pageable)
                 .map(DTOMapper::toPostResponseDTO);
     }
 
+    /**
+     * Get a page of the feed with keyset (cursor) pagination.
+     * <p>
+     * Fetches one extra post to know if there is a next page, so no count query is needed.
+     * </p>
+     *
+     * @param cursor Opaque cursor from the previous page, or null/blank for the first page
+     * @param size   Number of posts per page (1-100)
+     * @return CursorPageDTO with the posts and the cursor for the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostResponseDTO> getPostsByCursor(String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<PostView> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postRepository.findFeedFirstPage(limit);
+        } else {
+            PostCursor position = PostCursor.decode(cursor);
+            posts = postRepository.findFeedPageBefore(position.createdAt(), position.id(), limit);
+        }
+
+        List<PostResponseDTO> content = posts.stream()
+                .limit(pageSize)
+                .map(DTOMapper::toPostResponseDTO)
+                .toList();
+        String nextCursor = posts.size() > pageSize
+                ? PostCursor.from(content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorPageDTO<>(content, nextCursor);
+    }
+
+    /**
+     * Search posts by text, ranked by relevance with cursor pagination.
+     *
+     * @param query  The search words
+     * @param cursor Opaque cursor from the previous page, or null/blank for the first page
+     * @param size   Number of posts per page (1-100)
+     * @return CursorPageDTO with the matching posts and the cursor for the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostResponseDTO> searchPosts(String query, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        SearchCursor after = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor);
+
+        List<SearchHit> hits = postSearchIndex.search(query, after, pageSize + 1);
+        List<SearchHit> pageHits = hits.subList(0, Math.min(hits.size(), pageSize));
+
+        Map<Long, PostView> postsById = postRepository
+                .findViewsByIdIn(pageHits.stream().map(SearchHit::postId).toList())
+                .stream()
+                .collect(toMap(PostView::id, Function.identity()));
+        List<PostResponseDTO> content = pageHits.stream()
+                .map(hit -> postsById.get(hit.postId()))
+                .filter(Objects::nonNull)
+                .map(DTOMapper::toPostResponseDTO)
+                .toList();
+
+        String nextCursor = hits.size() > pageSize
+                ? SearchCursor.from(pageHits.get(pageHits.size() - 1)).encode()
+                : null;
+        return new CursorPageDTO<>(content, nextCursor);
+    }
+
+    /**
+     * Attach the latest comments to every post on a page.
+     *
+     * @param posts        Page of posts
+     * @param commentLimit Number of comments per post (1-10)
+     * @return Page of PostResponseDTOs with comments
+     */
+    @Transactional(readOnly = true)
+    public Page<PostResponseDTO> withCommentPreviews(Page<PostResponseDTO> posts, int commentLimit) {
+        List<PostResponseDTO> content = withCommentPreviews(posts.getContent(), commentLimit);
+        return new PageImpl<>(content, posts.getPageable(), posts.getTotalElements());
+    }
+
+    /**
+     * Attach the latest comments to every post on a cursor page.
+     *
+     * @param posts        Cursor page of posts
+     * @param commentLimit Number of comments per post (1-10)
+     * @return CursorPageDTO of PostResponseDTOs with comments
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostResponseDTO> withCommentPreviews(CursorPageDTO<PostResponseDTO> posts, int commentLimit) {
+        return new CursorPageDTO<>(withCommentPreviews(posts.content(), commentLimit), posts.nextCursor());
+    }
+
+    /**
+     * Attach the latest comments (newest first) to every post in the list.
+     * <p>
+     * The comments for all posts are loaded with one query, posts without
+     * comments get an empty list.
+     * </p>
+     *
+     * @param posts        List of posts
+     * @param commentLimit Number of comments per post (1-10)
+     * @return List of PostResponseDTOs with comments
+     */
+    @Transactional(readOnly = true)
+    public List<PostResponseDTO> withCommentPreviews(List<PostResponseDTO> posts, int commentLimit) {
+        if (posts.isEmpty()) {
+            return posts;
+        }
+        int limit = Math.min(Math.max(commentLimit, 1), MAX_COMMENT_PREVIEWS);
+        List<Long> postIds = posts.stream().map(PostResponseDTO::id).toList();
+
+        Map<Long, List<CommentResponseDTO>> commentsByPost = commentRepository
+                .findLatestByPostIds(postIds, limit)
+                .stream()
+                .collect(groupingBy(CommentPreview::getPostId,
+                        mapping(DTOMapper::toCommentResponseDTO, toList())));
+
+        return posts.stream()
+                .map(post -> post.withComments(commentsByPost.getOrDefault(post.id(), List.of())))
+                .toList();
+    }
+
     /**
      * Get all posts with a specific user with pagination
      *
@@ -48,25 +230,48 @@ public class PostService {
      * @param pageable Pagination parameters
      * @return Page of PostResponseDTOs with that user
      */
+    @Transactional(readOnly = true)
     public Page<PostResponseDTO> getPostsByUserId(Pageable pageable, Long userId) {
-        return postRepository.findByUserId(userId, pageable)
+        return postRepository.findViewsByUserId(userId, pageable)
                 .map(DTOMapper::toPostResponseDTO);
     }
 
     /**
-     * Get a single post
+     * Get a single post, served from the post cache when possible.
+     * The view is counted for the trending posts.
      *
      * @param id The posts ID
      * @return A PostResponseDTO
      */
     public PostResponseDTO getPostById(Long id) {
-        return DTOMapper.toPostResponseDTO(
-                postRepository.findById(id)
-                        .orElseThrow(() -> new PostNotFoundException("Post not found with id: " + id)));
+        PostResponseDTO post = postCache.get(id, this::loadPost);
+        trendingPosts.recordView(id);
+        return post;
+    }
+
+    /**
+     * Get the posts with the most recent engagement (views and comments), served from
+     * memory. The ranking is refreshed in the background.
+     *
+     * @param limit Maximum number of posts (1-100)
+     * @return List of PostResponseDTOs, most trending first
+     */
+    public List<PostResponseDTO> getTrendingPosts(int limit) {
+        return trendingPosts.top(Math.min(Math.max(limit, 1), MAX_CURSOR_PAGE_SIZE));
+    }
+
+    /**
+     * Cache misses are read from the primary. A lagging replica could put back the row
+     * that an update or delete just evicted, and it would be served for a whole TTL.
+     */
+    private PostResponseDTO loadPost(Long id) {
+        return primaryTransaction.execute(status -> DTOMapper.toPostResponseDTO(
+                postRepository.findViewById(id)
+                        .orElseThrow(() -> new PostNotFoundException("Post not found with id: " + id))));
     }
 
     /**
-     * Create a post
+     * Create a post and push it to the home timelines of the author's followers
      *
      * @param userId The posts user
      * @param dto    The PostRequestDTO
@@ -79,33 +284,88 @@ public class PostService {
         Post post = new Post(dto.text());
         post.setUser(user);
         Post savedPost = postRepository.save(post);
+        AfterCommit.run(() -> postSearchIndex.index(savedPost.getId(), savedPost.getText()));
+        fanOutAfterCommit(userId, List.of(savedPost));
 
         return DTOMapper.toPostResponseDTO(savedPost);
     }
 
     /**
-     * Update an existing post
+     * Create many posts for a user in one transaction (bulk import).
+     * <p>
+     * The posts get their IDs from a pooled sequence, so Hibernate can send the
+     * inserts in JDBC batches instead of one round trip per post.
+     * </p>
+     *
+     * @param userId The posts user
+     * @param dto    The PostBatchRequestDTO with the posts
+     * @return List of created PostResponseDTOs in the same order as the request
+     */
+    @Transactional
+    public List<PostResponseDTO> createPosts(Long userId, PostBatchRequestDTO dto) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        List<Post> posts = dto.posts().stream()
+                .map(request -> {
+                    Post post = new Post(request.text());
+                    post.setUser(user);
+                    return post;
+                })
+                .toList();
+
+        List<Post> savedPosts = postRepository.saveAll(posts);
+        AfterCommit.run(() -> savedPosts.forEach(saved -> postSearchIndex.index(saved.getId(), saved.getText())));
+        fanOutAfterCommit(userId, savedPosts);
+
+        return savedPosts.stream()
+                .map(DTOMapper::toPostResponseDTO)
+                .toList();
+    }
+
+    /**
+     * Start the timeline fan-out of new posts. Inside a transaction it waits for the commit,
+     * so followers never get a post that is rolled back or not yet visible to them.
+     */
+    private void fanOutAfterCommit(Long userId, List<Post> posts) {
+        List<TimelineEntry> entries = posts.stream().map(TimelineEntry::from).toList();
+        AfterCommit.run(() -> timelineFanout.fanOut(userId, entries));
+    }
+
+    /**
+     * Update an existing post. The search index and the post cache are updated
+     * after the commit, so a concurrent read cannot cache the old text again.
      *
      * @param id  The posts id
      * @param dto The postRequestDTO with updated values
      * @return Updated PostResponseDTO
      */
+    @Transactional
     public PostResponseDTO updatePost(Long id, PostRequestDTO dto) {
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new PostNotFoundException("Post not found with id:" + id));
         post.setText(dto.text());
         Post updatedPost = postRepository.save(post);
+        AfterCommit.run(() -> {
+            postSearchIndex.index(updatedPost.getId(), updatedPost.getText());
+            postCache.invalidate(id);
+        });
         return DTOMapper.toPostResponseDTO(updatedPost);
     }
 
     /**
-     * Delete a post
+     * Delete a post, and remove it from the search index and the post cache after the commit
      *
      * @param id The Posts ID
      */
+    @Transactional
     public void deletePost(Long id) {
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new PostNotFoundException("Post not found with id:" + id));
         postRepository.delete(post);
+        AfterCommit.run(() -> {
+            postSearchIndex.remove(id);
+            postCache.invalidate(id);
+        });
     }
 }
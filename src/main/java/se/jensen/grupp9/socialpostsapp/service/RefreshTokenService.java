@@ -0,0 +1,102 @@
+package se.jensen.grupp9.socialpostsapp.service;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+import se.jensen.grupp9.socialpostsapp.security.JwtUtil;
+import se.jensen.grupp9.socialpostsapp.security.RefreshTokenStore;
+import se.jensen.grupp9.socialpostsapp.security.StoredRefreshToken;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service for issuing and rotating refresh tokens
+ * <p>
+ * Every refresh token is registered in the {@link RefreshTokenStore} and can be used once.
+ * Refreshing returns a new token in the same family; presenting an already used token
+ * revokes the whole family, so a leaked token stops working for both the thief and the user.
+ * </p>
+ */
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenStore refreshTokenStore;
+    private final JwtUtil jwtUtil;
+    private final AppLogger logger;
+
+    public RefreshTokenService(RefreshTokenStore refreshTokenStore, JwtUtil jwtUtil, AppLogger logger) {
+        this.refreshTokenStore = refreshTokenStore;
+        this.jwtUtil = jwtUtil;
+        this.logger = logger;
+    }
+
+    /**
+     * A successful rotation
+     *
+     * @param username     The user the token belongs to
+     * @param refreshToken The new refresh token
+     */
+    public record RotatedToken(String username, String refreshToken) {}
+
+    /**
+     * Issue a refresh token in a new family, used at login
+     *
+     * @param username The authenticated user
+     * @return The signed refresh token
+     */
+    public String issue(String username) {
+        StoredRefreshToken token = newToken(username, UUID.randomUUID().toString());
+        refreshTokenStore.register(token);
+        return jwtUtil.generateRefreshToken(token);
+    }
+
+    /**
+     * Exchange a refresh token for a new one in the same family
+     *
+     * @param refreshToken The presented refresh token
+     * @return The new token, or empty if the token is invalid, expired, revoked or reused
+     */
+    public Optional<RotatedToken> rotate(String refreshToken) {
+        Optional<Claims> verified = jwtUtil.parseClaims(refreshToken).filter(JwtUtil::isRefreshToken);
+        if (verified.isEmpty()) {
+            return Optional.empty();
+        }
+        Claims claims = verified.get();
+        String familyId = claims.get(JwtUtil.FAMILY_CLAIM, String.class);
+        if (claims.getId() == null || familyId == null) {
+            return Optional.empty();
+        }
+
+        StoredRefreshToken next = newToken(claims.getSubject(), familyId);
+        return switch (refreshTokenStore.rotate(claims.getId(), next)) {
+            case ROTATED -> Optional.of(new RotatedToken(next.username(), jwtUtil.generateRefreshToken(next)));
+            case REUSE_DETECTED -> {
+                logger.warn("Refresh token reuse detected for user {}, revoked token family {}",
+                        claims.getSubject(), familyId);
+                yield Optional.empty();
+            }
+            case INVALID -> Optional.empty();
+        };
+    }
+
+    /**
+     * Remove expired tokens and families from the store
+     *
+     * @return Number of removed tokens
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-store.sweep-interval-ms:600000}")
+    public int sweepExpired() {
+        return refreshTokenStore.sweepExpired(Instant.now());
+    }
+
+    private StoredRefreshToken newToken(String username, String familyId) {
+        return new StoredRefreshToken(
+                UUID.randomUUID().toString(),
+                familyId,
+                username,
+                Instant.now().plusMillis(jwtUtil.getRefreshExpirationMs()));
+    }
+}
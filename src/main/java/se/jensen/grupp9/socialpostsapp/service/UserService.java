@@ -4,13 +4,17 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import se.jensen.grupp9.socialpostsapp.dto.UserRegistrationDTO;
+import se.jensen.grupp9.socialpostsapp.exception.ServiceOverloadedException;
 import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
 import se.jensen.grupp9.socialpostsapp.model.User;
 import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+import se.jensen.grupp9.socialpostsapp.security.PasswordHashingExecutor;
 
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * {@link UserService} hanterar logik relaterad till {@link User}-entiteter.
@@ -25,20 +29,29 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AppLogger logger;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    /**
+     * BCrypt-hash som okända användarnamn jämförs mot, skapas vid första behov.
+     */
+    private volatile String dummyHash;
 
     /**
      * Skapar en ny instans av {@link UserService}.
      *
-     * @param userRepository  repository för att hantera {@link User}-entiteter.
-     * @param passwordEncoder {@link PasswordEncoder} för kryptering av lösenord.
+     * @param userRepository          repository för att hantera {@link User}-entiteter.
+     * @param passwordEncoder         {@link PasswordEncoder} för kryptering av lösenord.
+     * @param passwordHashingExecutor begränsad trådpool för BCrypt vid inloggning.
      */
     public UserService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
-                       AppLogger logger
+                       AppLogger logger,
+                       PasswordHashingExecutor passwordHashingExecutor
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.logger = logger;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
     /**
@@ -50,15 +63,15 @@ public class UserService {
      */
     @Transactional
     public User createUser(UserRegistrationDTO registrationDTO) {
-        logger.info("Attempting to create user with username: " + registrationDTO.getUsername());
+        logger.info("Attempting to create user with username: {}", registrationDTO.getUsername());
 
         if (userRepository.existsByUsername(registrationDTO.getUsername())) {
-            logger.warn("User creation failed – username already exists: " + registrationDTO.getUsername());
+            logger.warn("User creation failed – username already exists: {}", registrationDTO.getUsername());
             throw new IllegalArgumentException("Username already exists");
         }
 
         if (userRepository.existsByEmail(registrationDTO.getEmail())) {
-            logger.warn("User creation failed – email already exists: " + registrationDTO.getEmail());
+            logger.warn("User creation failed – email already exists: {}", registrationDTO.getEmail());
             throw new IllegalArgumentException("Email already exists");
         }
 
@@ -93,7 +106,7 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public User findUserById(Long id) {
-        logger.info("Fetching user by id: " + id);
+        logger.info("Fetching user by id: {}", id);
         return userRepository.findById(id).orElse(null);
     }
 
@@ -105,7 +118,7 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
-        logger.info("Fetching user by username: " + username);
+        logger.info("Fetching user by username: {}", username);
         return userRepository.findByUsername(username);
     }
 
@@ -117,15 +130,15 @@ public class UserService {
      */
     @Transactional
     public void deleteUser(Long id) {
-        logger.info("Attempting to delete user with id: " + id);
+        logger.info("Attempting to delete user with id: {}", id);
 
         if (!userRepository.existsById(id)) {
-            logger.warn("Delete failed – user not found with id: " + id);
+            logger.warn("Delete failed – user not found with id: {}", id);
             throw new NoSuchElementException("User not found");
         }
 
         userRepository.deleteById(id);
-        logger.info("User deleted successfully with id: " + id);
+        logger.info("User deleted successfully with id: {}", id);
     }
 
     /**
@@ -136,11 +149,11 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public User getUserWithPosts(Long id) {
-        logger.info("Fetching user with posts, userId: " + id);
+        logger.info("Fetching user with posts, userId: {}", id);
 
         Optional<User> userOptional = userRepository.findById(id);
         if (userOptional.isEmpty()) {
-            logger.warn("User with posts not found, userId: " + id);
+            logger.warn("User with posts not found, userId: {}", id);
             return null;
         }
 
@@ -157,16 +170,16 @@ public class UserService {
      */
     @Transactional
     public void deleteUserWithAllPosts(Long id) {
-        logger.info("Deleting user and all posts, userId: " + id);
+        logger.info("Deleting user and all posts, userId: {}", id);
 
         User user = userRepository.findById(id)
                 .orElseThrow(() -> {
-                    logger.warn("Delete with posts failed – user not found, userId: " + id);
+                    logger.warn("Delete with posts failed – user not found, userId: {}", id);
                     return new NoSuchElementException("User not found");
                 });
 
         userRepository.delete(user);
-        logger.info("User and all posts deleted, userId: " + id);
+        logger.info("User and all posts deleted, userId: {}", id);
     }
 
     /**
@@ -178,26 +191,86 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public boolean authenticateUser(String username, String rawPassword) {
-        logger.info("Login attempt for username: " + username);
+        logger.info("Login attempt for username: {}", username);
 
         Optional<User> userOptional = userRepository.findByUsername(username);
 
         if (userOptional.isEmpty()) {
-            logger.warn("Login failed – user not found: " + username);
+            // lika lång tid som ett fel lösenord, så svarstiden inte avslöjar om användaren finns
+            passwordEncoder.matches(rawPassword, dummyHash());
+            logger.warn("Login failed – user not found: {}", username);
             return false;
         }
 
         boolean matches = passwordEncoder.matches(rawPassword, userOptional.get().getPassword());
 
         if (matches) {
-            logger.info("Login successfully for username: " + username);
+            logger.info("Login successfully for username: {}", username);
         } else {
-            logger.warn("Login failed – invalid password for username: " + username);
+            logger.warn("Login failed – invalid password for username: {}", username);
         }
 
         return matches;
     }
 
+    /**
+     * Loggar in en användare med en enda databasuppslagning.
+     * <p>
+     * Användaren hämtas en gång. Lösenordet verifieras på {@link PasswordHashingExecutor}
+     * i stället för på anropande tråd. Om BCrypt-kostnaden har höjts sedan lösenordet hashades
+     * skrivs en ny hash med den aktuella kostnaden direkt efter en lyckad inloggning.
+     * Ett okänt användarnamn jämförs mot en dummy-hash, så svarstiden är densamma som
+     * för ett fel lösenord och inte avslöjar vilka användare som finns.
+     * </p>
+     *
+     * @param username    användarnamnet.
+     * @param rawPassword rålösenordet som ska verifieras.
+     * @return en future med användaren om inloggningen lyckades, annars tom.
+     * @throws ServiceOverloadedException om trådpoolen för lösenord är full.
+     */
+    public CompletableFuture<Optional<User>> login(String username, String rawPassword) {
+        logger.info("Login attempt for username: {}", username);
+
+        Optional<User> userOptional = userRepository.findByUsername(username);
+        if (userOptional.isEmpty()) {
+            return passwordHashingExecutor.submit(() -> {
+                passwordEncoder.matches(rawPassword, dummyHash());
+                logger.warn("Login failed – user not found: {}", username);
+                return Optional.empty();
+            });
+        }
+
+        User user = userOptional.get();
+        return passwordHashingExecutor.submit(() -> verifyAndUpgrade(user, rawPassword));
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            // samma encoder och kostnad som riktiga lösenord
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    private Optional<User> verifyAndUpgrade(User user, String rawPassword) {
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            logger.warn("Login failed – invalid password for username: {}", user.getUsername());
+            return Optional.empty();
+        }
+
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            String upgraded = passwordEncoder.encode(rawPassword);
+            userRepository.updatePassword(user.getId(), upgraded);
+            user.setPassword(upgraded);
+            logger.info("Password hash upgraded for userId: {}", user.getId());
+        }
+
+        logger.info("Login successfully for username: {}", user.getUsername());
+        return Optional.of(user);
+    }
+
     /**
      * Uppdaterar en användares information baserat på {@link UserRegistrationDTO}.
      *
@@ -208,11 +281,11 @@ public class UserService {
      */
     @Transactional
     public User updateUser(Long id, UserRegistrationDTO updateDTO) {
-        logger.info("Updating user with id: " + id);
+        logger.info("Updating user with id: {}", id);
 
         User user = userRepository.findById(id)
                 .orElseThrow(() -> {
-                    logger.warn("Update failed – user not found, userId: " + id);
+                    logger.warn("Update failed – user not found, userId: {}", id);
                     return new NoSuchElementException("User not found");
                 });
 
@@ -220,7 +293,7 @@ public class UserService {
         user.setEmail(updateDTO.getEmail());
 
         if (updateDTO.getPassword() != null && !updateDTO.getPassword().isBlank()) {
-            logger.info("Updating password for userId: " + id);
+            logger.info("Updating password for userId: {}", id);
             user.setPassword(passwordEncoder.encode(updateDTO.getPassword()));
         }
 
@@ -0,0 +1,37 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate session listener that measures the time statements spend in the JDBC driver
+ * and reports it to {@link QueryCounter}.
+ * <p>
+ * Hibernate creates one instance per session, registered with
+ * {@code spring.jpa.properties.hibernate.session.events.auto}.
+ * </p>
+ */
+public class JdbcTimingListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryCounter.statementExecuted(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryCounter.statementExecuted(System.nanoTime() - batchStart);
+    }
+}
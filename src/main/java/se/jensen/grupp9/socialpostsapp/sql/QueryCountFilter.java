@@ -0,0 +1,142 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements and JDBC time of every HTTP request and warns about
+ * requests that look like N+1 selects.
+ * <p>
+ * A warning is logged when a request runs more than {@code app.query-count.warn-threshold}
+ * statements, or the same statement shape {@code app.query-count.repeat-threshold} times
+ * or more. With {@code app.query-count.response-header=true} (the default outside prod)
+ * the counts are also returned in the X-Query-Count and X-Query-Time-Ms headers. The
+ * headers are added when the response body starts, which is after the controller has run
+ * its queries.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String COUNT_HEADER = "X-Query-Count";
+    static final String TIME_HEADER = "X-Query-Time-Ms";
+
+    private final int warnThreshold;
+    private final int repeatThreshold;
+    private final boolean responseHeader;
+    private final AppLogger logger;
+
+    public QueryCountFilter(@Value("${app.query-count.warn-threshold:20}") int warnThreshold,
+                            @Value("${app.query-count.repeat-threshold:5}") int repeatThreshold,
+                            @Value("${app.query-count.response-header:false}") boolean responseHeader,
+                            AppLogger logger) {
+        this.warnThreshold = warnThreshold;
+        this.repeatThreshold = repeatThreshold;
+        this.responseHeader = responseHeader;
+        this.logger = logger;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.begin();
+        try {
+            filterChain.doFilter(request, responseHeader ? new QueryCountHeaderResponse(response) : response);
+        } finally {
+            QueryCounter.Queries queries = QueryCounter.end();
+            check(request, queries);
+        }
+    }
+
+    private void check(HttpServletRequest request, QueryCounter.Queries queries) {
+        Map.Entry<String, Integer> mostRepeated = queries.mostRepeated();
+        boolean tooMany = queries.statements() > warnThreshold;
+        boolean repeated = mostRepeated != null && mostRepeated.getValue() >= repeatThreshold;
+        if (tooMany || repeated) {
+            logger.warn("{} {} ran {} SQL statements in {} ms, most repeated ({} times): {}",
+                    request.getMethod(),
+                    request.getRequestURI(),
+                    queries.statements(),
+                    TimeUnit.NANOSECONDS.toMillis(queries.jdbcNanos()),
+                    mostRepeated.getValue(),
+                    mostRepeated.getKey());
+        }
+    }
+
+    /**
+     * Adds the query count headers just before the response is committed
+     */
+    private static final class QueryCountHeaderResponse extends HttpServletResponseWrapper {
+        private boolean headersAdded;
+
+        private QueryCountHeaderResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void addHeaders() {
+            if (headersAdded || isCommitted()) {
+                return;
+            }
+            headersAdded = true;
+            QueryCounter.Queries queries = QueryCounter.current();
+            if (queries != null) {
+                setHeader(COUNT_HEADER, String.valueOf(queries.statements()));
+                setHeader(TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(queries.jdbcNanos())));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate {@link StatementInspector} that reports every prepared statement to
+ * {@link QueryCounter}. The SQL is returned unchanged.
+ * <p>
+ * Registered with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ * </p>
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.statementPrepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,102 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements and the JDBC time of the current unit of work
+ * (an HTTP request, or a test method), per thread.
+ * <p>
+ * {@link QueryCountInspector} and {@link JdbcTimingListener} report to it from inside
+ * Hibernate. Nothing is recorded on threads that have not called {@link #begin()}, so
+ * background jobs cost only a thread-local lookup.
+ * </p>
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Queries> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Start counting on this thread, replacing any earlier count
+     */
+    public static void begin() {
+        CURRENT.set(new Queries());
+    }
+
+    /**
+     * Stop counting on this thread
+     *
+     * @return What was counted since {@link #begin()}, or an empty count if counting was not started
+     */
+    public static Queries end() {
+        Queries queries = CURRENT.get();
+        CURRENT.remove();
+        return queries != null ? queries : new Queries();
+    }
+
+    /**
+     * @return What has been counted so far on this thread, or null if counting is not started
+     */
+    public static Queries current() {
+        return CURRENT.get();
+    }
+
+    static void statementPrepared(String sql) {
+        Queries queries = CURRENT.get();
+        if (queries != null) {
+            queries.statements++;
+            queries.shapes.merge(SqlShapes.normalize(sql), 1, Integer::sum);
+        }
+    }
+
+    static void statementExecuted(long nanos) {
+        Queries queries = CURRENT.get();
+        if (queries != null) {
+            queries.jdbcNanos += nanos;
+        }
+    }
+
+    /**
+     * The statements of one unit of work, only used by the thread that counts
+     */
+    public static final class Queries {
+        private int statements;
+        private long jdbcNanos;
+        private final Map<String, Integer> shapes = new HashMap<>();
+
+        /**
+         * @return Number of SQL statements
+         */
+        public int statements() {
+            return statements;
+        }
+
+        /**
+         * @return Time spent executing statements in the JDBC driver, in nanoseconds
+         */
+        public long jdbcNanos() {
+            return jdbcNanos;
+        }
+
+        /**
+         * @return Number of times each statement shape ran
+         */
+        public Map<String, Integer> shapes() {
+            return shapes;
+        }
+
+        /**
+         * Find the statement that ran most often, the typical N+1 symptom
+         *
+         * @return The shape and its count, or null if no statement ran
+         */
+        public Map.Entry<String, Integer> mostRepeated() {
+            return shapes.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .orElse(null);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which repository method the current thread is running, e.g.
+ * {@code PostRepository.findViewsByUserId}, so a slow statement can be traced back to it.
+ * <p>
+ * Adds an interceptor to every Spring Data repository proxy. Nested repository calls
+ * restore the outer method when they return.
+ * </p>
+ */
+@Component
+public class RepositoryCallSite implements BeanPostProcessor {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    /**
+     * @return The repository method running on this thread, or null outside repository calls
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                            new CallSiteInterceptor(repositoryInformation.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private record CallSiteInterceptor(String repository) implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            String previous = CURRENT.get();
+            CURRENT.set(repository + "." + invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the bind parameters of a statement that must not be logged: the values of
+ * {@code app_user.password}, whether the statement inserts, updates or filters on it.
+ */
+final class SensitiveParameters {
+
+    private static final String TABLE = "app_user";
+    private static final Set<String> COLUMNS = Set.of("password");
+
+    private static final Pattern INSERT = Pattern.compile(
+            "insert\\s+into\\s+" + TABLE + "\\s*\\(([^)]*)\\)\\s*values\\s*\\(([^)]*)\\)");
+    private static final Pattern COMPARISON = Pattern.compile(
+            "(?:^|[\\s.,(])(\\w+)\\s*(?:=|<>|!=|like)\\s*$");
+
+    private SensitiveParameters() {
+    }
+
+    /**
+     * @param sql The statement as prepared
+     * @return The 1-based indexes of the parameters to redact, empty if none
+     */
+    static BitSet find(String sql) {
+        BitSet sensitive = new BitSet();
+        String lower = sql.toLowerCase(Locale.ROOT);
+        if (!lower.contains(TABLE)) {
+            return sensitive;
+        }
+
+        Matcher insert = INSERT.matcher(lower);
+        if (insert.find()) {
+            String[] columns = insert.group(1).split(",");
+            String[] values = insert.group(2).split(",");
+            int parameter = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].trim().equals("?")) {
+                    parameter++;
+                    if (i < columns.length && COLUMNS.contains(columns[i].trim())) {
+                        sensitive.set(parameter);
+                    }
+                }
+            }
+            return sensitive;
+        }
+
+        // update ... set password=? and where password=?: look at the column before every ?
+        int parameter = 0;
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) == '?') {
+                parameter++;
+                Matcher comparison = COMPARISON.matcher(lower.substring(Math.max(0, i - 64), i));
+                if (comparison.find() && COLUMNS.contains(comparison.group(1))) {
+                    sensitive.set(parameter);
+                }
+            }
+        }
+        return sensitive;
+    }
+}
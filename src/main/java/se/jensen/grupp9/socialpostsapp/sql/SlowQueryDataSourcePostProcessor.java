@@ -0,0 +1,45 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every Hikari pool (the primary, and the replica when configured) in a
+ * {@link TimedDataSource}, so slow statements are reported to {@link SlowQueryLog}.
+ * <p>
+ * Routing and lazy-connection DataSources are not wrapped, they hand out the
+ * connections of the pools below them. Disable with {@code app.slow-query.enabled=false}.
+ * </p>
+ * <p>
+ * Runs before the connection guard, so the guard ends up outside and time spent waiting
+ * for a connection is not counted as statement time.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    public SlowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof HikariDataSource dataSource) {
+            return TimedDataSource.wrap(dataSource, slowQueryLog.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,152 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.dto.SlowQueryDTO;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Receives the statements that took longer than {@code app.slow-query.threshold}
+ * from {@link TimedDataSource}.
+ * <p>
+ * Every slow statement is written to the dedicated {@value #LOGGER_NAME} logger, which
+ * logback-spring.xml sends through an asynchronous appender to its own file. The slowest
+ * statement shapes are also kept in memory (at most {@code app.slow-query.top-size}) and
+ * served by {@code GET /internal/slow-queries}.
+ * </p>
+ */
+@Component
+public class SlowQueryLog {
+
+    /**
+     * Name of the logger that slow statements are written to
+     */
+    public static final String LOGGER_NAME = "slow-query";
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Logger logger = LoggerFactory.getLogger(LOGGER_NAME);
+    private final long thresholdNanos;
+    private final int topSize;
+    private final ConcurrentMap<String, Entry> slowest = new ConcurrentHashMap<>();
+
+    /**
+     * @param threshold Statements taking longer than this are slow
+     * @param topSize   Number of statement shapes kept in memory
+     */
+    public SlowQueryLog(@Value("${app.slow-query.threshold:500ms}") Duration threshold,
+                        @Value("${app.slow-query.top-size:50}") int topSize) {
+        this.thresholdNanos = threshold.toNanos();
+        this.topSize = topSize;
+    }
+
+    /**
+     * @param nanos Duration of a statement
+     * @return true if the statement is slow and should be recorded
+     */
+    public boolean isSlow(long nanos) {
+        return nanos > thresholdNanos;
+    }
+
+    /**
+     * Record a slow statement
+     *
+     * @param sql      The SQL as prepared
+     * @param binds    The bind values, already formatted and redacted
+     * @param rows     Rows returned or changed, -1 if unknown
+     * @param nanos    Execution time
+     * @param callSite The repository method, or null if the statement was not run by a repository
+     */
+    public void record(String sql, List<String> binds, long rows, long nanos, String callSite) {
+        String shape = SqlShapes.normalize(sql);
+        String site = callSite != null ? callSite : "unknown";
+        logger.warn("{} ms, {} rows, {}: {} binds={}",
+                String.format(Locale.ROOT, "%.1f", nanos / NANOS_PER_MILLI), rows, site, shape, binds);
+
+        Entry entry = slowest.computeIfAbsent(shape, Entry::new);
+        entry.add(binds, rows, nanos, site);
+        if (slowest.size() > topSize * 2) {
+            trim();
+        }
+    }
+
+    /**
+     * Get the slowest statement shapes, slowest first
+     *
+     * @param limit Maximum number of shapes, a negative limit gives an empty list
+     * @return List of SlowQueryDTOs
+     */
+    public List<SlowQueryDTO> top(int limit) {
+        return slowest.values().stream()
+                .map(Entry::toDTO)
+                .sorted(Comparator.comparingDouble(SlowQueryDTO::maxMs).reversed())
+                .limit(Math.min(Math.max(limit, 0), topSize))
+                .toList();
+    }
+
+    /**
+     * Drop everything but the slowest shapes, so memory stays bounded
+     */
+    private synchronized void trim() {
+        if (slowest.size() <= topSize) {
+            return;
+        }
+        // read every max once, they can change while sorting
+        slowest.values().stream()
+                .map(entry -> Map.entry(entry, entry.maxNanos()))
+                .sorted(Map.Entry.comparingByValue())
+                .limit(slowest.size() - topSize)
+                .forEach(ranked -> slowest.remove(ranked.getKey().sql, ranked.getKey()));
+    }
+
+    /**
+     * Aggregate of one statement shape, only touched when a statement is slow
+     */
+    private static final class Entry {
+        private final String sql;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long rows;
+        private List<String> binds;
+        private String callSite;
+        private Instant lastSeen;
+
+        private Entry(String sql) {
+            this.sql = sql;
+        }
+
+        private synchronized void add(List<String> binds, long rows, long nanos, String callSite) {
+            count++;
+            totalNanos += nanos;
+            if (nanos >= maxNanos) {
+                maxNanos = nanos;
+                this.rows = rows;
+                this.binds = binds;
+            }
+            this.callSite = callSite;
+            this.lastSeen = Instant.now();
+        }
+
+        private synchronized long maxNanos() {
+            return maxNanos;
+        }
+
+        private synchronized SlowQueryDTO toDTO() {
+            return new SlowQueryDTO(sql, callSite, count,
+                    maxNanos / NANOS_PER_MILLI,
+                    count == 0 ? 0 : totalNanos / NANOS_PER_MILLI / count,
+                    rows, binds, lastSeen);
+        }
+    }
+}
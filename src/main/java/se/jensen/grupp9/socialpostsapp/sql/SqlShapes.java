@@ -0,0 +1,31 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL into its "shape", so statements that only differ in literal values
+ * or in the length of an IN list are counted as the same statement.
+ */
+public final class SqlShapes {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("(?i)(\\bin\\s*\\()\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlShapes() {
+    }
+
+    /**
+     * Get the shape of a statement
+     *
+     * @param sql The SQL as sent to the database
+     * @return The SQL with literals replaced by ?, IN lists collapsed and whitespace normalized
+     */
+    public static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("$1?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,293 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import javax.sql.DataSource;
+
+/**
+ * JDBC proxy around a connection pool that times every statement and reports the slow
+ * ones to {@link SlowQueryLog}.
+ * <p>
+ * Connections, statements and (for slow queries) result sets are wrapped in JDK dynamic
+ * proxies. Statements remember their bind values, so a slow statement is logged with the
+ * values it ran with; the values of {@code app_user.password} are replaced by ***.
+ * The time is measured around execute; for queries the rows are counted while the
+ * result set is read, and the statement is logged when the result set is closed.
+ * </p>
+ */
+public final class TimedDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final int MAX_BIND_LENGTH = 100;
+
+    private TimedDataSource() {
+    }
+
+    /**
+     * Wrap a DataSource. The proxy also implements {@link AutoCloseable} so the pool is
+     * still closed when the application stops.
+     *
+     * @param dataSource   The pool to wrap
+     * @param slowQueryLog Where slow statements are reported
+     * @return The timed DataSource
+     */
+    public static DataSource wrap(DataSource dataSource, SlowQueryLog slowQueryLog) {
+        return (DataSource) Proxy.newProxyInstance(
+                TimedDataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class, AutoCloseable.class},
+                (proxy, method, args) -> {
+                    if (isIdentityMethod(method)) {
+                        return identity(proxy, method, args);
+                    }
+                    if (method.getName().equals("close") && !(dataSource instanceof AutoCloseable)) {
+                        return null;
+                    }
+                    if (method.getName().equals("unwrap") && ((Class<?>) args[0]).isInstance(dataSource)) {
+                        return dataSource;
+                    }
+                    if (method.getName().equals("isWrapperFor") && ((Class<?>) args[0]).isInstance(dataSource)) {
+                        return true;
+                    }
+                    Object result = invoke(dataSource, method, args);
+                    return result instanceof Connection connection
+                            ? proxy(Connection.class, new ConnectionHandler(connection, slowQueryLog))
+                            : result;
+                });
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return (method.getName().equals("equals") && method.getParameterCount() == 1)
+                || (method.getName().equals("hashCode") && method.getParameterCount() == 0);
+    }
+
+    /**
+     * equals and hashCode of a proxy compare the proxy itself, the wrapped object does not know it
+     */
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private record ConnectionHandler(Connection connection, SlowQueryLog slowQueryLog) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = TimedDataSource.invoke(connection, method, args);
+            Connection timedConnection = (Connection) proxy;
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, new StatementHandler(statement, timedConnection, sql, slowQueryLog));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, new StatementHandler(statement, timedConnection, sql, slowQueryLog));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, new StatementHandler(statement, timedConnection, null, slowQueryLog));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times one statement, only used by the thread that runs it
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final Connection connection;
+        private final SlowQueryLog slowQueryLog;
+        private final String preparedSql;
+        private final List<Object> binds = new ArrayList<>();
+        private int batchSize;
+        private SlowExecution pending;
+
+        private StatementHandler(Statement statement, Connection connection, String preparedSql,
+                                 SlowQueryLog slowQueryLog) {
+            this.statement = statement;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+            this.slowQueryLog = slowQueryLog;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                return execute(method, args);
+            }
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                binds.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            } else if (name.equals("close")) {
+                finishPending();
+            } else if (name.equals("getResultSet") && pending != null) {
+                Object resultSet = TimedDataSource.invoke(statement, method, args);
+                return resultSet == null ? null : countRows((ResultSet) resultSet);
+            }
+            return TimedDataSource.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishPending();
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            Object result = TimedDataSource.invoke(statement, method, args);
+            long nanos = System.nanoTime() - start;
+            if (!slowQueryLog.isSlow(nanos) || sql == null) {
+                batchSize = 0;
+                return result;
+            }
+
+            SlowExecution execution = new SlowExecution(sql, formatBinds(sql), nanos, RepositoryCallSite.current());
+            batchSize = 0;
+            if (result instanceof ResultSet resultSet) {
+                pending = execution;
+                return countRows(resultSet);
+            }
+            if (result instanceof Boolean hasResultSet && hasResultSet) {
+                // rows are counted if the caller asks for the result set
+                pending = execution;
+                return result;
+            }
+            execution.rows = rows(result);
+            execution.report(slowQueryLog);
+            return result;
+        }
+
+        private ResultSet countRows(ResultSet resultSet) {
+            SlowExecution execution = pending;
+            execution.rows = 0;
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                if (isIdentityMethod(method)) {
+                    return identity(proxy, method, args);
+                }
+                Object result = TimedDataSource.invoke(resultSet, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    execution.rows++;
+                } else if (method.getName().equals("close")) {
+                    finishPending();
+                }
+                return result;
+            });
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                pending.report(slowQueryLog);
+                pending = null;
+            }
+        }
+
+        private long rows(Object result) throws Exception {
+            if (result instanceof Integer count) {
+                return count;
+            }
+            if (result instanceof Long count) {
+                return count;
+            }
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            return result instanceof Boolean ? statement.getUpdateCount() : -1;
+        }
+
+        private void bind(int index, Object value) {
+            while (binds.size() < index) {
+                binds.add(null);
+            }
+            binds.set(index - 1, value);
+        }
+
+        private List<String> formatBinds(String sql) {
+            if (batchSize > 0) {
+                return List.of("<batch of " + batchSize + ">");
+            }
+            BitSet sensitive = SensitiveParameters.find(sql);
+            List<String> formatted = new ArrayList<>(binds.size());
+            for (int i = 0; i < binds.size(); i++) {
+                formatted.add(sensitive.get(i + 1) ? "***" : format(binds.get(i)));
+            }
+            return formatted;
+        }
+
+        private static String format(Object value) {
+            if (value == null) {
+                return "null";
+            }
+            if (value instanceof byte[] bytes) {
+                return "<" + bytes.length + " bytes>";
+            }
+            String text = value.toString();
+            return text.length() > MAX_BIND_LENGTH ? text.substring(0, MAX_BIND_LENGTH) + "..." : text;
+        }
+    }
+
+    /**
+     * A slow execution waiting for its row count
+     */
+    private static final class SlowExecution {
+        private final String sql;
+        private final List<String> binds;
+        private final long nanos;
+        private final String callSite;
+        private long rows = -1;
+
+        private SlowExecution(String sql, List<String> binds, long nanos, String callSite) {
+            this.sql = sql;
+            this.binds = binds;
+            this.nanos = nanos;
+            this.callSite = callSite;
+        }
+
+        private void report(SlowQueryLog slowQueryLog) {
+            slowQueryLog.record(sql, binds, rows, nanos, callSite);
+        }
+    }
+}
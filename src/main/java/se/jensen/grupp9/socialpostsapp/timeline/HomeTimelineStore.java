@@ -0,0 +1,183 @@
+package se.jensen.grupp9.socialpostsapp.timeline;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.cache.RequestCoalescer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory home timelines, one {@link TimelineBuffer} per user.
+ * <p>
+ * Only the timelines of users who have read their feed recently are kept, bounded in
+ * number and dropped after being idle. New posts are pushed only to timelines that are
+ * in memory; a missing timeline is built from the database on the next read.
+ * </p>
+ * <p>
+ * A post pushed while a timeline is being built may be missing from the snapshot the build
+ * reads. Such posts are held for the build and added to the timeline before it is
+ * published. A post committed before the build started is in the snapshot, as long as the
+ * snapshot is read from the primary database.
+ * </p>
+ * <p>
+ * Builds run outside the cache, so a slow query does not block other users' timelines,
+ * and concurrent misses for the same user share one build. A timeline dropped while it is
+ * being built is not published, its build may have read the old follow set.
+ * </p>
+ * <p>
+ * Authors with at least {@code timeline.celebrity-threshold} followers are not pushed
+ * to timelines at all, their posts are merged in when a feed is read.
+ * </p>
+ */
+@Component
+public class HomeTimelineStore {
+
+    private final Cache<Long, TimelineBuffer> timelines;
+    private final ConcurrentHashMap<Long, PendingPushes> loading = new ConcurrentHashMap<>();
+    private final RequestCoalescer<Long, TimelineBuffer> loads = new RequestCoalescer<>();
+    private final int capacity;
+    private final long celebrityThreshold;
+
+    /**
+     * @param capacity           Maximum number of posts per timeline
+     * @param maxUsers           Maximum number of timelines in memory
+     * @param idleTtl            Time a timeline is kept after it was last read
+     * @param celebrityThreshold Follower count from which an author's posts are pulled instead of pushed
+     */
+    public HomeTimelineStore(@Value("${timeline.capacity:800}") int capacity,
+                             @Value("${timeline.max-users:100000}") long maxUsers,
+                             @Value("${timeline.idle-ttl:1h}") Duration idleTtl,
+                             @Value("${timeline.celebrity-threshold:10000}") long celebrityThreshold) {
+        this.capacity = capacity;
+        this.celebrityThreshold = celebrityThreshold;
+        this.timelines = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTtl)
+                .build();
+    }
+
+    /**
+     * Get the timeline of a user, or build it on a miss.
+     * Concurrent misses for the same user share one load.
+     *
+     * @param userId The user ID
+     * @param loader Builds the timeline from the database
+     * @return The timeline
+     */
+    public TimelineBuffer get(Long userId, Function<Long, TimelineBuffer> loader) {
+        TimelineBuffer timeline = timelines.getIfPresent(userId);
+        if (timeline != null) {
+            return timeline;
+        }
+        return loads.load(userId, id -> load(id, loader));
+    }
+
+    private TimelineBuffer load(Long userId, Function<Long, TimelineBuffer> loader) {
+        // a build that finished after this caller missed the cache
+        TimelineBuffer cached = timelines.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        PendingPushes pending = new PendingPushes();
+        loading.put(userId, pending);
+        try {
+            TimelineBuffer timeline = loader.apply(userId);
+            pending.drainTo(timeline);
+            // published before the build is forgotten, so pushes always find one of them
+            pending.publish(() -> timelines.put(userId, timeline));
+            return timeline;
+        } finally {
+            loading.remove(userId, pending);
+        }
+    }
+
+    /**
+     * Add a post to the timeline of a user, if it is in memory
+     *
+     * @param userId The user ID
+     * @param entry  The post
+     * @return True if the post was added
+     */
+    public boolean push(Long userId, TimelineEntry entry) {
+        // checked before the cache: the build is only forgotten once its timeline is in the cache
+        PendingPushes pending = loading.get(userId);
+        if (pending != null) {
+            return pending.add(entry);
+        }
+        TimelineBuffer timeline = timelines.getIfPresent(userId);
+        return timeline != null && timeline.add(entry);
+    }
+
+    /**
+     * Drop the timeline of a user, e.g. after they followed or unfollowed someone
+     *
+     * @param userId The user ID
+     */
+    public void invalidate(Long userId) {
+        PendingPushes pending = loading.get(userId);
+        if (pending != null) {
+            pending.markStale();
+        }
+        timelines.invalidate(userId);
+    }
+
+    /**
+     * @return Maximum number of posts per timeline
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Follower count from which an author's posts are pulled instead of pushed
+     */
+    public long celebrityThreshold() {
+        return celebrityThreshold;
+    }
+
+    /**
+     * @return Approximate number of timelines in memory
+     */
+    public long size() {
+        return timelines.estimatedSize();
+    }
+
+    /**
+     * Posts pushed to a timeline while it is being built, and whether it was dropped meanwhile
+     */
+    private static final class PendingPushes {
+        private final List<TimelineEntry> entries = new ArrayList<>();
+        private TimelineBuffer timeline;
+        private boolean stale;
+
+        synchronized boolean add(TimelineEntry entry) {
+            if (timeline != null) {
+                return timeline.add(entry);
+            }
+            return entries.add(entry);
+        }
+
+        synchronized void drainTo(TimelineBuffer built) {
+            entries.forEach(built::add);
+            entries.clear();
+            timeline = built;
+        }
+
+        // under the same lock as markStale, so a drop cannot fall between the check and the put
+        synchronized void publish(Runnable put) {
+            if (!stale) {
+                put.run();
+            }
+        }
+
+        synchronized void markStale() {
+            stale = true;
+        }
+    }
+}
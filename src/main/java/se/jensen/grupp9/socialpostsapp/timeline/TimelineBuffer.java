@@ -0,0 +1,163 @@
+package se.jensen.grupp9.socialpostsapp.timeline;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded home timeline of one user, kept in two primitive long arrays used as a ring.
+ * <p>
+ * Entries are sorted by (createdAt, id), oldest at the head. New posts almost always go at
+ * the end, so adding is O(1) in the common case; a late arrival is inserted in place. When
+ * the buffer is full the oldest entry is dropped. A page is read with a binary search for
+ * the cursor and a copy of the page, O(log capacity + page size).
+ * </p>
+ * <p>
+ * A buffer is "complete" while it holds every post of the timeline. Once entries have been
+ * dropped (or it was built from a query that hit the capacity) older pages must come from
+ * the database.
+ * </p>
+ * Methods are synchronized, a buffer belongs to one reader and only sees a few writes.
+ */
+public class TimelineBuffer {
+
+    private final long[] times;
+    private final long[] postIds;
+    private int head;
+    private int size;
+    private boolean complete;
+
+    /**
+     * @param capacity Maximum number of entries
+     * @param complete True if the buffer starts out with the whole timeline
+     */
+    public TimelineBuffer(int capacity, boolean complete) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.times = new long[capacity];
+        this.postIds = new long[capacity];
+        this.complete = complete;
+    }
+
+    /**
+     * Add a post, keeping the entries sorted. Duplicates are ignored.
+     *
+     * @param entry The post to add
+     * @return True if the entry was added
+     */
+    public synchronized boolean add(TimelineEntry entry) {
+        long time = toMicros(entry.createdAt());
+        long postId = entry.postId();
+        int capacity = postIds.length;
+        int position = lowerBound(time, postId);
+        if (position < size && compare(position, time, postId) == 0) {
+            return false;
+        }
+        if (size == capacity) {
+            complete = false;
+            if (position == 0) {
+                // older than everything that is kept
+                return false;
+            }
+            head = (head + 1) % capacity;
+            size--;
+            position--;
+        }
+        for (int i = size; i > position; i--) {
+            int to = slot(i);
+            int from = slot(i - 1);
+            times[to] = times[from];
+            postIds[to] = postIds[from];
+        }
+        int target = slot(position);
+        times[target] = time;
+        postIds[target] = postId;
+        size++;
+        return true;
+    }
+
+    /**
+     * Get the newest entries, newest first
+     *
+     * @param limit Maximum number of entries
+     * @return List of entries
+     */
+    public synchronized List<TimelineEntry> newest(int limit) {
+        return collect(size, limit);
+    }
+
+    /**
+     * Get the entries older than a cursor position, newest first
+     *
+     * @param createdAt Creation time of the last post the reader has seen
+     * @param postId    ID of the last post the reader has seen
+     * @param limit     Maximum number of entries
+     * @return List of entries
+     */
+    public synchronized List<TimelineEntry> before(LocalDateTime createdAt, long postId, int limit) {
+        return collect(lowerBound(toMicros(createdAt), postId), limit);
+    }
+
+    /**
+     * @return True if the buffer holds the whole timeline
+     */
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private List<TimelineEntry> collect(int end, int limit) {
+        int count = Math.min(end, limit);
+        List<TimelineEntry> entries = new ArrayList<>(count);
+        for (int i = end - 1; i >= end - count; i--) {
+            int slot = slot(i);
+            entries.add(new TimelineEntry(postIds[slot], fromMicros(times[slot])));
+        }
+        return entries;
+    }
+
+    /**
+     * @return Position of the first entry that is not older than (time, postId)
+     */
+    private int lowerBound(long time, long postId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, time, postId) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int position, long time, long postId) {
+        int slot = slot(position);
+        int byTime = Long.compare(times[slot], time);
+        return byTime != 0 ? byTime : Long.compare(postIds[slot], postId);
+    }
+
+    private int slot(int position) {
+        return (head + position) % postIds.length;
+    }
+
+    // microseconds, the precision the database keeps
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
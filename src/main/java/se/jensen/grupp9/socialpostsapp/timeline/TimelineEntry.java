@@ -0,0 +1,23 @@
+package se.jensen.grupp9.socialpostsapp.timeline;
+
+import se.jensen.grupp9.socialpostsapp.model.Post;
+
+import java.time.LocalDateTime;
+
+/**
+ * A post on a home timeline, only what is needed to order and page it.
+ * The rest of the post is loaded when a page is read.
+ *
+ * @param postId    ID of the post
+ * @param createdAt Creation time of the post
+ */
+public record TimelineEntry(Long postId, LocalDateTime createdAt) {
+
+    /**
+     * @param post A saved post
+     * @return The timeline entry of the post
+     */
+    public static TimelineEntry from(Post post) {
+        return new TimelineEntry(post.getId(), post.getCreatedAt());
+    }
+}
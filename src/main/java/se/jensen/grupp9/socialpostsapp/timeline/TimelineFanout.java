@@ -0,0 +1,95 @@
+package se.jensen.grupp9.socialpostsapp.timeline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+import se.jensen.grupp9.socialpostsapp.repository.FollowRepository;
+import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Pushes new posts onto the home timelines of the author and their followers (fan-out on write).
+ * <p>
+ * Runs asynchronously, so creating a post does not wait for it. Followers are read in
+ * batches of {@code timeline.fanout.batch-size} IDs with keyset pagination, so the memory
+ * used does not grow with the number of followers.
+ * </p>
+ * <p>
+ * Posts by authors with at least {@code timeline.celebrity-threshold} followers only go to
+ * the author's own timeline; readers pull them in when the feed is read (hybrid push/pull).
+ * </p>
+ */
+@Component
+public class TimelineFanout {
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final HomeTimelineStore timelineStore;
+    private final AppLogger logger;
+    private final int batchSize;
+
+    public TimelineFanout(FollowRepository followRepository,
+                          UserRepository userRepository,
+                          HomeTimelineStore timelineStore,
+                          AppLogger logger,
+                          @Value("${timeline.fanout.batch-size:1000}") int batchSize) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.timelineStore = timelineStore;
+        this.logger = logger;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Push new posts of an author to the timelines in memory
+     *
+     * @param authorId The author's ID
+     * @param entries  The new posts
+     */
+    @Async
+    public void fanOut(Long authorId, List<TimelineEntry> entries) {
+        try {
+            entries.forEach(entry -> timelineStore.push(authorId, entry));
+            long followerCount = userRepository.findFollowerCount(authorId).orElse(0L);
+            if (followerCount >= timelineStore.celebrityThreshold()) {
+                return;
+            }
+            forEachFollower(authorId, followerId -> entries.forEach(entry -> timelineStore.push(followerId, entry)));
+        } catch (RuntimeException e) {
+            // the timelines miss the posts until they are rebuilt from the database
+            logger.error("Timeline fan-out for user {} failed: {}", authorId, e.getMessage());
+        }
+    }
+
+    /**
+     * Drop the timelines of an author's followers from memory, after the author crossed the
+     * celebrity threshold. The timelines are rebuilt with or without the author's posts on
+     * the next read.
+     *
+     * @param authorId The author's ID
+     */
+    @Async
+    public void invalidateFollowers(Long authorId) {
+        try {
+            forEachFollower(authorId, timelineStore::invalidate);
+        } catch (RuntimeException e) {
+            logger.error("Timeline invalidation for followers of user {} failed: {}", authorId, e.getMessage());
+        }
+    }
+
+    private void forEachFollower(Long authorId, Consumer<Long> action) {
+        long afterId = 0;
+        List<Long> batch;
+        do {
+            batch = followRepository.findFollowerIdsAfter(authorId, afterId, PageRequest.of(0, batchSize));
+            batch.forEach(action);
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == batchSize);
+    }
+}
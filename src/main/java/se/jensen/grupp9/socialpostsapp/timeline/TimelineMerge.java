@@ -0,0 +1,70 @@
+package se.jensen.grupp9.socialpostsapp.timeline;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * K-way merge of timeline sources that are each sorted newest first by (createdAt, id).
+ * <p>
+ * A heap holds the head of every source, so taking n entries from k sources costs
+ * O(n log k). A post that is in more than one source (e.g. pushed to the timeline before
+ * its author passed the celebrity threshold) is returned once.
+ * </p>
+ */
+public final class TimelineMerge {
+
+    private static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+            .comparing(TimelineEntry::createdAt)
+            .thenComparing(TimelineEntry::postId)
+            .reversed();
+
+    private TimelineMerge() {
+    }
+
+    /**
+     * Merge sources into one list, newest first
+     *
+     * @param sources Lists of entries, each sorted newest first
+     * @param limit   Maximum number of entries to return
+     * @return The newest entries of all sources, without duplicates
+     */
+    public static List<TimelineEntry> merge(List<List<TimelineEntry>> sources, int limit) {
+        if (sources.size() == 1) {
+            List<TimelineEntry> only = sources.get(0);
+            return only.subList(0, Math.min(only.size(), limit));
+        }
+        PriorityQueue<Head> heap = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> NEWEST_FIRST.compare(a.entry(), b.entry()));
+        for (List<TimelineEntry> source : sources) {
+            if (!source.isEmpty()) {
+                heap.add(new Head(source, 0));
+            }
+        }
+
+        List<TimelineEntry> merged = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        while (merged.size() < limit && !heap.isEmpty()) {
+            Head head = heap.poll();
+            if (seen.add(head.entry().postId())) {
+                merged.add(head.entry());
+            }
+            if (head.position() + 1 < head.source().size()) {
+                heap.add(new Head(head.source(), head.position() + 1));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Current position in one source
+     */
+    private record Head(List<TimelineEntry> source, int position) {
+        TimelineEntry entry() {
+            return source.get(position);
+        }
+    }
+}
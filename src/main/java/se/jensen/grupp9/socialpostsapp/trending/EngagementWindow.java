@@ -0,0 +1,116 @@
+package se.jensen.grupp9.socialpostsapp.trending;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Views and comments per post over a rolling time window.
+ * <p>
+ * The window is a ring of buckets of a fixed length. Each bucket maps a post ID to two
+ * {@link LongAdder}s, so many threads counting the same (viral) post do not contend on one
+ * field. A bucket is replaced by an empty one the first time it is used for a new period;
+ * counts that race with the replacement can be lost, so the numbers are approximate.
+ * Buckets older than the window are skipped when the counts are read.
+ * </p>
+ */
+public class EngagementWindow {
+
+    private final long bucketMillis;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * @param bucketCount Number of buckets in the window
+     * @param bucketSize  Length of one bucket
+     */
+    public EngagementWindow(int bucketCount, Duration bucketSize) {
+        if (bucketCount < 1 || bucketSize.toMillis() < 1) {
+            throw new IllegalArgumentException("bucketCount and bucketSize must be positive");
+        }
+        this.bucketMillis = bucketSize.toMillis();
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    /**
+     * Count a view of a post
+     *
+     * @param postId    The post ID
+     * @param nowMillis Current time in milliseconds, from the same clock on every call
+     */
+    public void recordView(long postId, long nowMillis) {
+        counts(postId, nowMillis).views.increment();
+    }
+
+    /**
+     * Count a new comment on a post
+     *
+     * @param postId    The post ID
+     * @param nowMillis Current time in milliseconds, from the same clock on every call
+     */
+    public void recordComment(long postId, long nowMillis) {
+        counts(postId, nowMillis).comments.increment();
+    }
+
+    /**
+     * Visit the counts of every post in every bucket of the window. A post counted in
+     * several buckets is visited once per bucket.
+     *
+     * @param nowMillis Current time in milliseconds
+     * @param visitor   Gets the counts of a post in one bucket and the age of that bucket
+     */
+    public void forEach(long nowMillis, EngagementVisitor visitor) {
+        long currentSlot = Math.floorDiv(nowMillis, bucketMillis);
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket == null || bucket.slot > currentSlot || bucket.slot <= currentSlot - buckets.length()) {
+                continue;
+            }
+            // age of the middle of the bucket
+            long ageMillis = Math.max(0, nowMillis - bucket.slot * bucketMillis - bucketMillis / 2);
+            bucket.posts.forEach((postId, counts) ->
+                    visitor.accept(postId, counts.views.sum(), counts.comments.sum(), ageMillis));
+        }
+    }
+
+    private Counts counts(long postId, long nowMillis) {
+        return bucket(Math.floorDiv(nowMillis, bucketMillis)).posts.computeIfAbsent(postId, id -> new Counts());
+    }
+
+    private Bucket bucket(long slot) {
+        int index = (int) Math.floorMod(slot, (long) buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            // a caller with a slightly older time counts in the newer bucket
+            if (bucket != null && bucket.slot >= slot) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(slot);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Receives the counts of one post in one bucket
+     */
+    @FunctionalInterface
+    public interface EngagementVisitor {
+        void accept(long postId, long views, long comments, long ageMillis);
+    }
+
+    private static final class Bucket {
+        private final long slot;
+        private final ConcurrentHashMap<Long, Counts> posts = new ConcurrentHashMap<>();
+
+        private Bucket(long slot) {
+            this.slot = slot;
+        }
+    }
+
+    private static final class Counts {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder comments = new LongAdder();
+    }
+}
@@ -0,0 +1,149 @@
+package se.jensen.grupp9.socialpostsapp.trending;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.jensen.grupp9.socialpostsapp.dto.DTOMapper;
+import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostView;
+import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Posts ranked by recent engagement, served from memory.
+ * <p>
+ * Views (from {@code PostService.getPostById}) and new comments (from
+ * {@code CommentService.createComment}) are counted in an {@link EngagementWindow}.
+ * A scheduled refresh scores every post in the window as the weighted views and comments
+ * of each bucket, halved for every half-life of the bucket's age, keeps the best posts in
+ * a bounded heap and loads them with one query by ID. The ranked list replaces the previous
+ * one through a volatile field, so reading it costs no SQL and never waits for a refresh.
+ * The counts are per application instance and start empty.
+ * </p>
+ */
+@Component
+public class TrendingPosts {
+
+    private final PostRepository postRepository;
+    private final EngagementWindow window;
+    private final Clock clock;
+    private final double viewWeight;
+    private final double commentWeight;
+    private final double halfLifeMillis;
+    private final int size;
+
+    private volatile List<PostResponseDTO> ranked = List.of();
+
+    /**
+     * @param bucketCount   Number of buckets in the rolling window
+     * @param bucketSize    Length of one bucket
+     * @param viewWeight    Score of one view
+     * @param commentWeight Score of one comment
+     * @param halfLife      Age at which engagement counts half
+     * @param size          Number of posts kept in the ranking
+     */
+    @Autowired
+    public TrendingPosts(PostRepository postRepository,
+                         @Value("${trending.buckets:12}") int bucketCount,
+                         @Value("${trending.bucket-size:5m}") Duration bucketSize,
+                         @Value("${trending.view-weight:1}") double viewWeight,
+                         @Value("${trending.comment-weight:5}") double commentWeight,
+                         @Value("${trending.half-life:30m}") Duration halfLife,
+                         @Value("${trending.size:100}") int size) {
+        this(postRepository, bucketCount, bucketSize, viewWeight, commentWeight, halfLife, size, Clock.systemUTC());
+    }
+
+    TrendingPosts(PostRepository postRepository, int bucketCount, Duration bucketSize,
+                  double viewWeight, double commentWeight, Duration halfLife, int size, Clock clock) {
+        this.postRepository = postRepository;
+        this.window = new EngagementWindow(bucketCount, bucketSize);
+        this.clock = clock;
+        this.viewWeight = viewWeight;
+        this.commentWeight = commentWeight;
+        this.halfLifeMillis = halfLife.toMillis();
+        this.size = size;
+    }
+
+    /**
+     * Count a view of a post
+     *
+     * @param postId The post ID
+     */
+    public void recordView(long postId) {
+        window.recordView(postId, clock.millis());
+    }
+
+    /**
+     * Count a new comment on a post
+     *
+     * @param postId The post ID
+     */
+    public void recordComment(long postId) {
+        window.recordComment(postId, clock.millis());
+    }
+
+    /**
+     * Get the trending posts as of the last refresh
+     *
+     * @param limit Maximum number of posts
+     * @return Posts, highest score first
+     */
+    public List<PostResponseDTO> top(int limit) {
+        List<PostResponseDTO> current = ranked;
+        return current.subList(0, Math.min(Math.max(limit, 0), current.size()));
+    }
+
+    /**
+     * Score the posts in the window and replace the ranking.
+     *
+     * @return Number of ranked posts
+     */
+    @Scheduled(initialDelayString = "${trending.refresh-interval-ms:15000}",
+            fixedDelayString = "${trending.refresh-interval-ms:15000}")
+    public int refresh() {
+        Map<Long, Double> scores = new HashMap<>();
+        window.forEach(clock.millis(), (postId, views, comments, ageMillis) -> {
+            double decay = Math.pow(0.5, ageMillis / halfLifeMillis);
+            scores.merge(postId, (views * viewWeight + comments * commentWeight) * decay, Double::sum);
+        });
+
+        // head is the lowest score kept so far, ties are won by the newer post
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(size + 1,
+                Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            best.offer(entry);
+            if (best.size() > size) {
+                best.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().getKey());
+        }
+        Collections.reverse(ids);
+
+        // posts deleted since they were counted are left out
+        Map<Long, PostView> posts = ids.isEmpty() ? Map.of() : postRepository.findViewsByIdIn(ids)
+                .stream()
+                .collect(toMap(PostView::id, Function.identity()));
+        ranked = ids.stream()
+                .map(posts::get)
+                .filter(Objects::nonNull)
+                .map(DTOMapper::toPostResponseDTO)
+                .toList();
+        return ranked.size();
+    }
+}
@@ -0,0 +1,92 @@
+package se.jensen.grupp9.socialpostsapp.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Test helper that runs the same call from many threads at the same time.
+ * <p>
+ * The loader under test should block on the release latch. All callers are started,
+ * and the latch is opened only when every caller is waiting (either inside the loader
+ * or for another caller's load), so all of them overlap with the first load.
+ * </p>
+ */
+public final class ConcurrentCallers {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private ConcurrentCallers() {
+    }
+
+    /**
+     * Run a call from several threads at once and collect the results.
+     *
+     * @param callers Number of concurrent callers
+     * @param release Latch the loader waits on, opened when all callers are waiting
+     * @param call    The call to run
+     * @param <T>     The result type
+     * @return The result of every caller
+     */
+    public static <T> List<T> call(int callers, CountDownLatch release, Callable<T> call) throws Exception {
+        AtomicReferenceArray<Object> results = new AtomicReferenceArray<>(callers);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    results.set(index, call.call());
+                } catch (Exception e) {
+                    results.set(index, e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!allWaiting(threads) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        List<T> values = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            threads.get(i).join(TIMEOUT_MILLIS);
+            Object result = results.get(i);
+            if (result instanceof Exception e) {
+                throw e;
+            }
+            @SuppressWarnings("unchecked")
+            T value = (T) result;
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * Block a loader under test until {@link #call} releases the callers
+     *
+     * @param release The release latch passed to {@link #call}
+     */
+    public static void await(CountDownLatch release) throws InterruptedException {
+        if (!release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("callers were not released in time");
+        }
+    }
+
+    private static boolean allWaiting(List<Thread> threads) {
+        for (Thread thread : threads) {
+            Thread.State state = thread.getState();
+            if (state != Thread.State.WAITING
+                    && state != Thread.State.TIMED_WAITING
+                    && state != Thread.State.BLOCKED) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
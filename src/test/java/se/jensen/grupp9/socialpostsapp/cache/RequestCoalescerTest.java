@@ -0,0 +1,67 @@
+package se.jensen.grupp9.socialpostsapp.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescerTest {
+
+    private static final int CALLERS = 32;
+
+    private final RequestCoalescer<Long, String> coalescer = new RequestCoalescer<>();
+
+    @Test
+    void testLoad_concurrentCallersShareOneLoad() throws Exception {
+        //arrange (loader counts its calls and blocks until all callers are waiting)
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        //act
+        List<String> results = ConcurrentCallers.call(CALLERS, release, () ->
+                coalescer.load(1L, key -> {
+                    loads.incrementAndGet();
+                    try {
+                        ConcurrentCallers.await(release);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return "post " + key;
+                }));
+
+        //assert (one load, every caller got its result, nothing left in flight)
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS, results.size());
+        results.forEach(result -> assertEquals("post 1", result));
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void testLoad_sequentialCallersLoadAgain() {
+        //arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        //act (nothing is cached between two calls that do not overlap)
+        coalescer.load(1L, key -> "load " + loads.incrementAndGet());
+        String result = coalescer.load(1L, key -> "load " + loads.incrementAndGet());
+
+        //assert
+        assertEquals("load 2", result);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoad_exceptionIsPassedOn() {
+        //act, assert (loader exception reaches the caller unwrapped and the key is freed)
+        assertThrows(NoSuchElementException.class, () ->
+                coalescer.load(1L, key -> {
+                    throw new NoSuchElementException("missing");
+                }));
+        assertEquals(0, coalescer.inFlightCount());
+        assertEquals("found", coalescer.load(1L, key -> "found"));
+    }
+}
@@ -0,0 +1,79 @@
+package se.jensen.grupp9.socialpostsapp.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards a local H2 database with room for two connections at a time.
+ */
+public class GuardedDataSourceTest {
+
+    private GuardedDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource target = new DriverManagerDataSource("jdbc:h2:mem:guarded;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource = new GuardedDataSource(target, 2, Duration.ofMillis(100));
+    }
+
+    @Test
+    void testGetConnection_failsWhenAllPermitsAreTaken() throws Exception {
+        //arrange
+        try (Connection first = dataSource.getConnection();
+             Connection second = dataSource.getConnection()) {
+
+            //act + assert
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+    }
+
+    @Test
+    void testClose_releasesPermitOnlyOnce() throws Exception {
+        //arrange (closing the same connection twice must not free two permits)
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        //act
+        try (Connection second = dataSource.getConnection();
+             Connection third = dataSource.getConnection()) {
+
+            //assert
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+    }
+
+    @Test
+    void testGetConnection_waitsForClosedConnection() throws Exception {
+        //arrange (only one connection at a time)
+        dataSource = new GuardedDataSource(dataSource.getTargetDataSource(), 1, Duration.ofSeconds(5));
+        Connection held = dataSource.getConnection();
+
+        //act (a waiting caller gets the connection when the holder closes it)
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getWaitingThreads() == 0) {
+            Thread.onSpinWait();
+        }
+        held.close();
+
+        //assert
+        try (Connection connection = waiting.get(5, TimeUnit.SECONDS)) {
+            assertTrue(connection.isValid(1));
+        }
+    }
+}
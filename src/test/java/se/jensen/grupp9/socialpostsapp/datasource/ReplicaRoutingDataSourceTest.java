@@ -0,0 +1,139 @@
+package se.jensen.grupp9.socialpostsapp.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes transactions between two local H2 databases that stand in for the primary and the replica.
+ * Each database has a table with its own name, so a query shows where it ran.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource primaryDataSource = database("primary");
+        DataSource replicaDataSource = database("replica");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        replica.execute("INSERT INTO replica_lag VALUES (0)");
+
+        lagMonitor = new ReplicaLagMonitor(replicaDataSource, "SELECT seconds FROM replica_lag",
+                Duration.ofSeconds(5), new AppLogger());
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, lagMonitor));
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void testReadOnlyTransaction_usesReplica() {
+        //arrange (replica is caught up)
+        lagMonitor.check();
+
+        //act
+        String database = readTransaction.execute(status -> currentDatabase());
+
+        //assert
+        assertTrue(lagMonitor.isReplicaUsable());
+        assertEquals("replica", database);
+    }
+
+    @Test
+    void testWriteTransaction_usesPrimary() {
+        //arrange
+        lagMonitor.check();
+
+        //act (write and read back in a read-write transaction)
+        String database = writeTransaction.execute(status -> {
+            jdbcTemplate.update("UPDATE db SET name = 'primary written'");
+            return currentDatabase();
+        });
+
+        //assert (the write went to the primary, the replica is untouched)
+        assertEquals("primary written", database);
+        assertEquals("replica", replica.queryForObject("SELECT name FROM db", String.class));
+    }
+
+    @Test
+    void testNoTransaction_usesPrimary() {
+        //arrange
+        lagMonitor.check();
+
+        //act, assert
+        assertEquals("primary", currentDatabase());
+    }
+
+    @Test
+    void testReadOnlyTransaction_fallsBackToPrimaryWhenReplicaLags() {
+        //arrange (replica is 30 seconds behind, more than the allowed 5)
+        replica.update("UPDATE replica_lag SET seconds = 30");
+        lagMonitor.check();
+
+        //act
+        String database = readTransaction.execute(status -> currentDatabase());
+
+        //assert
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertEquals(30.0, lagMonitor.getLagSeconds());
+        assertEquals("primary", database);
+    }
+
+    @Test
+    void testReadOnlyTransaction_usesPrimaryBeforeFirstCheck() {
+        //act (no lag check has run yet)
+        String database = readTransaction.execute(status -> currentDatabase());
+
+        //assert
+        assertEquals("primary", database);
+    }
+
+    @Test
+    void testLagCheckFailure_marksReplicaUnusable() {
+        //arrange (replica was usable, then the lag query starts failing)
+        lagMonitor.check();
+        replica.execute("DROP TABLE replica_lag");
+
+        //act
+        lagMonitor.check();
+
+        //assert
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertEquals("primary", readTransaction.execute(status -> currentDatabase()));
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT name FROM db", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE db (name VARCHAR(50))");
+        jdbc.update("INSERT INTO db VALUES (?)", name);
+        return dataSource;
+    }
+}
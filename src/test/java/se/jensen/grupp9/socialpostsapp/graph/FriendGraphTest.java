@@ -0,0 +1,80 @@
+package se.jensen.grupp9.socialpostsapp.graph;
+
+import org.junit.jupiter.api.Test;
+import se.jensen.grupp9.socialpostsapp.model.FriendshipStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FriendGraphTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void testOf_storesFriendshipsInBothDirections() {
+        //act (1-2 twice, 1-3, 2-3 and a friendship with oneself)
+        FriendGraph graph = FriendGraph.of(new long[]{1, 2, 3, 2, 4}, new long[]{2, 1, 1, 3, 4}, 5);
+
+        //assert (duplicates and user 4 are left out, friends are sorted)
+        assertArrayEquals(new long[]{2, 3}, graph.friendsOf(1));
+        assertArrayEquals(new long[]{1, 3}, graph.friendsOf(2));
+        assertArrayEquals(new long[]{1, 2}, graph.friendsOf(3));
+        assertEquals(0, graph.degree(4));
+        assertEquals(3, graph.userCount());
+        assertEquals(3, graph.friendshipCount());
+        assertTrue(graph.areFriends(3, 2));
+    }
+
+    @Test
+    void testApply_addsAndRemovesFriendships() {
+        //arrange
+        FriendGraph graph = FriendGraph.of(new long[]{1, 1}, new long[]{2, 3}, 2);
+
+        //act (1-2 ends, 3-4 and 5-1 start)
+        FriendGraph changed = graph.apply(List.of(
+                change(1, 1, 2, FriendshipStatus.REMOVED),
+                change(2, 3, 4, FriendshipStatus.ACCEPTED),
+                change(3, 5, 1, FriendshipStatus.ACCEPTED)));
+
+        //assert (user 2 has no friends left, the old graph is unchanged)
+        assertArrayEquals(new long[]{3, 5}, changed.friendsOf(1));
+        assertArrayEquals(new long[0], changed.friendsOf(2));
+        assertArrayEquals(new long[]{1, 4}, changed.friendsOf(3));
+        assertArrayEquals(new long[]{1}, changed.friendsOf(5));
+        assertEquals(4, changed.userCount());
+        assertArrayEquals(new long[]{2, 3}, graph.friendsOf(1));
+    }
+
+    @Test
+    void testApply_lastChangeOfAPairWins() {
+        //arrange
+        FriendGraph graph = FriendGraph.of(new long[]{1}, new long[]{2}, 1);
+
+        //act (2-3 is requested, accepted and ended; 1-2 is read again without a change)
+        FriendGraph changed = graph.apply(List.of(
+                change(2, 2, 3, FriendshipStatus.PENDING),
+                change(2, 2, 3, FriendshipStatus.ACCEPTED),
+                change(1, 1, 2, FriendshipStatus.ACCEPTED),
+                change(2, 3, 2, FriendshipStatus.REMOVED)));
+
+        //assert
+        assertArrayEquals(new long[]{2}, changed.friendsOf(1));
+        assertArrayEquals(new long[]{1}, changed.friendsOf(2));
+        assertEquals(0, changed.degree(3));
+    }
+
+    @Test
+    void testApply_noChangesKeepsGraph() {
+        //arrange
+        FriendGraph graph = FriendGraph.of(new long[]{1}, new long[]{2}, 1);
+
+        //act & assert
+        assertSame(graph, graph.apply(List.of()));
+    }
+
+    private static FriendshipChange change(long id, long requesterId, long addresseeId, FriendshipStatus status) {
+        return new FriendshipChange(id, requesterId, addresseeId, status, NOW);
+    }
+}
@@ -0,0 +1,94 @@
+package se.jensen.grupp9.socialpostsapp.graph;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MutualFriendScorerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final MutualFriendScorer scorer = new MutualFriendScorer(pool);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testSuggest_ranksByMutualFriends() {
+        //arrange (1 is friends with 2, 3 and 4; 5 knows 2, 3 and 4; 6 knows 2 and 3; 7 knows 4; 2 and 3 are friends)
+        FriendGraph graph = FriendGraph.of(
+                new long[]{1, 1, 1, 5, 5, 5, 6, 6, 7, 2},
+                new long[]{2, 3, 4, 2, 3, 4, 2, 3, 4, 3}, 10);
+
+        //act
+        List<FriendSuggestion> suggestions = scorer.suggest(graph, 1, 10);
+
+        //assert (friends and the user are never suggested, ties by lowest ID)
+        assertEquals(List.of(
+                new FriendSuggestion(5, 3),
+                new FriendSuggestion(6, 2),
+                new FriendSuggestion(7, 1)), suggestions);
+    }
+
+    @Test
+    void testSuggest_keepsOnlyTheBest() {
+        //arrange
+        FriendGraph graph = FriendGraph.of(
+                new long[]{1, 1, 5, 5, 6},
+                new long[]{2, 3, 2, 3, 2}, 5);
+
+        //act
+        List<FriendSuggestion> suggestions = scorer.suggest(graph, 1, 1);
+
+        //assert
+        assertEquals(List.of(new FriendSuggestion(5, 2)), suggestions);
+    }
+
+    @Test
+    void testSuggest_splitsLargeFriendListsOverTasks() {
+        //arrange (user 0 has 1000 friends, user 1_000_000 + k is friends with every friend divisible by k)
+        int friendCount = 1000;
+        int size = friendCount;
+        for (int k = 1; k <= 5; k++) {
+            size += friendCount / k;
+        }
+        long[] first = new long[size];
+        long[] second = new long[size];
+        int n = 0;
+        for (long friend = 1; friend <= friendCount; friend++) {
+            first[n] = 0;
+            second[n++] = friend;
+            for (int k = 1; k <= 5; k++) {
+                if (friend % k == 0) {
+                    first[n] = 1_000_000 + k;
+                    second[n++] = friend;
+                }
+            }
+        }
+        FriendGraph graph = FriendGraph.of(first, second, n);
+
+        //act
+        List<FriendSuggestion> suggestions = scorer.suggest(graph, 0, 3);
+
+        //assert
+        assertEquals(List.of(
+                new FriendSuggestion(1_000_001, 1000),
+                new FriendSuggestion(1_000_002, 500),
+                new FriendSuggestion(1_000_003, 333)), suggestions);
+    }
+
+    @Test
+    void testSuggest_userWithoutFriends() {
+        //arrange
+        FriendGraph graph = FriendGraph.of(new long[]{1}, new long[]{2}, 1);
+
+        //act & assert
+        assertTrue(scorer.suggest(graph, 3, 10).isEmpty());
+        assertTrue(FriendGraph.EMPTY.friendsOf(1).length == 0);
+    }
+}
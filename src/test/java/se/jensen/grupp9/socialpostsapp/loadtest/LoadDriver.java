@@ -0,0 +1,294 @@
+package se.jensen.grupp9.socialpostsapp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import se.jensen.grupp9.socialpostsapp.metrics.LatencyHistogram;
+import se.jensen.grupp9.socialpostsapp.seed.ZipfSampler;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a mixed workload against a running server and reports throughput and latency
+ * percentiles per request type.
+ * <p>
+ * Meant for a server seeded with {@code SyntheticDataGenerator} (users {@code seed<id>}, one
+ * shared password). Each client is a virtual thread that logs in as a random seeded user and
+ * then, one request after the other, scrolls the feed (one to four pages), views a post and
+ * its comments, comments on a post or logs in again. Posts are picked Zipf distributed with
+ * the newest ones most popular. The first {@code load.warmup-seconds} are not counted.
+ * </p>
+ * <p>
+ * Logins and comments are rate limited per client IP and per user; raise
+ * {@code rate-limit.*} on the server or 429 answers are reported as throttled.
+ * </p>
+ * Run with: {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=se.jensen.grupp9.socialpostsapp.loadtest.LoadDriver
+ * [-Dload.url=http://localhost:8080] [-Dload.clients=100] [-Dload.seconds=60]
+ * [-Dload.mix=scroll:50,view:35,comment:10,login:5]}
+ */
+public class LoadDriver {
+
+    private static final String URL = System.getProperty("load.url", "http://localhost:8080");
+    private static final int CLIENTS = Integer.getInteger("load.clients", 100);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 60);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 10);
+    private static final long FIRST_USER_ID = Long.getLong("load.first-user-id", 1L);
+    private static final int USERS = Integer.getInteger("load.users", 100_000);
+    private static final String PASSWORD = System.getProperty("load.password", "password123");
+    private static final String MIX = System.getProperty("load.mix", "scroll:50,view:35,comment:10,login:5");
+    private static final long SEED = Long.getLong("load.seed", 42L);
+
+    /**
+     * One kind of request, reported on its own line
+     */
+    enum RequestType {
+        FEED_PAGE, POST, POST_COMMENTS, CREATE_COMMENT, LOGIN
+    }
+
+    /**
+     * One step of a client, picked by weight from {@code load.mix}
+     */
+    enum Operation {
+        SCROLL, VIEW, COMMENT, LOGIN
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<RequestType, Stats> stats = new EnumMap<>(RequestType.class);
+    private final Operation[] operations = new Operation[100];
+    private final long measureFrom;
+    private final long deadline;
+    private ZipfSampler postPopularity;
+    private long newestPostId;
+
+    LoadDriver() {
+        for (RequestType type : RequestType.values()) {
+            stats.put(type, new Stats());
+        }
+        parseMix();
+        long now = System.nanoTime();
+        measureFrom = now + WARMUP_SECONDS * 1_000_000_000L;
+        deadline = measureFrom + SECONDS * 1_000_000_000L;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadDriver().run();
+    }
+
+    void run() throws Exception {
+        // the newest post ID bounds the IDs the clients ask for
+        JsonNode firstPage = objectMapper.readTree(send(get("/posts/scroll?size=1"), null).body());
+        newestPostId = firstPage.path("content").path(0).path("id").asLong();
+        if (newestPostId == 0) {
+            throw new IllegalStateException("No posts on " + URL + ", seed the database first");
+        }
+        postPopularity = new ZipfSampler((int) Math.min(newestPostId, Integer.MAX_VALUE), 1.1);
+
+        System.out.printf("%d clients against %s for %d s (+%d s warmup), mix %s%n",
+                CLIENTS, URL, SECONDS, WARMUP_SECONDS, MIX);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                SplittableRandom random = new SplittableRandom(SEED + i);
+                clients.submit(() -> runClient(random));
+            }
+        }
+        report();
+    }
+
+    private Void runClient(SplittableRandom random) {
+        Session session = new Session();
+        login(session, random);
+        while (System.nanoTime() < deadline) {
+            try {
+                switch (operations[random.nextInt(operations.length)]) {
+                    case SCROLL -> scroll(session, random);
+                    case VIEW -> view(session, random);
+                    case COMMENT -> comment(session, random);
+                    case LOGIN -> login(session, random);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (Exception e) {
+                // already counted as an error by timed()
+            }
+        }
+        return null;
+    }
+
+    private void scroll(Session session, SplittableRandom random) throws Exception {
+        String cursor = null;
+        int pages = 1 + random.nextInt(4);
+        for (int i = 0; i < pages; i++) {
+            String path = "/posts/scroll?size=20"
+                    + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            HttpResponse<String> response = timed(RequestType.FEED_PAGE, get(path), session);
+            if (response.statusCode() != 200) {
+                return;
+            }
+            JsonNode next = objectMapper.readTree(response.body()).path("nextCursor");
+            if (next.isNull() || next.isMissingNode()) {
+                return;
+            }
+            cursor = next.asText();
+        }
+    }
+
+    private void view(Session session, SplittableRandom random) throws Exception {
+        long postId = nextPostId(random);
+        timed(RequestType.POST, get("/posts/" + postId), session);
+        timed(RequestType.POST_COMMENTS, get("/posts/" + postId + "/comments"), session);
+    }
+
+    private void comment(Session session, SplittableRandom random) throws Exception {
+        long postId = nextPostId(random);
+        String body = objectMapper.writeValueAsString(Map.of("text", "load test comment " + random.nextInt()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(URL + "/posts/" + postId + "/comments?userID=" + session.userId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        timed(RequestType.CREATE_COMMENT, request, session);
+    }
+
+    private void login(Session session, SplittableRandom random) {
+        long userId = FIRST_USER_ID + random.nextInt(USERS);
+        try {
+            String body = objectMapper.writeValueAsString(Map.of("username", "seed" + userId, "password", PASSWORD));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(URL + "/users/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<String> response = timed(RequestType.LOGIN, request, null);
+            if (response.statusCode() == 200) {
+                session.userId = userId;
+                session.token = objectMapper.readTree(response.body()).path("token").asText(null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // already counted as an error by timed()
+        }
+    }
+
+    private long nextPostId(SplittableRandom random) {
+        return Math.max(1, newestPostId - postPopularity.sample(random));
+    }
+
+    private HttpResponse<String> timed(RequestType type, HttpRequest request, Session session) throws Exception {
+        long start = System.nanoTime();
+        Stats typeStats = stats.get(type);
+        try {
+            HttpResponse<String> response = send(request, session);
+            if (start >= measureFrom && start < deadline) {
+                typeStats.record(response.statusCode(), System.nanoTime() - start);
+            }
+            return response;
+        } catch (Exception e) {
+            if (start >= measureFrom && start < deadline) {
+                typeStats.errors.increment();
+            }
+            throw e;
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request, Session session) throws Exception {
+        if (session != null && session.token != null) {
+            request = HttpRequest.newBuilder(request, (name, value) -> true)
+                    .header("Authorization", "Bearer " + session.token)
+                    .build();
+        }
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(URL + path)).GET().build();
+    }
+
+    private void parseMix() {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        int total = 0;
+        for (String part : MIX.split(",")) {
+            String[] entry = part.trim().split(":");
+            int weight = Integer.parseInt(entry[1].trim());
+            weights.put(Operation.valueOf(entry[0].trim().toUpperCase()), weight);
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("load.mix has no weights: " + MIX);
+        }
+        int index = 0;
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            int slots = Math.round(100f * entry.getValue() / total);
+            for (int i = 0; i < slots && index < operations.length; i++) {
+                operations[index++] = entry.getKey();
+            }
+        }
+        // rounding can leave a slot or two, give them to the first operation
+        while (index < operations.length) {
+            operations[index++] = weights.keySet().iterator().next();
+        }
+    }
+
+    private void report() {
+        System.out.printf("%-15s %10s %9s %9s %9s %9s %9s %7s %9s%n",
+                "request", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors", "throttled");
+        long total = 0;
+        for (Map.Entry<RequestType, Stats> entry : stats.entrySet()) {
+            LatencyHistogram.Snapshot latency = entry.getValue().latency.snapshot();
+            total += latency.count();
+            System.out.printf("%-15s %,10d %,9.0f %9.1f %9.1f %9.1f %9.1f %,7d %,9d%n",
+                    entry.getKey().name().toLowerCase(),
+                    latency.count(),
+                    (double) latency.count() / SECONDS,
+                    latency.percentile(50) / 1e6,
+                    latency.percentile(90) / 1e6,
+                    latency.percentile(99) / 1e6,
+                    latency.max() / 1e6,
+                    entry.getValue().errors.sum(),
+                    entry.getValue().throttled.sum());
+        }
+        System.out.printf("%-15s %,10d %,9.0f%n", "total", total, (double) total / SECONDS);
+    }
+
+    /**
+     * Logged in user of one client
+     */
+    private static final class Session {
+        private long userId = FIRST_USER_ID;
+        private String token;
+    }
+
+    /**
+     * Latencies of successful requests, failed and throttled requests are only counted
+     */
+    private static final class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+
+        private void record(int status, long nanos) {
+            if (status == 429) {
+                throttled.increment();
+            } else if (status >= 400) {
+                errors.increment();
+            } else {
+                latency.record(nanos);
+            }
+        }
+    }
+}
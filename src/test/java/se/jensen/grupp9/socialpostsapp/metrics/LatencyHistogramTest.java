@@ -0,0 +1,64 @@
+package se.jensen.grupp9.socialpostsapp.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testBucketBoundsCoverEveryValue() {
+        //assert (each value lies in its own bucket and buckets are contiguous)
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(value <= LatencyHistogram.highestValue(index));
+            assertTrue(index == 0 || value > LatencyHistogram.highestValue(index - 1));
+        }
+        assertEquals(LatencyHistogram.MAX_VALUE,
+                LatencyHistogram.highestValue(LatencyHistogram.index(LatencyHistogram.MAX_VALUE)));
+    }
+
+    @Test
+    void testPercentiles() {
+        //arrange (1..1000 microseconds)
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        //act
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        //assert (within the ~3% bucket precision, never below the real value)
+        assertEquals(1000, snapshot.count());
+        assertWithin(500_000, snapshot.percentile(50));
+        assertWithin(990_000, snapshot.percentile(99));
+        assertWithin(999_000, snapshot.percentile(99.9));
+        assertEquals(1_000_000, snapshot.percentile(100));
+        assertEquals(500_500.0, snapshot.mean());
+    }
+
+    @Test
+    void testEmptyAndOutOfRangeValues() {
+        //arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        //assert (empty histogram reports zeros)
+        assertEquals(0, histogram.snapshot().percentile(99));
+
+        //act
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        //assert (negative values count as 0, huge values as the maximum)
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.percentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, snapshot.percentile(100));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.04,
+                "expected about " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,54 @@
+package se.jensen.grupp9.socialpostsapp.metrics;
+
+import org.junit.jupiter.api.Test;
+import se.jensen.grupp9.socialpostsapp.dto.MetricsDTO;
+import se.jensen.grupp9.socialpostsapp.dto.RouteMetricsDTO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestMetricsTest {
+
+    private final RequestMetrics requestMetrics = new RequestMetrics();
+
+    @Test
+    void testSnapshotPerRoute() {
+        //arrange (three reads of one post, one failed create)
+        for (int i = 0; i < 3; i++) {
+            requestMetrics.requestStarted();
+            requestMetrics.requestFinished("GET", "/posts/{id}", 200, 2_000_000);
+        }
+        requestMetrics.requestStarted();
+        requestMetrics.requestFinished("POST", "/posts", 500, 8_000_000);
+        requestMetrics.requestStarted();
+
+        //act
+        MetricsDTO metrics = requestMetrics.snapshot();
+
+        //assert (busiest route first, errors counted, one request still running)
+        assertEquals(1, metrics.inFlight());
+        assertEquals(2, metrics.routes().size());
+        RouteMetricsDTO reads = metrics.routes().get(0);
+        assertEquals("/posts/{id}", reads.route());
+        assertEquals(3, reads.count());
+        assertEquals(0, reads.errors());
+        assertTrue(reads.p99Ms() >= 2.0 && reads.p99Ms() < 2.1);
+        assertEquals(1, metrics.routes().get(1).errors());
+    }
+
+    @Test
+    void testPrometheusFormat() {
+        //arrange
+        requestMetrics.requestStarted();
+        requestMetrics.requestFinished("GET", "/posts/{id}", 200, 1_000_000);
+
+        //act
+        String text = requestMetrics.prometheus();
+
+        //assert
+        assertTrue(text.contains("# TYPE http_server_requests_seconds summary"));
+        assertTrue(text.contains("http_server_requests_seconds_count{method=\"GET\",route=\"/posts/{id}\"} 1"));
+        assertTrue(text.contains("http_server_requests_seconds{method=\"GET\",route=\"/posts/{id}\",quantile=\"0.99\"}"));
+        assertTrue(text.contains("http_server_requests_in_flight 0"));
+    }
+}
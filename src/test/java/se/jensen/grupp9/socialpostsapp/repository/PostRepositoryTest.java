@@ -0,0 +1,254 @@
+package se.jensen.grupp9.socialpostsapp.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import se.jensen.grupp9.socialpostsapp.dto.CommentPreview;
+import se.jensen.grupp9.socialpostsapp.dto.CommentResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.DTOMapper;
+import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostView;
+import se.jensen.grupp9.socialpostsapp.model.Comment;
+import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that the listing queries load posts and comments together with their users
+ * in a single statement (no N+1 selects), and that the projection queries do not load
+ * any entities, by counting statements and entity loads with Hibernate statistics.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PostRepositoryTest {
+
+    private static final int POST_COUNT = 5;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Long firstPostId;
+    private Long firstUserId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        // one author per post and one comment per author on the first post,
+        // so every lazy user load would be a separate statement
+        List<User> users = new ArrayList<>();
+        Post firstPost = null;
+        for (int i = 0; i < POST_COUNT; i++) {
+            User user = entityManager.persist(newUser("user" + i));
+            users.add(user);
+            Post post = new Post("post number " + i);
+            post.setUser(user);
+            entityManager.persist(post);
+            if (firstPost == null) {
+                firstPost = post;
+            }
+        }
+        for (User user : users) {
+            Comment comment = new Comment("comment by " + user.getUsername());
+            comment.setPost(firstPost);
+            comment.setUser(user);
+            entityManager.persist(comment);
+        }
+        firstPostId = firstPost.getId();
+        firstUserId = users.get(0).getId();
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void findAll_loadsPostsAndUsersInOneStatement() {
+        //act (load the feed page and map it like PostService does)
+        List<PostResponseDTO> posts = postRepository.findAll(PageRequest.of(0, 20))
+                .map(DTOMapper::toPostResponseDTO)
+                .getContent();
+
+        //assert (all posts mapped with users, one statement and no count query for a partial first page)
+        assertEquals(POST_COUNT, posts.size());
+        posts.forEach(post -> assertEquals("user", post.user().getUsername().substring(0, 4)));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByUserId_loadsPostsAndUsersInOneStatement() {
+        //act
+        List<PostResponseDTO> posts = postRepository.findByUserId(firstUserId, PageRequest.of(0, 20))
+                .map(DTOMapper::toPostResponseDTO)
+                .getContent();
+
+        //assert
+        assertEquals(1, posts.size());
+        assertEquals("user0", posts.get(0).user().getUsername());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAllViews_selectsProjectionsWithoutLoadingEntities() {
+        //act
+        List<PostResponseDTO> posts = postRepository.findAllViews(PageRequest.of(0, 20))
+                .map(DTOMapper::toPostResponseDTO)
+                .getContent();
+
+        //assert (posts mapped with users, one statement, nothing put in the persistence context)
+        assertEquals(POST_COUNT, posts.size());
+        posts.forEach(post -> assertEquals("user", post.user().getUsername().substring(0, 4)));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findFeedFirstPage_selectsPostsAndUsersInOneStatement() {
+        //act
+        List<PostResponseDTO> posts = postRepository.findFeedFirstPage(PageRequest.of(0, 20))
+                .stream()
+                .map(DTOMapper::toPostResponseDTO)
+                .toList();
+
+        //assert (newest first, no entities loaded)
+        assertEquals(POST_COUNT, posts.size());
+        assertTrue(posts.get(0).id() > posts.get(1).id());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findViewById_returnsPostWithUser() {
+        //act
+        PostView post = postRepository.findViewById(firstPostId).orElseThrow();
+
+        //assert
+        assertEquals("post number 0", post.text());
+        assertEquals("user0", post.username());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findCommentsByPostId_loadsCommentsAndUsersInOneStatement() {
+        //act (load the comments of the first post and map them like CommentService does)
+        List<CommentResponseDTO> comments = commentRepository.findByPostIdOrderByCreatedAtAsc(firstPostId)
+                .stream()
+                .map(DTOMapper::toCommentResponseDTO)
+                .toList();
+
+        //assert (every comment has its user, one statement in total)
+        assertEquals(POST_COUNT, comments.size());
+        comments.forEach(comment -> assertEquals("user", comment.user().getUsername().substring(0, 4)));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findCommentViewsByPostId_selectsProjectionsWithoutLoadingEntities() {
+        //act
+        List<CommentResponseDTO> comments = commentRepository.findViewsByPostId(firstPostId)
+                .stream()
+                .map(DTOMapper::toCommentResponseDTO)
+                .toList();
+
+        //assert (oldest first, one statement, no entities loaded)
+        assertEquals(POST_COUNT, comments.size());
+        assertEquals("user0", comments.get(0).user().getUsername());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findLatestByPostIds_returnsLimitedCommentsPerPostInOneStatement() {
+        //arrange (the first post has comments, the others have none)
+        List<Long> postIds = postRepository.findAll().stream().map(Post::getId).toList();
+        statistics.clear();
+
+        //act
+        List<CommentPreview> comments = commentRepository.findLatestByPostIds(postIds, 2);
+
+        //assert (only two comments for the first post, newest first, with users, one statement)
+        assertEquals(2, comments.size());
+        comments.forEach(comment -> assertEquals(firstPostId, comment.getPostId()));
+        assertTrue(comments.get(0).getId() > comments.get(1).getId());
+        assertEquals("user4", comments.get(0).getUsername());
+        assertNotNull(comments.get(0).getCreatedAt());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void adjustCommentCount_updatesCounterInPlace() {
+        //act (two new comments and one deleted comment)
+        postRepository.adjustCommentCount(firstPostId, 1);
+        postRepository.adjustCommentCount(firstPostId, 1);
+        postRepository.adjustCommentCount(firstPostId, -1);
+        entityManager.clear();
+
+        //assert
+        assertEquals(1, entityManager.find(Post.class, firstPostId).getCommentCount());
+    }
+
+    @Test
+    void saveOfLoadedPost_keepsConcurrentCommentCount() {
+        //arrange (a post is loaded, then a comment is counted by someone else)
+        Post stale = entityManager.find(Post.class, firstPostId);
+        entityManager.detach(stale);
+        postRepository.adjustCommentCount(firstPostId, 1);
+
+        //act (the stale post is edited and saved)
+        stale.setText("edited");
+        postRepository.saveAndFlush(stale);
+        entityManager.clear();
+
+        //assert (the text is updated and the count is not overwritten)
+        Post post = entityManager.find(Post.class, firstPostId);
+        assertEquals("edited", post.getText());
+        assertEquals(1, post.getCommentCount());
+    }
+
+    @Test
+    void repairCommentCount_repairsDriftedCounters() {
+        //arrange (the comments in setUp were inserted without updating the counter)
+        List<Long> drifted = postRepository.findIdsWithDriftedCommentCount(1, postRepository.findMaxId());
+
+        //act
+        assertTrue(postRepository.lockById(firstPostId).isPresent());
+        int repaired = postRepository.repairCommentCount(firstPostId);
+        int repairedAgain = postRepository.repairCommentCount(firstPostId);
+        entityManager.clear();
+
+        //assert (only the first post had drifted, now it matches the real count and is not repaired twice)
+        assertEquals(List.of(firstPostId), drifted);
+        assertEquals(1, repaired);
+        assertEquals(0, repairedAgain);
+        assertEquals(POST_COUNT, entityManager.find(Post.class, firstPostId).getCommentCount());
+    }
+
+    private static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("hashed_password");
+        user.setBio("bio of " + username);
+        return user;
+    }
+}
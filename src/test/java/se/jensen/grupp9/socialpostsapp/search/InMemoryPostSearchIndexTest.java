@@ -0,0 +1,122 @@
+package se.jensen.grupp9.socialpostsapp.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InMemoryPostSearchIndexTest {
+
+    private InMemoryPostSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new InMemoryPostSearchIndex(null, null);
+        index.index(1L, "Hej världen, första inlägget");
+        index.index(2L, "Spring Boot och Java");
+        index.index(3L, "Java java JAVA överallt");
+        index.index(4L, "Världen är stor");
+    }
+
+    @Test
+    void testSearch_ranksPostsWithMoreMatchesFirst() {
+        //act
+        List<SearchHit> hits = index.search("java", null, 10);
+
+        //assert (post 3 mentions java three times)
+        assertEquals(List.of(3L, 2L), postIds(hits));
+    }
+
+    @Test
+    void testSearch_matchesAnyWordCaseInsensitive() {
+        //act
+        List<SearchHit> hits = index.search("VÄRLDEN spring", null, 10);
+
+        //assert (posts with either word, no duplicates)
+        assertEquals(3, hits.size());
+        assertTrue(postIds(hits).containsAll(List.of(1L, 2L, 4L)));
+    }
+
+    @Test
+    void testSearch_noMatch() {
+        assertTrue(index.search("python", null, 10).isEmpty());
+        assertTrue(index.search("!!", null, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_paginatesWithCursor() {
+        //arrange (same score for all posts with one occurrence of a common word)
+        index.index(5L, "nyhet ett");
+        index.index(6L, "nyhet två");
+        index.index(7L, "nyhet tre");
+
+        //act (two pages of two hits)
+        List<SearchHit> firstPage = index.search("nyhet", null, 2);
+        List<SearchHit> secondPage = index.search("nyhet", SearchCursor.from(firstPage.get(1)), 2);
+
+        //assert (ties ordered by newest post, no overlap between pages)
+        assertEquals(List.of(7L, 6L), postIds(firstPage));
+        assertEquals(List.of(5L), postIds(secondPage));
+    }
+
+    @Test
+    void testIndex_updateReplacesOldText() {
+        //act (post 2 no longer mentions java)
+        index.index(2L, "Spring Boot och Kotlin");
+
+        //assert
+        assertEquals(List.of(3L), postIds(index.search("java", null, 10)));
+        assertEquals(List.of(2L), postIds(index.search("kotlin", null, 10)));
+    }
+
+    @Test
+    void testRemove() {
+        //act
+        index.remove(3L);
+
+        //assert
+        assertEquals(List.of(2L), postIds(index.search("java", null, 10)));
+        assertTrue(index.search("överallt", null, 10).isEmpty());
+    }
+
+    @Test
+    void testRebuild_skipsPostsChangedWhileItRuns() {
+        //arrange (post 10 is updated and post 11 deleted after the rebuild read them)
+        PostRepository postRepository = mock(PostRepository.class);
+        InMemoryPostSearchIndex rebuilt = new InMemoryPostSearchIndex(postRepository, new AppLogger());
+        when(postRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            List<Post> batch = List.of(post(10L, "gammal text"), post(11L, "borttagen text"), post(12L, "orörd text"));
+            rebuilt.index(10L, "ny text");
+            rebuilt.remove(11L);
+            return batch;
+        });
+
+        //act
+        rebuilt.rebuild();
+
+        //assert (the newer changes win over the batch)
+        assertEquals(List.of(10L), postIds(rebuilt.search("ny", null, 10)));
+        assertTrue(rebuilt.search("gammal borttagen", null, 10).isEmpty());
+        assertEquals(List.of(12L), postIds(rebuilt.search("orörd", null, 10)));
+    }
+
+    private static Post post(long id, String text) {
+        Post post = new Post(text);
+        post.setId(id);
+        return post;
+    }
+
+    private static List<Long> postIds(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::postId).toList();
+    }
+}
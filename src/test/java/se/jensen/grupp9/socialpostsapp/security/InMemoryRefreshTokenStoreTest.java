@@ -0,0 +1,104 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import org.junit.jupiter.api.Test;
+import se.jensen.grupp9.socialpostsapp.security.RefreshTokenStore.RotationResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link InMemoryRefreshTokenStoreTest} kontrollerar rotation, upptäckt av återanvändning,
+ * återkallelse av hela familjen och bortsopning av utgångna tokens.
+ */
+class InMemoryRefreshTokenStoreTest {
+
+    private final InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore();
+
+    @Test
+    void rotate_activeToken() {
+        store.register(token("t1", "f1", 3600));
+
+        assertEquals(RotationResult.ROTATED, store.rotate("t1", token("t2", "f1", 3600)));
+        assertEquals(RotationResult.ROTATED, store.rotate("t2", token("t3", "f1", 3600)));
+    }
+
+    @Test
+    void rotate_reusedTokenRevokesFamily() {
+        store.register(token("t1", "f1", 3600));
+        store.rotate("t1", token("t2", "f1", 3600));
+
+        // t1 visas igen, då har den läckt och hela familjen återkallas
+        assertEquals(RotationResult.REUSE_DETECTED, store.rotate("t1", token("t3", "f1", 3600)));
+        assertEquals(RotationResult.INVALID, store.rotate("t2", token("t4", "f1", 3600)));
+    }
+
+    @Test
+    void rotate_otherFamiliesAreNotAffected() {
+        store.register(token("a1", "fa", 3600));
+        store.register(token("b1", "fb", 3600));
+
+        store.revokeFamily("fa");
+
+        assertEquals(RotationResult.INVALID, store.rotate("a1", token("a2", "fa", 3600)));
+        assertEquals(RotationResult.ROTATED, store.rotate("b1", token("b2", "fb", 3600)));
+    }
+
+    @Test
+    void rotate_unknownOrExpiredToken() {
+        store.register(token("old", "f1", -1));
+
+        assertEquals(RotationResult.INVALID, store.rotate("missing", token("t2", "f1", 3600)));
+        assertEquals(RotationResult.INVALID, store.rotate("old", token("t3", "f1", 3600)));
+    }
+
+    @Test
+    void rotate_concurrentRotationsOfSameTokenHaveOneWinner() throws Exception {
+        store.register(token("t1", "f1", 3600));
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RotationResult>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                StoredRefreshToken next = token("next-" + i, "f1", 3600);
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return store.rotate("t1", next);
+                }));
+            }
+            start.countDown();
+
+            int rotated = 0;
+            for (Future<RotationResult> result : results) {
+                if (result.get(5, TimeUnit.SECONDS) == RotationResult.ROTATED) {
+                    rotated++;
+                }
+            }
+            assertEquals(1, rotated);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void sweepExpired_removesOnlyExpiredTokens() {
+        store.register(token("old", "f1", -1));
+        store.register(token("new", "f2", 3600));
+
+        assertEquals(1, store.sweepExpired(Instant.now()));
+        assertEquals(1, store.size());
+        assertEquals(RotationResult.ROTATED, store.rotate("new", token("newer", "f2", 3600)));
+    }
+
+    private static StoredRefreshToken token(String tokenId, String familyId, long secondsToExpiry) {
+        return new StoredRefreshToken(tokenId, familyId, "anna", Instant.now().plusSeconds(secondsToExpiry));
+    }
+}
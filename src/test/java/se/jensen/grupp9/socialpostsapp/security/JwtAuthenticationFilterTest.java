@@ -0,0 +1,59 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link JwtAuthenticationFilterTest} innehåller enhetstester för {@link JwtAuthenticationFilter}.
+ * <p>
+ * Testerna kontrollerar att endast användare i security.operators får rollen OPERATOR.
+ * </p>
+ */
+class JwtAuthenticationFilterTest {
+
+    private final JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(JwtUtilTest.SECRET);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil, Set.of("ops"));
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_operatorGetsOperatorRole() throws Exception {
+        Set<String> roles = authenticate("ops");
+
+        assertEquals(Set.of("ROLE_USER", "ROLE_OPERATOR"), roles);
+    }
+
+    @Test
+    void doFilter_otherUserOnlyGetsUserRole() throws Exception {
+        Set<String> roles = authenticate("anna");
+
+        assertEquals(Set.of("ROLE_USER"), roles);
+    }
+
+    private Set<String> authenticate(String username) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/internal/metrics");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(username));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(username, authentication.getName());
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,119 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link JwtUtilTest} innehåller enhetstester för {@link JwtUtil}.
+ * <p>
+ * Testerna kontrollerar att tokens verifieras med en enda parsning, att ogiltiga och
+ * utgångna tokens avvisas och att verifierade tokens hämtas från cachen.
+ * </p>
+ */
+class JwtUtilTest {
+
+    /**
+     * BASE64-kodad hemlighet på 256 bitar, samma format som jwt.secret
+     */
+    static final String SECRET = "c2VjcmV0LWtleS1mb3ItdGVzdHMtb25seS0zMi1ieXRlcyE=";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(SECRET);
+    }
+
+    @Test
+    void parseClaims_validToken() {
+        String token = jwtUtil.generateToken("anna");
+
+        Optional<Claims> claims = jwtUtil.parseClaims(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("anna", claims.get().getSubject());
+        assertTrue(jwtUtil.validateToken(token));
+        assertEquals("anna", jwtUtil.getUsernameFromToken(token));
+    }
+
+    @Test
+    void parseClaims_cachesVerifiedToken() {
+        String token = jwtUtil.generateToken("anna");
+
+        Claims first = jwtUtil.parseClaims(token).orElseThrow();
+        Claims second = jwtUtil.parseClaims(token).orElseThrow();
+
+        // andra anropet får samma claims från cachen utan ny parsning
+        assertSame(first, second);
+    }
+
+    @Test
+    void parseClaims_tamperedToken() {
+        String token = jwtUtil.generateToken("anna");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertTrue(jwtUtil.parseClaims(tampered).isEmpty());
+        assertFalse(jwtUtil.validateToken(tampered));
+    }
+
+    @Test
+    void parseClaims_tokenFromOtherSecret() {
+        JwtUtil other = newJwtUtil("b3RoZXItc2VjcmV0LWtleS1mb3ItdGVzdHMtMzItYnl0ZXM=");
+
+        assertTrue(jwtUtil.parseClaims(other.generateToken("anna")).isEmpty());
+    }
+
+    @Test
+    void parseClaims_expiredToken() {
+        String expired = Jwts.builder()
+                .setSubject("anna")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertTrue(jwtUtil.parseClaims(expired).isEmpty());
+    }
+
+    @Test
+    void generateRefreshToken_carriesIdFamilyAndType() {
+        StoredRefreshToken stored = new StoredRefreshToken("jti-1", "family-1", "anna",
+                Instant.now().plusSeconds(3600));
+
+        Claims claims = jwtUtil.parseClaims(jwtUtil.generateRefreshToken(stored)).orElseThrow();
+
+        assertEquals("anna", claims.getSubject());
+        assertEquals("jti-1", claims.getId());
+        assertEquals("family-1", claims.get(JwtUtil.FAMILY_CLAIM, String.class));
+        assertTrue(JwtUtil.isRefreshToken(claims));
+        assertFalse(JwtUtil.isRefreshToken(jwtUtil.parseClaims(jwtUtil.generateToken("anna")).orElseThrow()));
+    }
+
+    @Test
+    void parseClaims_emptyToken() {
+        assertTrue(jwtUtil.parseClaims("").isEmpty());
+        assertTrue(jwtUtil.parseClaims("not.a.token").isEmpty());
+    }
+
+    static JwtUtil newJwtUtil(String secret) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", secret);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpirationMs", 604_800_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", 1_000L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,62 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import se.jensen.grupp9.socialpostsapp.exception.ServiceOverloadedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link PasswordHashingExecutorTest} kontrollerar att trådpoolen för lösenord är begränsad
+ * och avvisar nya uppgifter direkt när kön är full.
+ */
+class PasswordHashingExecutorTest {
+
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1);
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void submit_runsTaskOnPool() {
+        String thread = executor.submit(() -> Thread.currentThread().getName()).join();
+
+        assertTrue(thread.startsWith("bcrypt-"));
+    }
+
+    @Test
+    void submit_rejectsWhenQueueIsFull() throws Exception {
+        // en uppgift blockerar den enda tråden och en väntar i kön
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = executor.submit(() -> {
+            started.countDown();
+            return await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = executor.submit(() -> true);
+        assertEquals(1, executor.getQueueDepth());
+
+        // den tredje avvisas direkt i stället för att vänta
+        assertThrows(ServiceOverloadedException.class, () -> executor.submit(() -> true));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package se.jensen.grupp9.socialpostsapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RateLimiterTest} kontrollerar token bucket-logiken med en styrd klocka:
+ * kapacitet, påfyllnad, väntetid och att oanvända buckets glöms bort.
+ */
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    // 3 i följd, sedan en per 20 sekunder
+    private final RateLimiter limiter = new RateLimiter(3, 3, 100, clock::get);
+
+    @Test
+    void tryAcquire_allowsBurstUpToCapacity() {
+        assertEquals(0, limiter.tryAcquire("anna"));
+        assertEquals(0, limiter.tryAcquire("anna"));
+        assertEquals(0, limiter.tryAcquire("anna"));
+
+        long waitNanos = limiter.tryAcquire("anna");
+        assertEquals(TimeUnit.SECONDS.toNanos(20), waitNanos);
+    }
+
+    @Test
+    void tryAcquire_refillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("anna");
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+
+        assertEquals(0, limiter.tryAcquire("anna"));
+        assertTrue(limiter.tryAcquire("anna") > 0);
+    }
+
+    @Test
+    void tryAcquire_keysAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("anna");
+        }
+
+        assertTrue(limiter.tryAcquire("anna") > 0);
+        assertEquals(0, limiter.tryAcquire("bertil"));
+    }
+
+    @Test
+    void evictIdle_forgetsFullBuckets() {
+        limiter.tryAcquire("anna");
+        limiter.tryAcquire("bertil");
+
+        // efter kapacitet gånger intervallet är bucketen full igen och kan glömmas
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        limiter.evictIdle();
+
+        assertEquals(0, limiter.size());
+        assertEquals(0, limiter.tryAcquire("anna"));
+    }
+
+    @Test
+    void constructor_rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 10, 100));
+    }
+}
@@ -0,0 +1,64 @@
+package se.jensen.grupp9.socialpostsapp.seed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ZipfSamplerTest {
+
+    @Test
+    void testProbabilitiesFollowThePowerLaw() {
+        //arrange
+        ZipfSampler sampler = new ZipfSampler(1000, 1.0);
+
+        //assert (rank 0 is twice as likely as rank 1 and the probabilities sum to one)
+        assertEquals(2.0, sampler.probability(0) / sampler.probability(1), 1e-9);
+        double sum = 0;
+        for (int rank = 0; rank < sampler.size(); rank++) {
+            sum += sampler.probability(rank);
+        }
+        assertEquals(1.0, sum, 1e-9);
+    }
+
+    @Test
+    void testSampleIsSkewedTowardsLowRanks() {
+        //arrange
+        ZipfSampler sampler = new ZipfSampler(10_000, 1.1);
+        SplittableRandom random = new SplittableRandom(42);
+        int samples = 100_000;
+
+        //act
+        int top100 = 0;
+        for (int i = 0; i < samples; i++) {
+            int rank = sampler.sample(random);
+            assertTrue(rank >= 0 && rank < sampler.size());
+            if (rank < 100) {
+                top100++;
+            }
+        }
+
+        //assert (1% of the items get most of the picks, close to the expected share)
+        double expected = 0;
+        for (int rank = 0; rank < 100; rank++) {
+            expected += sampler.probability(rank);
+        }
+        assertTrue(expected > 0.5);
+        assertEquals(expected, (double) top100 / samples, 0.01);
+    }
+
+    @Test
+    void testSameSeedGivesSameSequence() {
+        //arrange
+        ZipfSampler sampler = new ZipfSampler(500, 1.1);
+        SplittableRandom first = new SplittableRandom(7);
+        SplittableRandom second = new SplittableRandom(7);
+
+        //assert
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(sampler.sample(first), sampler.sample(second));
+        }
+    }
+}
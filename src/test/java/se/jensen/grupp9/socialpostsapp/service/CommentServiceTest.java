@@ -6,8 +6,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import se.jensen.grupp9.socialpostsapp.cache.ConcurrentCallers;
+import se.jensen.grupp9.socialpostsapp.cache.PostCache;
 import se.jensen.grupp9.socialpostsapp.dto.CommentRequestDTO;
 import se.jensen.grupp9.socialpostsapp.dto.CommentResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.CommentView;
 import se.jensen.grupp9.socialpostsapp.dto.DTOMapper;
 import se.jensen.grupp9.socialpostsapp.exception.CommentNotFoundException;
 import se.jensen.grupp9.socialpostsapp.exception.PostNotFoundException;
@@ -17,9 +23,11 @@ import se.jensen.grupp9.socialpostsapp.model.User;
 import se.jensen.grupp9.socialpostsapp.repository.CommentRepository;
 import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
 import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+import se.jensen.grupp9.socialpostsapp.trending.TrendingPosts;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,6 +46,15 @@ public class CommentServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PostCache postCache;
+
+    @Mock
+    private TrendingPosts trendingPosts;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private CommentService commentService;
 
@@ -68,9 +85,9 @@ public class CommentServiceTest {
 
     @Test
     void testGetAllCommentsByPostId() {
-        //arrange (mock repo returns testComment in list when findPostByIdOrderByCreatedAtAAsc is called)
-        when(commentRepository.findByPostIdOrderByCreatedAtAsc(1L))
-                .thenReturn(List.of(testComment));
+        //arrange (mock repo returns testComment in list when findViewsByPostId is called)
+        when(commentRepository.findViewsByPostId(1L))
+                .thenReturn(List.of(view(testComment)));
 
         //act (CommentService getAllCommentsByPostId method)
         List<CommentResponseDTO> results = commentService.getAllCommentsByPostId(1L);
@@ -78,31 +95,50 @@ public class CommentServiceTest {
         //assert (not null list, one comment in list, methd ran once)
         assertNotNull(results);
         assertEquals(1, results.size());
-        verify(commentRepository, times(1)).findByPostIdOrderByCreatedAtAsc(1L);
+        verify(commentRepository, times(1)).findViewsByPostId(1L);
+    }
+
+    @Test
+    void testGetAllCommentsByPostId_concurrentCallersShareOneQuery() throws Exception {
+        //arrange (mock repo blocks until all callers are waiting, then returns testComment)
+        CountDownLatch release = new CountDownLatch(1);
+        when(commentRepository.findViewsByPostId(1L)).thenAnswer(invocation -> {
+            ConcurrentCallers.await(release);
+            return List.of(view(testComment));
+        });
+
+        //act (20 parallel requests for the comments of the same post)
+        List<List<CommentResponseDTO>> results =
+                ConcurrentCallers.call(20, release, () -> commentService.getAllCommentsByPostId(1L));
+
+        //assert (every caller got the comments, the repository was called once in one transaction)
+        results.forEach(comments -> assertEquals("test comment", comments.get(0).text()));
+        verify(commentRepository, times(1)).findViewsByPostId(1L);
+        verify(transactionManager, times(1)).getTransaction(any());
     }
 
     @Test
     void testGetCommentById_success() {
-        //arrange (mock repo returns testComment optional when findById is called)
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(testComment));
+        //arrange (mock repo returns testComment optional when findViewById is called)
+        when(commentRepository.findViewById(1L)).thenReturn(Optional.of(view(testComment)));
 
         //act (CommentService getcommentByIdMethod with 1L parameter)
         CommentResponseDTO result = commentService.getCommentById(1L);
 
-        //assert (not null, correct text value, findById called one time)
+        //assert (not null, correct text value, findViewById called one time)
         assertNotNull(result);
         assertEquals("test comment", result.text());
-        verify(commentRepository, times(1)).findById(1L);
+        verify(commentRepository, times(1)).findViewById(1L);
     }
 
     @Test
     void testGetCommentById_fail() {
         // arrange (mock repo returns empty optional when findById is called with any value)
-        when(commentRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(commentRepository.findViewById(anyLong())).thenReturn(Optional.empty());
 
         //act(CommentService getCommentById), assert(method caled once, CommentNotFound exception thrown)
         assertThrows(CommentNotFoundException.class, () -> commentService.getCommentById(1L));
-        verify(commentRepository, times(1)).findById(1L);
+        verify(commentRepository, times(1)).findViewById(1L);
     }
 
     @Test
@@ -126,9 +162,32 @@ public class CommentServiceTest {
         verify(postRepository, times(1)).findById(1L);
         verify(commentRepository, times(1)).save(any(Comment.class));
         verify(userRepository, times(1)).findById(1L);
+        verify(postRepository, times(1)).adjustCommentCount(1L, 1);
+        verify(postCache, times(1)).invalidate(1L);
+        verify(trendingPosts, times(1)).recordComment(1L);
 
     }
 
+    @Test
+    void testCreateComment_evictsPostAfterCommit() {
+        //arrange (a transaction is active, same mocks as testCreateComment)
+        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //act
+            commentService.createComment(1L, 1L, commentRequestDTO);
+
+            //assert (the post stays cached until the transaction commits)
+            verify(postCache, never()).invalidate(1L);
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            verify(postCache, times(1)).invalidate(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void testCreateComment_fail() {
         // arrange(mock post-repo returns empty optional when findById is called with any value,,
@@ -139,6 +198,7 @@ public class CommentServiceTest {
         assertThrows(PostNotFoundException.class, () ->
                 commentService.createComment(1L, 1L, commentRequestDTO));
         verify(postRepository, times(1)).findById(1L);
+        verifyNoInteractions(trendingPosts);
     }
 
     @Test
@@ -168,5 +228,13 @@ public class CommentServiceTest {
         //assert(findById called 1 time, delete called 1 time)
         verify(commentRepository, times(1)).findById(1L);
         verify(commentRepository, times(1)).delete(testComment);
+        verify(postRepository, times(1)).adjustCommentCount(1L, -1);
+        verify(postCache, times(1)).invalidate(1L);
+    }
+
+    private static CommentView view(Comment comment) {
+        User user = comment.getUser();
+        return new CommentView(comment.getId(), comment.getPost().getId(), comment.getText(), comment.getCreatedAt(),
+                user.getId(), user.getUsername(), user.getEmail(), user.getBio());
     }
 }
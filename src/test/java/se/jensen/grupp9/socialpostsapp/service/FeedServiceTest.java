@@ -0,0 +1,150 @@
+package se.jensen.grupp9.socialpostsapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import se.jensen.grupp9.socialpostsapp.dto.CursorPageDTO;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.model.Follow;
+import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.model.User;
+import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+import se.jensen.grupp9.socialpostsapp.timeline.HomeTimelineStore;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineFanout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads home feeds against a real database, with timelines that only keep three posts
+ * so deeper pages come from the post table.
+ */
+@DataJpaTest(properties = "timeline.capacity=3")
+@Import({FeedService.class, FollowService.class, HomeTimelineStore.class, TimelineFanout.class, AppLogger.class})
+public class FeedServiceTest {
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HomeTimelineStore timelineStore;
+
+    private User alice;
+    private User carol;
+
+    @BeforeEach
+    void setUp() {
+        // alice follows bob, nobody follows carol
+        alice = entityManager.persist(newUser("alice"));
+        User bob = entityManager.persist(newUser("bob"));
+        carol = entityManager.persist(newUser("carol"));
+        entityManager.persist(new Follow(alice, bob));
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(newPost(bob, "bob " + i));
+        }
+        entityManager.persist(newPost(carol, "carol 0"));
+        entityManager.persist(newPost(alice, "alice 0"));
+        entityManager.flush();
+    }
+
+    @Test
+    void getFeed_containsFollowedAndOwnPostsNewestFirst() {
+        //act
+        CursorPageDTO<PostResponseDTO> page = feedService.getFeed("alice", null, 20);
+
+        //assert (five posts by bob and one by alice, none by carol)
+        assertEquals(6, page.content().size());
+        assertEquals("alice 0", page.content().get(0).text());
+        assertEquals("bob 4", page.content().get(1).text());
+        assertTrue(page.content().stream().noneMatch(post -> post.text().startsWith("carol")));
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getFeed_pagesPastTheTimelineInMemory() {
+        //act (pages of two, the timeline only keeps the newest three posts)
+        List<String> texts = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<PostResponseDTO> page = feedService.getFeed("alice", cursor, 2);
+            page.content().forEach(post -> texts.add(post.text()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        //assert (every post once, in order)
+        assertEquals(List.of("alice 0", "bob 4", "bob 3", "bob 2", "bob 1", "bob 0"), texts);
+    }
+
+    @Test
+    void follow_addsAuthorToTheFeed() {
+        //arrange (the timeline is in memory before the follow)
+        feedService.getFeed("alice", null, 20);
+
+        //act
+        followService.follow("alice", carol.getId());
+        long beforeCommit = timelineStore.size();
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        CursorPageDTO<PostResponseDTO> page = feedService.getFeed("alice", null, 20);
+
+        //assert (the old timeline is only dropped once the follow is committed)
+        assertEquals(1, beforeCommit);
+        assertEquals(7, page.content().size());
+        assertTrue(page.content().stream().anyMatch(post -> post.text().equals("carol 0")));
+    }
+
+    @Test
+    void getFeed_mergesPostsOfFollowedCelebrities() {
+        //arrange (carol is above the celebrity threshold, so her posts are not on alice's timeline)
+        userRepository.adjustFollowerCount(carol.getId(), 20_000);
+        entityManager.persist(new Follow(alice, carol));
+        entityManager.persist(newPost(carol, "carol 1"));
+        entityManager.flush();
+
+        //act (pages of two, across the timeline, the post table and carol's posts)
+        List<String> texts = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<PostResponseDTO> page = feedService.getFeed("alice", cursor, 2);
+            page.content().forEach(post -> texts.add(post.text()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        //assert (every post once, in order)
+        assertEquals(List.of("carol 1", "alice 0", "carol 0", "bob 4", "bob 3", "bob 2", "bob 1", "bob 0"),
+                texts);
+    }
+
+    private static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("hashed_password");
+        user.setBio("bio of " + username);
+        return user;
+    }
+
+    private static Post newPost(User user, String text) {
+        Post post = new Post(text);
+        post.setUser(user);
+        return post;
+    }
+}
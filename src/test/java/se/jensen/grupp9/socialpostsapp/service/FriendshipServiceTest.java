@@ -0,0 +1,157 @@
+package se.jensen.grupp9.socialpostsapp.service;
+
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import se.jensen.grupp9.socialpostsapp.dto.FriendSuggestionDTO;
+import se.jensen.grupp9.socialpostsapp.graph.FriendGraphIndex;
+import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
+import se.jensen.grupp9.socialpostsapp.model.Friendship;
+import se.jensen.grupp9.socialpostsapp.model.FriendshipStatus;
+import se.jensen.grupp9.socialpostsapp.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Sends friend requests and reads suggestions from the friend graph against a real database.
+ */
+@DataJpaTest
+@Import({FriendshipService.class, FriendGraphIndex.class, AppLogger.class})
+public class FriendshipServiceTest {
+
+    @Autowired
+    private FriendshipService friendshipService;
+
+    @Autowired
+    private FriendGraphIndex friendGraph;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User alice;
+    private User carol;
+    private User frank;
+
+    @BeforeEach
+    void setUp() {
+        // alice is friends with bob and carol, who both know dave; bob also knows erin
+        alice = entityManager.persist(newUser("alice"));
+        User bob = entityManager.persist(newUser("bob"));
+        carol = entityManager.persist(newUser("carol"));
+        User dave = entityManager.persist(newUser("dave"));
+        User erin = entityManager.persist(newUser("erin"));
+        frank = entityManager.persist(newUser("frank"));
+        entityManager.persist(accepted(alice, bob));
+        entityManager.persist(accepted(carol, alice));
+        entityManager.persist(accepted(bob, dave));
+        entityManager.persist(accepted(dave, carol));
+        entityManager.persist(accepted(bob, erin));
+        entityManager.flush();
+        friendGraph.rebuild();
+    }
+
+    @Test
+    void requestFriendship_acceptsWhenBothHaveAsked() {
+        //act
+        FriendshipStatus requested = friendshipService.requestFriendship("frank", alice.getId());
+        FriendshipStatus accepted = friendshipService.requestFriendship("alice", frank.getId());
+
+        //assert
+        assertEquals(FriendshipStatus.PENDING, requested);
+        assertEquals(FriendshipStatus.ACCEPTED, accepted);
+        assertEquals(List.of("bob", "carol", "frank"), friendshipService.getAcceptedFriends(alice.getId())
+                .stream().map(User::getUsername).toList());
+    }
+
+    @Test
+    void friendship_isUniquePerPairInEitherDirection() {
+        //arrange (frank and alice ask each other at the same time, neither sees the other's row)
+        entityManager.persist(new Friendship(frank, alice));
+
+        //act + assert (the second row is rejected by the database)
+        entityManager.persist(new Friendship(alice, frank));
+        assertThrows(PersistenceException.class, () -> entityManager.flush());
+    }
+
+    @Test
+    void requestFriendship_withOneselfIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> friendshipService.requestFriendship("alice", alice.getId()));
+    }
+
+    @Test
+    void suggestFriends_ranksFriendsOfFriendsByMutualFriends() {
+        //act
+        List<FriendSuggestionDTO> suggestions = friendshipService.suggestFriends("alice", 10);
+
+        //assert (dave knows bob and carol, erin only bob)
+        assertEquals(List.of("dave", "erin"), usernames(suggestions));
+        assertEquals(2, suggestions.get(0).mutualFriends());
+        assertEquals(1, suggestions.get(1).mutualFriends());
+    }
+
+    @Test
+    void refresh_appliesChangedFriendships() {
+        //act (alice ends the friendship with carol, frank becomes friends with bob)
+        friendshipService.removeFriendship("alice", carol.getId());
+        friendshipService.requestFriendship("frank", idOf("bob"));
+        friendshipService.requestFriendship("bob", frank.getId());
+        friendGraph.refresh();
+
+        //assert (only bob is left in common with dave, frank is new)
+        List<FriendSuggestionDTO> suggestions = friendshipService.suggestFriends("alice", 10);
+        assertEquals(List.of("dave", "erin", "frank"), usernames(suggestions));
+        suggestions.forEach(suggestion -> assertEquals(1, suggestion.mutualFriends()));
+    }
+
+    @Test
+    void rebuild_dropsFriendshipsOfDeletedUsers() {
+        //arrange (bob is deleted, the database removes his friendships without a change of status)
+        Long bobId = idOf("bob");
+        entityManager.clear();
+        entityManager.getEntityManager().createQuery("DELETE FROM User u WHERE u.id = :id")
+                .setParameter("id", bobId)
+                .executeUpdate();
+
+        //act
+        friendGraph.rebuild();
+
+        //assert (dave is only known through carol, erin only through bob)
+        List<FriendSuggestionDTO> suggestions = friendshipService.suggestFriends("alice", 10);
+        assertEquals(List.of("dave"), usernames(suggestions));
+        assertEquals(1, suggestions.get(0).mutualFriends());
+    }
+
+    private Long idOf(String username) {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT u.id FROM User u WHERE u.username = :username", Long.class)
+                .setParameter("username", username)
+                .getSingleResult();
+    }
+
+    private static List<String> usernames(List<FriendSuggestionDTO> suggestions) {
+        return suggestions.stream().map(suggestion -> suggestion.user().getUsername()).toList();
+    }
+
+    private static Friendship accepted(User requester, User addressee) {
+        Friendship friendship = new Friendship(requester, addressee);
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        return friendship;
+    }
+
+    private static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("hashed_password");
+        user.setBio("bio of " + username);
+        return user;
+    }
+}
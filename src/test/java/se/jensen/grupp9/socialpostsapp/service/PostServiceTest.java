@@ -3,23 +3,46 @@ package se.jensen.grupp9.socialpostsapp.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import se.jensen.grupp9.socialpostsapp.cache.ConcurrentCallers;
+import se.jensen.grupp9.socialpostsapp.cache.PostCache;
+import se.jensen.grupp9.socialpostsapp.dto.CacheStatsDTO;
+import se.jensen.grupp9.socialpostsapp.dto.CommentPreview;
+import se.jensen.grupp9.socialpostsapp.dto.CursorPageDTO;
+import se.jensen.grupp9.socialpostsapp.dto.DTOMapper;
+import se.jensen.grupp9.socialpostsapp.dto.PostBatchRequestDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostCursor;
 import se.jensen.grupp9.socialpostsapp.dto.PostRequestDTO;
 import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostView;
 import se.jensen.grupp9.socialpostsapp.exception.PostNotFoundException;
 import se.jensen.grupp9.socialpostsapp.model.Post;
 import se.jensen.grupp9.socialpostsapp.model.User;
+import se.jensen.grupp9.socialpostsapp.repository.CommentRepository;
 import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
 import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+import se.jensen.grupp9.socialpostsapp.search.PostSearchIndex;
+import se.jensen.grupp9.socialpostsapp.search.SearchCursor;
+import se.jensen.grupp9.socialpostsapp.search.SearchHit;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineEntry;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineFanout;
+import se.jensen.grupp9.socialpostsapp.trending.TrendingPosts;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +55,24 @@ public class PostServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    @Mock
+    private TimelineFanout timelineFanout;
+
+    @Mock
+    private TrendingPosts trendingPosts;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private PostCache postCache = new PostCache(100, Duration.ofMinutes(1));
+
     @InjectMocks
     private PostService postService;
 
@@ -60,42 +101,216 @@ public class PostServiceTest {
         // (page containing test post,
         // mock repo returns this page when findAll() is called)
         Pageable pageble = PageRequest.of(0, 10);
-        Page<Post> testPostPage = new PageImpl<>(List.of(testPost), pageble, 1);
+        Page<PostView> testPostPage = new PageImpl<>(List.of(view(testPost)), pageble, 1);
 
-        when(postRepository.findAll(pageble)).thenReturn(testPostPage);
+        when(postRepository.findAllViews(pageble)).thenReturn(testPostPage);
 
         //act (PostService getPosts method)
         Page<PostResponseDTO> results = postService.getPosts(pageble);
 
-        //assert (one result, findAll method called 1 time)
+        //assert (one result, findAllViews method called 1 time, no entities loaded)
         assertNotNull(results);
         assertEquals(1, results.getContent().size());
-        verify(postRepository, times(1)).findAll(pageble);
+        verify(postRepository, times(1)).findAllViews(pageble);
+        verify(postRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void testGetPostsByCursor_firstPage() {
+        //arrange (three posts returned for a page size of two,
+        // mock repo returns them when findFeedFirstPage is called with size + 1)
+        Post older = new Post("older post");
+        older.setId(2L);
+        older.setUser(testUser);
+        older.setCreatedAt(LocalDateTime.of(2024, 1, 2, 10, 0));
+        Post oldest = new Post("oldest post");
+        oldest.setId(3L);
+        oldest.setUser(testUser);
+        oldest.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        testPost.setCreatedAt(LocalDateTime.of(2024, 1, 3, 10, 0));
+
+        when(postRepository.findFeedFirstPage(PageRequest.of(0, 3)))
+                .thenReturn(List.of(view(testPost), view(older), view(oldest)));
+
+        //act (PostService getPostsByCursor method without cursor)
+        CursorPageDTO<PostResponseDTO> result = postService.getPostsByCursor(null, 2);
+
+        //assert (two posts, next cursor points at the last returned post, no count query)
+        assertEquals(2, result.content().size());
+        assertEquals(new PostCursor(older.getCreatedAt(), 2L), PostCursor.decode(result.nextCursor()));
+        verify(postRepository, never()).findAllViews(any(Pageable.class));
+    }
+
+    @Test
+    void testGetPostsByCursor_lastPage() {
+        //arrange (cursor from a previous page, mock repo returns fewer posts than requested)
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 2, 10, 0);
+        String cursor = new PostCursor(createdAt, 2L).encode();
+        testPost.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+
+        when(postRepository.findFeedPageBefore(createdAt, 2L, PageRequest.of(0, 11)))
+                .thenReturn(List.of(view(testPost)));
+
+        //act (PostService getPostsByCursor method with cursor)
+        CursorPageDTO<PostResponseDTO> result = postService.getPostsByCursor(cursor, 10);
+
+        //assert (one post, no next cursor)
+        assertEquals(1, result.content().size());
+        assertNull(result.nextCursor());
+        verify(postRepository, times(1)).findFeedPageBefore(createdAt, 2L, PageRequest.of(0, 11));
+    }
+
+    @Test
+    void testGetPostsByCursor_invalidCursor() {
+        //act, assert (malformed cursor is rejected before the repository is called)
+        assertThrows(IllegalArgumentException.class, () -> postService.getPostsByCursor("not-a-cursor", 10));
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void testWithCommentPreviews() {
+        //arrange (two posts on the page, only the first one has a comment,
+        // mock comment repo returns it when findLatestByPostIds is called)
+        Post otherPost = new Post("other post");
+        otherPost.setId(2L);
+        otherPost.setUser(testUser);
+        CommentPreview comment = mock(CommentPreview.class);
+        when(comment.getPostId()).thenReturn(1L);
+        when(comment.getText()).thenReturn("test comment");
+        List<PostResponseDTO> page = List.of(
+                DTOMapper.toPostResponseDTO(testPost),
+                DTOMapper.toPostResponseDTO(otherPost));
+
+        when(commentRepository.findLatestByPostIds(List.of(1L, 2L), 3)).thenReturn(List.of(comment));
+
+        //act (PostService withCommentPreviews method)
+        List<PostResponseDTO> results = postService.withCommentPreviews(page, 3);
+
+        //assert (comment attached to the first post, empty list for the second, one query)
+        assertEquals(1, results.get(0).comments().size());
+        assertEquals("test comment", results.get(0).comments().get(0).text());
+        assertTrue(results.get(1).comments().isEmpty());
+        verify(commentRepository, times(1)).findLatestByPostIds(List.of(1L, 2L), 3);
+    }
+
+    @Test
+    void testSearchPosts() {
+        //arrange (index returns two hits plus one extra for a page size of two,
+        // post repo returns the posts in another order than the ranking)
+        Post otherPost = new Post("other test post");
+        otherPost.setId(2L);
+        otherPost.setUser(testUser);
+        List<SearchHit> hits = List.of(new SearchHit(2L, 3.0), new SearchHit(1L, 2.0), new SearchHit(5L, 1.0));
+        when(postSearchIndex.search("test", null, 3)).thenReturn(hits);
+        when(postRepository.findViewsByIdIn(List.of(2L, 1L))).thenReturn(List.of(view(testPost), view(otherPost)));
+
+        //act (PostService searchPosts method)
+        CursorPageDTO<PostResponseDTO> result = postService.searchPosts("test", null, 2);
+
+        //assert (posts in ranking order, next cursor points at the last hit on the page)
+        assertEquals(List.of(2L, 1L), result.content().stream().map(PostResponseDTO::id).toList());
+        assertEquals(new SearchCursor(2.0, 1L), SearchCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void testSearchPosts_emptyQuery() {
+        //act, assert (blank query is rejected without touching the index)
+        assertThrows(IllegalArgumentException.class, () -> postService.searchPosts(" ", null, 10));
+        verifyNoInteractions(postSearchIndex);
     }
 
     @Test
     void testGetPostById_success() {
-        // arrange (mock repo returns testPost-optional when findById is called)
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        // arrange (mock repo returns testPost-optional when findViewById is called)
+        when(postRepository.findViewById(1L)).thenReturn(Optional.of(view(testPost)));
 
         //act (PostService getPostByID method with 1L as ID)
         PostResponseDTO results = postService.getPostById(1L);
 
-        //assert (correct post text, findByID called 1 time)
+        //assert (correct post text, findViewById called 1 time, no entity loaded, view counted)
         assertNotNull(results);
         assertEquals("test post", results.text());
-        verify(postRepository, times(1)).findById(1L);
+        verify(postRepository, times(1)).findViewById(1L);
+        verify(postRepository, never()).findById(anyLong());
+        verify(trendingPosts, times(1)).recordView(1L);
+    }
+
+    @Test
+    void testGetPostById_loadsFromPrimary() {
+        //arrange
+        when(postRepository.findViewById(1L)).thenReturn(Optional.of(view(testPost)));
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+
+        //act
+        postService.getPostById(1L);
+
+        //assert (the cache is filled in a read-write transaction, which is not sent to a replica)
+        verify(transactionManager, times(1)).getTransaction(definition.capture());
+        assertFalse(definition.getValue().isReadOnly());
     }
 
     @Test
     void testGetPostById_fail() {
-        //arrange (mock repo returns empty optinal when findById is called)
-        when(postRepository.findById(anyLong())).thenReturn(Optional.empty());
+        //arrange (mock repo returns empty optinal when findViewById is called)
+        when(postRepository.findViewById(anyLong())).thenReturn(Optional.empty());
 
         // act(PostService getPostById method),
-        // assert(throws PostNotFoundException, findById called 1 time)
+        // assert(throws PostNotFoundException, findViewById called 1 time)
         assertThrows(PostNotFoundException.class, () -> postService.getPostById(1L));
-        verify(postRepository, times(1)).findById(1L);
+        verify(postRepository, times(1)).findViewById(1L);
+        verify(trendingPosts, never()).recordView(anyLong());
+    }
+
+    @Test
+    void testGetPostById_cached() {
+        // arrange (mock repo returns testPost-optional when findViewById is called)
+        when(postRepository.findViewById(1L)).thenReturn(Optional.of(view(testPost)));
+
+        //act (get the same post twice)
+        postService.getPostById(1L);
+        PostResponseDTO results = postService.getPostById(1L);
+
+        //assert (second call served from the cache, one miss and one hit)
+        assertEquals("test post", results.text());
+        verify(postRepository, times(1)).findViewById(1L);
+        CacheStatsDTO stats = postCache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void testGetPostById_concurrentCallersShareOneQuery() throws Exception {
+        //arrange (mock repo blocks until all callers are waiting, then returns testPost)
+        CountDownLatch release = new CountDownLatch(1);
+        when(postRepository.findViewById(1L)).thenAnswer(invocation -> {
+            ConcurrentCallers.await(release);
+            return Optional.of(view(testPost));
+        });
+
+        //act (20 parallel requests for the same post on a cold cache)
+        List<PostResponseDTO> results = ConcurrentCallers.call(20, release, () -> postService.getPostById(1L));
+
+        //assert (every caller got the post, the repository was called once)
+        results.forEach(post -> assertEquals("test post", post.text()));
+        verify(postRepository, times(1)).findViewById(1L);
+    }
+
+    @Test
+    void testUpdatePost_invalidatesCache() {
+        //arrange (post is cached before the update)
+        when(postRepository.findViewById(1L)).thenAnswer(invocation -> Optional.of(view(testPost)));
+        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        when(postRepository.save(any(Post.class))).thenReturn(testPost);
+        postService.getPostById(1L);
+
+        //act (update the post and read it again)
+        postService.updatePost(1L, new PostRequestDTO("updated post"));
+        PostResponseDTO results = postService.getPostById(1L);
+
+        //assert (the read after the update is loaded again with the new text)
+        assertEquals("updated post", results.text());
+        verify(postCache, times(1)).invalidate(1L);
+        verify(postRepository, times(2)).findViewById(1L);
     }
 
     @Test
@@ -114,6 +329,38 @@ public class PostServiceTest {
         assertEquals("test post", result.text());
         verify(userRepository, times(1)).findById(1L);
         verify(postRepository, times(1)).save(any(Post.class));
+        verify(postSearchIndex, times(1)).index(1L, "test post");
+        verify(timelineFanout, times(1)).fanOut(1L, List.of(new TimelineEntry(1L, null)));
+    }
+
+    @Test
+    void testCreatePosts() {
+        // arrange(mock user repo returns testUser in optional when findById is called,
+        // mock post repo gives the posts IDs 10, 11... and returns them when saveAll is called)
+        PostBatchRequestDTO batch = new PostBatchRequestDTO(
+                List.of(new PostRequestDTO("first post"), new PostRequestDTO("second post")));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(postRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Post> posts = invocation.getArgument(0);
+            for (int i = 0; i < posts.size(); i++) {
+                posts.get(i).setId(10L + i);
+            }
+            return posts;
+        });
+
+        // act (PostService createPosts method)
+        List<PostResponseDTO> results = postService.createPosts(1L, batch);
+
+        //assert (posts created in request order, user looked up once, one saveAll call, both posts indexed)
+        assertEquals(2, results.size());
+        assertEquals("first post", results.get(0).text());
+        assertEquals(11L, results.get(1).id());
+        assertEquals("testUser", results.get(1).user().getUsername());
+        verify(userRepository, times(1)).findById(1L);
+        verify(postRepository, times(1)).saveAll(anyList());
+        verify(postRepository, never()).save(any(Post.class));
+        verify(postSearchIndex, times(1)).index(10L, "first post");
+        verify(postSearchIndex, times(1)).index(11L, "second post");
     }
 
     @Test
@@ -127,6 +374,13 @@ public class PostServiceTest {
         //assert (findById called 1 time, delete called 1 time)
         verify(postRepository, times(1)).findById(1L);
         verify(postRepository, times(1)).delete(testPost);
+        verify(postSearchIndex, times(1)).remove(1L);
+        verify(postCache, times(1)).invalidate(1L);
     }
 
-}
\ No newline at end of file
+    private static PostView view(Post post) {
+        User user = post.getUser();
+        return new PostView(post.getId(), post.getText(), post.getCreatedAt(), post.getUpdatedAt(),
+                user.getId(), user.getUsername(), user.getEmail(), user.getBio(), post.getCommentCount());
+    }
+}
@@ -0,0 +1,132 @@
+package se.jensen.grupp9.socialpostsapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import se.jensen.grupp9.socialpostsapp.cache.PostCache;
+import se.jensen.grupp9.socialpostsapp.dto.CommentResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.model.Comment;
+import se.jensen.grupp9.socialpostsapp.model.Post;
+import se.jensen.grupp9.socialpostsapp.model.User;
+import se.jensen.grupp9.socialpostsapp.search.PostSearchIndex;
+import se.jensen.grupp9.socialpostsapp.sql.MaxQueries;
+import se.jensen.grupp9.socialpostsapp.sql.QueryCountExtension;
+import se.jensen.grupp9.socialpostsapp.timeline.TimelineFanout;
+import se.jensen.grupp9.socialpostsapp.trending.TrendingPosts;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the read paths of PostService and CommentService against a real database and fails
+ * if they need more SQL statements than expected, so an N+1 regression (e.g. a lazy
+ * Post.user or Comment.user loaded per row) breaks the build.
+ */
+@DataJpaTest
+@Import({PostService.class, CommentService.class, PostCache.class})
+@ExtendWith(QueryCountExtension.class)
+public class ServiceQueryCountTest {
+
+    private static final int POST_COUNT = 5;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private PostSearchIndex postSearchIndex;
+
+    @MockBean
+    private TimelineFanout timelineFanout;
+
+    @MockBean
+    private TrendingPosts trendingPosts;
+
+    private Long firstPostId;
+
+    @BeforeEach
+    void setUp() {
+        // one author per post and one comment per author on the first post
+        List<User> users = new ArrayList<>();
+        Post firstPost = null;
+        for (int i = 0; i < POST_COUNT; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("hashed_password");
+            user.setBio("bio of user" + i);
+            entityManager.persist(user);
+            users.add(user);
+            Post post = new Post("post number " + i);
+            post.setUser(user);
+            entityManager.persist(post);
+            if (firstPost == null) {
+                firstPost = post;
+            }
+        }
+        for (User user : users) {
+            Comment comment = new Comment("comment by " + user.getUsername());
+            comment.setPost(firstPost);
+            comment.setUser(user);
+            entityManager.persist(comment);
+        }
+        firstPostId = firstPost.getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @MaxQueries(1)
+    void testGetPosts() {
+        //act
+        List<PostResponseDTO> posts = postService.getPosts(PageRequest.of(0, 20)).getContent();
+
+        //assert
+        assertEquals(POST_COUNT, posts.size());
+    }
+
+    @Test
+    @MaxQueries(2)
+    void testGetPostsByCursorWithCommentPreviews() {
+        //act (feed page and the latest comments of all its posts)
+        List<PostResponseDTO> posts = postService.withCommentPreviews(
+                postService.getPostsByCursor(null, 20).content(), 3);
+
+        //assert
+        assertEquals(POST_COUNT, posts.size());
+    }
+
+    @Test
+    @MaxQueries(1)
+    void testGetPostById() {
+        //act
+        PostResponseDTO post = postService.getPostById(firstPostId);
+
+        //assert
+        assertEquals("user0", post.user().getUsername());
+    }
+
+    @Test
+    @MaxQueries(1)
+    void testGetAllCommentsByPostId() {
+        //act
+        List<CommentResponseDTO> comments = commentService.getAllCommentsByPostId(firstPostId);
+
+        //assert
+        assertEquals(POST_COUNT, comments.size());
+    }
+}
@@ -4,14 +4,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import se.jensen.grupp9.socialpostsapp.dto.UserRegistrationDTO;
 import se.jensen.grupp9.socialpostsapp.logging.AppLogger;
 import se.jensen.grupp9.socialpostsapp.model.User;
 import se.jensen.grupp9.socialpostsapp.repository.UserRepository;
+import se.jensen.grupp9.socialpostsapp.security.PasswordHashingExecutor;
+
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -33,6 +43,9 @@ class UserServiceTest {
     @Mock
     private AppLogger appLogger;
 
+    @Spy
+    private PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor(1, 4);
+
     @InjectMocks
     private UserService userService;
 
@@ -61,4 +74,71 @@ class UserServiceTest {
 
         assertEquals("test", user.getUsername());
     }
-}
\ No newline at end of file
+
+    @Test
+    void login_success() {
+        // användaren hämtas en gång och lösenordet stämmer, ingen omhashning behövs
+        User user = newUser();
+        when(userRepository.findByUsername("test")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", "hashed_password")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hashed_password")).thenReturn(false);
+
+        Optional<User> result = userService.login("test", "password").join();
+
+        assertTrue(result.isPresent());
+        verify(userRepository).findByUsername("test");
+        verify(userRepository, never()).updatePassword(anyLong(), anyString());
+    }
+
+    @Test
+    void login_upgradesHashWhenCostChanged() {
+        // hashen har lägre kostnad än den konfigurerade och skrivs om vid inloggning
+        User user = newUser();
+        when(userRepository.findByUsername("test")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", "hashed_password")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hashed_password")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("rehashed_password");
+
+        Optional<User> result = userService.login("test", "password").join();
+
+        assertTrue(result.isPresent());
+        assertEquals("rehashed_password", user.getPassword());
+        verify(userRepository).updatePassword(1L, "rehashed_password");
+    }
+
+    @Test
+    void login_wrongPassword() {
+        User user = newUser();
+        when(userRepository.findByUsername("test")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("wrong", "hashed_password")).thenReturn(false);
+
+        Optional<User> result = userService.login("test", "wrong").join();
+
+        assertTrue(result.isEmpty());
+        verify(userRepository, never()).updatePassword(anyLong(), anyString());
+    }
+
+    @Test
+    void login_userNotFound() {
+        // okänd användare avvisas efter en BCrypt-jämförelse mot en dummy-hash,
+        // så svarstiden inte avslöjar att användaren saknas
+        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy_hash");
+
+        Optional<User> result = userService.login("unknown", "password").join();
+        userService.login("unknown", "other").join();
+
+        assertTrue(result.isEmpty());
+        verify(passwordEncoder).matches("password", "dummy_hash");
+        verify(passwordEncoder).matches("other", "dummy_hash");
+        verify(passwordEncoder).encode(anyString());
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("test");
+        user.setPassword("hashed_password");
+        return user;
+    }
+}
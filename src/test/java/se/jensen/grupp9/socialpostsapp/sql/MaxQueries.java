@@ -0,0 +1,20 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a test method may run, checked by {@link QueryCountExtension}.
+ * On a class it applies to every test method without its own annotation.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface MaxQueries {
+
+    /**
+     * @return The highest allowed number of statements
+     */
+    int value();
+}
@@ -0,0 +1,43 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * JUnit extension that fails a test when it runs more SQL statements than its {@link MaxQueries}.
+ * <p>
+ * Only the test method itself is counted, not {@code @BeforeEach} setup. The statements are
+ * reported by {@link QueryCountInspector}, so the test needs a real Hibernate session factory
+ * (e.g. {@code @DataJpaTest}) with the inspector configured, as in application.properties.
+ * On failure the message lists every statement shape and how often it ran.
+ * </p>
+ */
+public class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        QueryCounter.begin();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryCounter.Queries queries = QueryCounter.end();
+        Optional<MaxQueries> max = context.getTestMethod()
+                .map(method -> method.getAnnotation(MaxQueries.class))
+                .or(() -> context.getTestClass().map(type -> type.getAnnotation(MaxQueries.class)));
+        if (max.isPresent() && queries.statements() > max.get().value()) {
+            String statements = queries.shapes().entrySet().stream()
+                    .map(Map.Entry::toString)
+                    .collect(Collectors.joining("\n  ", "\n  ", ""));
+            fail("Expected at most " + max.get().value() + " SQL statements but "
+                    + queries.statements() + " ran:" + statements);
+        }
+    }
+}
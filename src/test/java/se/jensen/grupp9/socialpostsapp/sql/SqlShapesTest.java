@@ -0,0 +1,24 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SqlShapesTest {
+
+    @Test
+    void testNormalizeLiteralsAndInLists() {
+        //act
+        String first = SqlShapes.normalize("select * from post p where p.id in (?, ?, ?) and p.text = 'a''b'");
+        String second = SqlShapes.normalize("select *  from post p\n where p.id in (?) and p.text = 'other'");
+        String limited = SqlShapes.normalize("select * from comment c where c.post_id = 42 fetch first 10 rows only");
+
+        //assert (same shape regardless of values and list length, identifiers with digits kept)
+        assertEquals("select * from post p where p.id in (?...) and p.text = ?", first);
+        assertEquals(first, second);
+        assertEquals("select * from comment c where c.post_id = ? fetch first ? rows only", limited);
+        assertEquals("select p1_0.id from post p1_0", SqlShapes.normalize("select p1_0.id from post p1_0"));
+        assertEquals("insert into post (text, user_id) values (?, ?)",
+                SqlShapes.normalize("insert into post (text, user_id) values (?, ?)"));
+    }
+}
@@ -0,0 +1,113 @@
+package se.jensen.grupp9.socialpostsapp.sql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import se.jensen.grupp9.socialpostsapp.dto.SlowQueryDTO;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs statements through a TimedDataSource on a local H2 database. The threshold is zero,
+ * so every statement counts as slow and ends up in the slow-query table.
+ */
+public class TimedDataSourceTest {
+
+    private SlowQueryLog slowQueryLog;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource database = new DriverManagerDataSource(
+                "jdbc:h2:mem:timed" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(database).execute(
+                "CREATE TABLE app_user (id BIGINT PRIMARY KEY, username VARCHAR(50), password VARCHAR(100))");
+
+        slowQueryLog = new SlowQueryLog(Duration.ZERO, 50);
+        jdbcTemplate = new JdbcTemplate(TimedDataSource.wrap(database, slowQueryLog));
+    }
+
+    @Test
+    void testInsert_redactsPassword() {
+        //act
+        jdbcTemplate.update("INSERT INTO app_user (id, username, password) VALUES (?, ?, ?)", 1L, "anna", "secret");
+
+        //assert (binds captured with the password redacted, one row inserted)
+        SlowQueryDTO insert = find("insert into app_user");
+        assertEquals(List.of("1", "anna", "***"), insert.binds());
+        assertEquals(1, insert.rows());
+    }
+
+    @Test
+    void testUpdate_redactsPassword() {
+        //arrange
+        jdbcTemplate.update("INSERT INTO app_user (id, username, password) VALUES (?, ?, ?)", 1L, "anna", "secret");
+
+        //act
+        jdbcTemplate.update("UPDATE app_user SET password = ? WHERE id = ?", "new-secret", 1L);
+
+        //assert
+        assertEquals(List.of("***", "1"), find("update app_user").binds());
+    }
+
+    @Test
+    void testQuery_countsRowsAndNormalizesSql() {
+        //arrange
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO app_user (id, username, password) VALUES (?, ?, ?)", id, "user" + id, "x");
+        }
+
+        //act
+        List<String> usernames = jdbcTemplate.queryForList(
+                "SELECT username FROM app_user WHERE id > ? AND username <> 'nobody'", String.class, 1L);
+
+        //assert (rows counted while reading, the literal is normalized away but the bind is kept)
+        assertEquals(2, usernames.size());
+        SlowQueryDTO select = find("select username");
+        assertEquals("SELECT username FROM app_user WHERE id > ? AND username <> ?", select.sql());
+        assertEquals(2, select.rows());
+        assertEquals(List.of("1"), select.binds());
+        assertEquals("unknown", select.callSite());
+    }
+
+    @Test
+    void testTopSize_keepsOnlySlowestShapes() {
+        //arrange
+        SlowQueryLog small = new SlowQueryLog(Duration.ZERO, 2);
+
+        //act (five different shapes, the last ones slowest)
+        for (int i = 1; i <= 5; i++) {
+            small.record("SELECT " + "x, ".repeat(i) + "1", List.of(), 1, i * 1_000_000L, null);
+        }
+
+        //assert
+        List<SlowQueryDTO> top = small.top(10);
+        assertEquals(2, top.size());
+        assertEquals(5.0, top.get(0).maxMs());
+        assertEquals(4.0, top.get(1).maxMs());
+    }
+
+    @Test
+    void testSensitiveParameters() {
+        //assert (only password parameters, whatever the statement)
+        assertEquals("{3}", SensitiveParameters.find(
+                "insert into app_user (bio,email,password,username,id) values (?,?,?,?,?)").toString());
+        assertEquals("{1}", SensitiveParameters.find(
+                "update app_user set password=? where id=?").toString());
+        assertEquals("{2}", SensitiveParameters.find(
+                "select u1_0.id from app_user u1_0 where u1_0.username=? and u1_0.password=?").toString());
+        assertTrue(SensitiveParameters.find("update post set text=? where id=?").isEmpty());
+    }
+
+    private SlowQueryDTO find(String sqlPrefix) {
+        return slowQueryLog.top(50).stream()
+                .filter(query -> query.sql().toLowerCase().startsWith(sqlPrefix))
+                .findFirst()
+                .orElseThrow();
+    }
+}
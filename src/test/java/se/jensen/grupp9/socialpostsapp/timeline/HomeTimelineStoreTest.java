@@ -0,0 +1,89 @@
+package se.jensen.grupp9.socialpostsapp.timeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HomeTimelineStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final HomeTimelineStore store = new HomeTimelineStore(10, 100, Duration.ofHours(1), 10_000);
+
+    @Test
+    void testPush_onlyToTimelinesInMemory() {
+        //act
+        boolean missing = store.push(1L, entry(1, 1));
+        TimelineBuffer timeline = store.get(1L, id -> new TimelineBuffer(10, true));
+        boolean present = store.push(1L, entry(2, 2));
+
+        //assert (the post pushed before the timeline was built is not in it)
+        assertFalse(missing);
+        assertTrue(present);
+        assertEquals(List.of(2L), ids(timeline.newest(10)));
+    }
+
+    @Test
+    void testPush_duringLoadIsAddedToTheLoadedTimeline() {
+        //act (a fan-out arrives after the snapshot was read, before the timeline is published)
+        TimelineBuffer timeline = store.get(1L, id -> {
+            TimelineBuffer snapshot = new TimelineBuffer(10, true);
+            snapshot.add(entry(1, 1));
+            store.push(1L, entry(2, 2));
+            return snapshot;
+        });
+        boolean afterLoad = store.push(1L, entry(3, 3));
+
+        //assert (nothing is lost and the timeline is still complete)
+        assertTrue(afterLoad);
+        assertEquals(List.of(3L, 2L, 1L), ids(timeline.newest(10)));
+        assertTrue(timeline.isComplete());
+    }
+
+    @Test
+    void testInvalidate_duringLoadIsNotPublished() {
+        //arrange (the follow set changes while the timeline is being built from the old one)
+        store.get(1L, id -> {
+            store.invalidate(1L);
+            return new TimelineBuffer(10, true);
+        });
+
+        //act
+        TimelineBuffer rebuilt = store.get(1L, id -> {
+            TimelineBuffer fresh = new TimelineBuffer(10, true);
+            fresh.add(entry(1, 1));
+            return fresh;
+        });
+
+        //assert (the stale build was dropped, the next read built the timeline again)
+        assertEquals(List.of(1L), ids(rebuilt.newest(10)));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testGet_failedLoadKeepsNoPendingPushes() {
+        //arrange (the first load fails after a post was pushed to it)
+        assertThrows(IllegalStateException.class, () -> store.get(1L, id -> {
+            store.push(1L, entry(1, 1));
+            throw new IllegalStateException("database down");
+        }));
+
+        //act
+        TimelineBuffer timeline = store.get(1L, id -> new TimelineBuffer(10, true));
+
+        //assert
+        assertEquals(0, timeline.size());
+    }
+
+    private static TimelineEntry entry(long postId, long second) {
+        return new TimelineEntry(postId, START.plusSeconds(second));
+    }
+
+    private static List<Long> ids(List<TimelineEntry> entries) {
+        return entries.stream().map(TimelineEntry::postId).toList();
+    }
+}
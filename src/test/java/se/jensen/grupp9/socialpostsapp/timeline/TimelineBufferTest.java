@@ -0,0 +1,100 @@
+package se.jensen.grupp9.socialpostsapp.timeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimelineBufferTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void testNewest_returnsNewestFirst() {
+        //arrange
+        TimelineBuffer timeline = new TimelineBuffer(10, true);
+        for (long id = 1; id <= 5; id++) {
+            timeline.add(entry(id, id));
+        }
+
+        //act
+        List<TimelineEntry> page = timeline.newest(3);
+
+        //assert
+        assertEquals(List.of(5L, 4L, 3L), ids(page));
+    }
+
+    @Test
+    void testAdd_dropsOldestWhenFull() {
+        //arrange
+        TimelineBuffer timeline = new TimelineBuffer(3, true);
+
+        //act (five posts in a buffer for three)
+        for (long id = 1; id <= 5; id++) {
+            timeline.add(entry(id, id));
+        }
+
+        //assert (only the newest three are kept and the buffer knows it is not complete)
+        assertEquals(3, timeline.size());
+        assertEquals(List.of(5L, 4L, 3L), ids(timeline.newest(10)));
+        assertFalse(timeline.isComplete());
+    }
+
+    @Test
+    void testAdd_insertsLateArrivalInOrderAndIgnoresDuplicates() {
+        //arrange (post 3 arrives after post 4 but was created before it)
+        TimelineBuffer timeline = new TimelineBuffer(3, true);
+        timeline.add(entry(1, 1));
+        timeline.add(entry(2, 2));
+        timeline.add(entry(4, 4));
+
+        //act
+        boolean late = timeline.add(entry(3, 3));
+        boolean duplicate = timeline.add(entry(4, 4));
+        boolean tooOld = timeline.add(entry(0, 0));
+
+        //assert (post 1 was dropped to make room, the rest is in order)
+        assertTrue(late);
+        assertFalse(duplicate);
+        assertFalse(tooOld);
+        assertEquals(List.of(4L, 3L, 2L), ids(timeline.newest(10)));
+    }
+
+    @Test
+    void testBefore_pagesFromCursor() {
+        //arrange (posts 4 and 5 created in the same microsecond, the ID breaks the tie)
+        TimelineBuffer timeline = new TimelineBuffer(10, true);
+        timeline.add(entry(1, 1));
+        timeline.add(entry(2, 2));
+        timeline.add(entry(3, 3));
+        timeline.add(entry(4, 4));
+        timeline.add(entry(5, 4));
+
+        //act
+        List<TimelineEntry> page = timeline.before(START.plusSeconds(4), 5, 2);
+        List<TimelineEntry> last = timeline.before(page.get(1).createdAt(), page.get(1).postId(), 2);
+
+        //assert
+        assertEquals(List.of(4L, 3L), ids(page));
+        assertEquals(List.of(2L, 1L), ids(last));
+    }
+
+    @Test
+    void testMicros_roundTrip() {
+        //arrange
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_000);
+
+        //assert
+        assertEquals(time, TimelineBuffer.fromMicros(TimelineBuffer.toMicros(time)));
+    }
+
+    private static TimelineEntry entry(long postId, long second) {
+        return new TimelineEntry(postId, START.plusSeconds(second));
+    }
+
+    private static List<Long> ids(List<TimelineEntry> entries) {
+        return entries.stream().map(TimelineEntry::postId).toList();
+    }
+}
@@ -0,0 +1,84 @@
+package se.jensen.grupp9.socialpostsapp.timeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimelineMergeTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void testMerge_interleavesSourcesNewestFirst() {
+        //arrange
+        List<TimelineEntry> timeline = List.of(entry(6, 6), entry(3, 3), entry(1, 1));
+        List<TimelineEntry> celebrity = List.of(entry(5, 5), entry(4, 4), entry(2, 2));
+
+        //act
+        List<TimelineEntry> merged = TimelineMerge.merge(List.of(timeline, celebrity), 10);
+
+        //assert
+        assertEquals(List.of(6L, 5L, 4L, 3L, 2L, 1L), ids(merged));
+    }
+
+    @Test
+    void testMerge_ordersEqualTimesById() {
+        //arrange (same creation time, the higher id is newer)
+        List<TimelineEntry> first = List.of(entry(7, 1));
+        List<TimelineEntry> second = List.of(entry(9, 1), entry(8, 1));
+
+        //act
+        List<TimelineEntry> merged = TimelineMerge.merge(List.of(first, second), 10);
+
+        //assert
+        assertEquals(List.of(9L, 8L, 7L), ids(merged));
+    }
+
+    @Test
+    void testMerge_stopsAtLimit() {
+        //arrange
+        List<TimelineEntry> first = List.of(entry(4, 4), entry(2, 2));
+        List<TimelineEntry> second = List.of(entry(3, 3), entry(1, 1));
+
+        //act
+        List<TimelineEntry> merged = TimelineMerge.merge(List.of(first, second), 3);
+
+        //assert
+        assertEquals(List.of(4L, 3L, 2L), ids(merged));
+    }
+
+    @Test
+    void testMerge_returnsPostInSeveralSourcesOnce() {
+        //arrange (post 2 was pushed to the timeline before its author became a celebrity)
+        List<TimelineEntry> timeline = List.of(entry(3, 3), entry(2, 2));
+        List<TimelineEntry> celebrity = List.of(entry(2, 2), entry(1, 1));
+
+        //act
+        List<TimelineEntry> merged = TimelineMerge.merge(List.of(timeline, celebrity), 10);
+
+        //assert
+        assertEquals(List.of(3L, 2L, 1L), ids(merged));
+    }
+
+    @Test
+    void testMerge_skipsEmptySources() {
+        //act
+        List<TimelineEntry> merged = TimelineMerge.merge(
+                List.of(List.of(), List.of(entry(1, 1)), List.of()), 10);
+
+        //assert
+        assertEquals(List.of(1L), ids(merged));
+        assertTrue(TimelineMerge.merge(List.of(List.of(), List.of()), 10).isEmpty());
+    }
+
+    private static TimelineEntry entry(long postId, long minutes) {
+        return new TimelineEntry(postId, START.plusMinutes(minutes));
+    }
+
+    private static List<Long> ids(List<TimelineEntry> entries) {
+        return entries.stream().map(TimelineEntry::postId).toList();
+    }
+}
@@ -0,0 +1,110 @@
+package se.jensen.grupp9.socialpostsapp.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngagementWindowTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    @Test
+    void testRecord_countsViewsAndCommentsPerPost() {
+        //arrange (three buckets of one minute)
+        EngagementWindow window = new EngagementWindow(3, Duration.ofMinutes(1));
+
+        //act
+        window.recordView(1L, 0);
+        window.recordView(1L, 10_000);
+        window.recordComment(1L, 20_000);
+        window.recordView(2L, 30_000);
+
+        //assert
+        Map<Long, long[]> totals = totals(window, 59_000);
+        assertArrayEquals(new long[]{2, 1}, totals.get(1L));
+        assertArrayEquals(new long[]{1, 0}, totals.get(2L));
+    }
+
+    @Test
+    void testForEach_givesTheAgeOfEachBucket() {
+        //arrange
+        EngagementWindow window = new EngagementWindow(3, Duration.ofMinutes(1));
+        window.recordView(1L, 0);
+        window.recordView(2L, 2 * MINUTE);
+
+        //act
+        Map<Long, Long> ages = new HashMap<>();
+        window.forEach(2 * MINUTE + MINUTE / 2, (postId, views, comments, ageMillis) -> ages.put(postId, ageMillis));
+
+        //assert (the middle of the first bucket was two minutes ago, the middle of the last is now)
+        assertEquals(2 * MINUTE, ages.get(1L));
+        assertEquals(0L, ages.get(2L));
+    }
+
+    @Test
+    void testForEach_skipsBucketsOlderThanTheWindow() {
+        //arrange
+        EngagementWindow window = new EngagementWindow(3, Duration.ofMinutes(1));
+        window.recordView(1L, 0);
+        window.recordView(2L, MINUTE);
+
+        //act (three minutes later the first bucket has left the window)
+        Map<Long, long[]> totals = totals(window, 3 * MINUTE);
+
+        //assert
+        assertFalse(totals.containsKey(1L));
+        assertArrayEquals(new long[]{1, 0}, totals.get(2L));
+    }
+
+    @Test
+    void testRecord_reusesBucketForANewPeriod() {
+        //arrange
+        EngagementWindow window = new EngagementWindow(3, Duration.ofMinutes(1));
+        window.recordView(1L, 0);
+
+        //act (same bucket in the ring, three minutes later)
+        window.recordView(2L, 3 * MINUTE);
+
+        //assert (the old counts are gone)
+        Map<Long, long[]> totals = totals(window, 3 * MINUTE);
+        assertFalse(totals.containsKey(1L));
+        assertArrayEquals(new long[]{1, 0}, totals.get(2L));
+    }
+
+    @Test
+    void testRecord_countsFromManyThreads() throws Exception {
+        //arrange
+        EngagementWindow window = new EngagementWindow(3, Duration.ofMinutes(1));
+        Thread[] threads = new Thread[8];
+
+        //act (8 threads view the same post 10 000 times each)
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    window.recordView(1L, 1_000);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //assert
+        assertArrayEquals(new long[]{80_000, 0}, totals(window, 1_000).get(1L));
+    }
+
+    private static Map<Long, long[]> totals(EngagementWindow window, long nowMillis) {
+        Map<Long, long[]> totals = new HashMap<>();
+        window.forEach(nowMillis, (postId, views, comments, ageMillis) -> {
+            long[] counts = totals.computeIfAbsent(postId, id -> new long[2]);
+            counts[0] += views;
+            counts[1] += comments;
+        });
+        return totals;
+    }
+}
@@ -0,0 +1,154 @@
+package se.jensen.grupp9.socialpostsapp.trending;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.jensen.grupp9.socialpostsapp.dto.PostResponseDTO;
+import se.jensen.grupp9.socialpostsapp.dto.PostView;
+import se.jensen.grupp9.socialpostsapp.repository.PostRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TrendingPostsTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private final MutableClock clock = new MutableClock();
+    private TrendingPosts trendingPosts;
+
+    @BeforeEach
+    void setUp() {
+        // one hour window of five minute buckets, a comment is worth five views, half-life 30 minutes
+        trendingPosts = new TrendingPosts(postRepository, 12, Duration.ofMinutes(5),
+                1, 5, Duration.ofMinutes(30), 2, clock);
+    }
+
+    @Test
+    void testRefresh_ranksByWeightedEngagement() {
+        //arrange (post 1: three views, post 2: one comment, post 3: one view)
+        returnPostsById();
+        for (int i = 0; i < 3; i++) {
+            trendingPosts.recordView(1L);
+        }
+        trendingPosts.recordComment(2L);
+        trendingPosts.recordView(3L);
+
+        //act
+        int ranked = trendingPosts.refresh();
+
+        //assert (only the best two are kept, the comment counts more than three views)
+        assertEquals(2, ranked);
+        assertEquals(List.of(2L, 1L), ids(trendingPosts.top(10)));
+        assertEquals(List.of(2L), ids(trendingPosts.top(1)));
+    }
+
+    @Test
+    void testRefresh_olderEngagementCountsLess() {
+        //arrange (post 1 had four views 40 minutes ago, post 2 has three views now)
+        returnPostsById();
+        for (int i = 0; i < 4; i++) {
+            trendingPosts.recordView(1L);
+        }
+        clock.advance(Duration.ofMinutes(40));
+        for (int i = 0; i < 3; i++) {
+            trendingPosts.recordView(2L);
+        }
+
+        //act
+        trendingPosts.refresh();
+
+        //assert (four views decayed by more than one half-life score less than three new ones)
+        assertEquals(List.of(2L, 1L), ids(trendingPosts.top(10)));
+    }
+
+    @Test
+    void testRefresh_leavesOutDeletedPosts() {
+        //arrange (post 2 is no longer in the database)
+        when(postRepository.findViewsByIdIn(anyCollection())).thenReturn(List.of(view(1L)));
+        trendingPosts.recordView(1L);
+        trendingPosts.recordView(2L);
+
+        //act & assert
+        assertEquals(1, trendingPosts.refresh());
+        assertEquals(List.of(1L), ids(trendingPosts.top(10)));
+    }
+
+    @Test
+    void testTop_servedFromMemory() {
+        //arrange
+        returnPostsById();
+        trendingPosts.recordView(1L);
+        trendingPosts.refresh();
+        clearInvocations(postRepository);
+
+        //act
+        List<PostResponseDTO> posts = trendingPosts.top(10);
+
+        //assert
+        assertEquals(List.of(1L), ids(posts));
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void testTop_emptyBeforeTheFirstRefresh() {
+        trendingPosts.recordView(1L);
+        assertTrue(trendingPosts.top(10).isEmpty());
+    }
+
+    private void returnPostsById() {
+        when(postRepository.findViewsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(TrendingPostsTest::view).toList();
+        });
+    }
+
+    private static PostView view(Long id) {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        return new PostView(id, "post " + id, createdAt, createdAt, 1L, "user", "user@example.com", "bio", 0);
+    }
+
+    private static List<Long> ids(List<PostResponseDTO> posts) {
+        return posts.stream().map(PostResponseDTO::id).toList();
+    }
+
+    /**
+     * Clock that only moves when the test moves it
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-05-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}